@@ -1,12 +1,17 @@
 -- init.sql
+-- Book, author and country ids are allocated by the application from these sequences, 50 at a time
+CREATE SEQUENCE IF NOT EXISTS country_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS author_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS country (
-                                       id SERIAL PRIMARY KEY,
+                                       id BIGINT PRIMARY KEY,
                                        name VARCHAR(255) NOT NULL,
     continent VARCHAR(255) NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS author (
-                                      id SERIAL PRIMARY KEY,
+                                      id BIGINT PRIMARY KEY,
                                       name VARCHAR(255) NOT NULL,
     surname VARCHAR(255) NOT NULL,
     country_id BIGINT NOT NULL,
@@ -14,11 +19,12 @@ CREATE TABLE IF NOT EXISTS author (
     );
 
 CREATE TABLE IF NOT EXISTS book (
-                                    id SERIAL PRIMARY KEY,
+                                    id BIGINT PRIMARY KEY,
                                     name VARCHAR(255) NOT NULL,
     category VARCHAR(50) NOT NULL,
     author_id BIGINT NOT NULL,
     available_copies INTEGER NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT fk_author FOREIGN KEY (author_id) REFERENCES author(id)
     );
 
@@ -31,7 +37,8 @@ CREATE TABLE IF NOT EXISTS library_users (
     is_account_non_expired BOOLEAN DEFAULT TRUE,
     is_account_non_locked BOOLEAN DEFAULT TRUE,
     is_credentials_non_expired BOOLEAN DEFAULT TRUE,
-    is_enabled BOOLEAN DEFAULT TRUE
+    is_enabled BOOLEAN DEFAULT TRUE,
+    token_version BIGINT NOT NULL DEFAULT 0
     );
 
 CREATE TABLE IF NOT EXISTS wishlist (
@@ -54,4 +61,50 @@ CREATE TABLE IF NOT EXISTS wishlist_books (
 CREATE INDEX idx_book_author ON book(author_id);
 CREATE INDEX idx_author_country ON author(country_id);
 CREATE INDEX idx_wishlist_user ON wishlist(user_username);
-CREATE INDEX idx_user_role ON library_users(role);
\ No newline at end of file
+-- At most one active wishlist per user
+CREATE UNIQUE INDEX uk_wishlist_user_created ON wishlist(user_username) WHERE status = 'CREATED';
+CREATE INDEX idx_user_role ON library_users(role);
+
+-- Composite indexes backing the keyset-paginated book listing
+CREATE INDEX idx_book_name_id ON book(name, id);
+CREATE INDEX idx_book_category_id ON book(category, id);
+CREATE INDEX idx_book_author_id_id ON book(author_id, id);
+
+CREATE TABLE IF NOT EXISTS book_history (
+                                            id BIGSERIAL PRIMARY KEY,
+                                            book_id BIGINT,
+                                            revision INTEGER,
+                                            snapshot BOOLEAN,
+                                            name VARCHAR(255),
+    category VARCHAR(50),
+    author_id BIGINT,
+    available_copies INTEGER,
+    modified_at TIMESTAMP,
+    modified_by_username VARCHAR(255),
+    CONSTRAINT fk_history_book FOREIGN KEY (book_id) REFERENCES book(id),
+    CONSTRAINT fk_history_author FOREIGN KEY (author_id) REFERENCES author(id),
+    CONSTRAINT fk_history_user FOREIGN KEY (modified_by_username) REFERENCES library_users(username)
+    );
+
+CREATE INDEX idx_book_history_book_modified_at ON book_history(book_id, modified_at);
+-- Revisions store only changed fields, with a full snapshot every few revisions
+CREATE UNIQUE INDEX uk_book_history_book_revision ON book_history(book_id, revision);
+
+CREATE TABLE IF NOT EXISTS authentication_log (
+                                                  id BIGSERIAL PRIMARY KEY,
+                                                  username VARCHAR(255),
+    token_fingerprint VARCHAR(64),
+    issued_at TIMESTAMP,
+    expires_at TIMESTAMP
+    );
+
+-- Logins older than the retention window, rolled up per user and day
+CREATE TABLE IF NOT EXISTS authentication_log_daily_count (
+                                                              username VARCHAR(255) NOT NULL,
+                                                              login_date DATE NOT NULL,
+                                                              login_count BIGINT NOT NULL,
+                                                              PRIMARY KEY (username, login_date)
+    );
+
+CREATE INDEX idx_auth_log_username_issued_at ON authentication_log(username, issued_at);
+CREATE INDEX idx_auth_log_issued_at ON authentication_log(issued_at);
@@ -0,0 +1,127 @@
+package mk.finki.ukim.mk.library.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.datasource.PrimaryReads;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Application-level cache for the public catalog reads (books, authors, countries, categories).
+ * <p>
+ * Values are immutable DTOs tagged with the catalog version they were built from. Every catalog
+ * write bumps the version, once when the write happens and again when its transaction completes,
+ * so a value loaded while a write was in flight is never served after that write commits.
+ * Loaders read from the primary: a replica could still return the state before a committed write,
+ * which would then be cached under the new version.
+ */
+@Component
+public class CatalogCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    private record Entry(long version, Object value) {
+    }
+
+    public CatalogCache(@Value("${library.catalog-cache.enabled:true}") boolean enabled,
+                        @Value("${library.catalog-cache.max-entries:1000}") int maxEntries,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.hits = meterRegistry.counter("library.catalog.cache.hits");
+        this.misses = meterRegistry.counter("library.catalog.cache.misses");
+        this.evictions = meterRegistry.counter("library.catalog.cache.evictions");
+        // access-ordered, so the least recently read entry is dropped once the cache is full
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CatalogCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("library.catalog.cache.size", this, CatalogCache::size).register(meterRegistry);
+        Gauge.builder("library.catalog.version", version, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached value for the key if it was built from the current catalog version,
+     * otherwise loads it and caches it unless the catalog changed during the load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        long current = version.get();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.version() == current) {
+                hits.increment();
+                return (T) entry.value();
+            }
+        }
+        misses.increment();
+        T value = PrimaryReads.call(loader);
+        synchronized (entries) {
+            if (version.get() == current) {
+                entries.put(key, new Entry(current, value));
+            }
+        }
+        return value;
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        bumpVersion();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    bumpVersion();
+                }
+            });
+        }
+    }
+
+    public long version() {
+        return version.get();
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private void bumpVersion() {
+        version.incrementAndGet();
+        synchronized (entries) {
+            evictions.increment(entries.size());
+            entries.clear();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package mk.finki.ukim.mk.library.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Publishes hits, misses and the hit ratio of the Hibernate second-level cache regions holding
+ * countries, authors and their {@code findAll} results (configured in {@code hibernate-cache.xml}).
+ * The regions are kept current by Hibernate itself: writes through the country and author
+ * services replace or evict the cached entity when their transaction commits, and any write to
+ * either table invalidates the cached query results. The numbers come from Hibernate's
+ * statistics, so they stay at zero unless {@code hibernate.generate_statistics} is on.
+ */
+@Component
+public class ReferenceDataCacheMetrics {
+
+    public static final String QUERY_REGION = "library.reference-queries";
+
+    static final List<String> REGIONS = List.of(Country.CACHE_REGION, Author.CACHE_REGION, QUERY_REGION);
+
+    public ReferenceDataCacheMetrics(EntityManagerFactory entityManagerFactory, MeterRegistry meterRegistry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : REGIONS) {
+            FunctionCounter.builder("library.reference_cache.hits", statistics,
+                            stats -> count(stats, region, CacheRegionStatistics::getHitCount))
+                    .tag("region", region)
+                    .register(meterRegistry);
+            FunctionCounter.builder("library.reference_cache.misses", statistics,
+                            stats -> count(stats, region, CacheRegionStatistics::getMissCount))
+                    .tag("region", region)
+                    .register(meterRegistry);
+            Gauge.builder("library.reference_cache.hit_ratio", statistics, stats -> hitRatio(stats, region))
+                    .tag("region", region)
+                    .register(meterRegistry);
+        }
+    }
+
+    static double hitRatio(Statistics statistics, String region) {
+        long hits = count(statistics, region, CacheRegionStatistics::getHitCount);
+        long requests = hits + count(statistics, region, CacheRegionStatistics::getMissCount);
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+
+    // a region only exists once the second-level cache is on and, for query results, first used
+    private static long count(Statistics statistics, String region, ToLongFunction<CacheRegionStatistics> counter) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        return regionStatistics != null ? counter.applyAsLong(regionStatistics) : 0L;
+    }
+}
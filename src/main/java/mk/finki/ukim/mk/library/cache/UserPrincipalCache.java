@@ -0,0 +1,236 @@
+package mk.finki.ukim.mk.library.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.events.UserChangedEvent;
+import mk.finki.ukim.mk.library.model.domain.User;
+import mk.finki.ukim.mk.library.service.domain.UserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small bounded cache of the full {@link User} behind authenticated requests, for the
+ * code paths that need more than a token's claims, and of each user's persisted token version,
+ * which decides whether a token's claims can still be trusted.
+ * <p>
+ * Every write to a user row bumps its token version in the database and evicts the cached user
+ * (when the write happens and again when its transaction completes); the {@link UserChangedEvent}
+ * carries the new version, which is recorded here once the write commits. Token checks are
+ * therefore answered from memory, and the database is read on a request only for a user whose
+ * version is not held yet. Writes made through other instances raise no event here; they are
+ * picked up by a background re-read of the held versions every {@code token-version-refresh-ms}.
+ * A cached user whose version is behind is reloaded. Callers get their own copy of the user,
+ * never the cached instance.
+ */
+@Component
+public class UserPrincipalCache {
+
+    private static final int REFRESH_CHUNK = 500;
+
+    private final UserService userService;
+    private final boolean enabled;
+    private final int maxEntries;
+    private final int maxTokenVersions;
+    private final AtomicLong version = new AtomicLong();
+    private final Map<String, User> entries;
+    // a few bytes per user, so bounded well above the users whose full entry is kept
+    private final Map<String, Long> tokenVersions;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public UserPrincipalCache(UserService userService,
+                              @Value("${library.user-principal-cache.enabled:true}") boolean enabled,
+                              @Value("${library.user-principal-cache.max-entries:500}") int maxEntries,
+                              @Value("${library.user-principal-cache.token-version-max-entries:100000}") int maxTokenVersions,
+                              MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.maxTokenVersions = maxTokenVersions;
+        this.hits = meterRegistry.counter("library.user_principal.cache.hits");
+        this.misses = meterRegistry.counter("library.user_principal.cache.misses");
+        this.evictions = meterRegistry.counter("library.user_principal.cache.evictions");
+        // access-ordered, so the least recently used user is dropped once the cache is full
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, User> eldest) {
+                if (size() > UserPrincipalCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.tokenVersions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > UserPrincipalCache.this.maxTokenVersions;
+            }
+        };
+        Gauge.builder("library.user_principal.cache.size", this, UserPrincipalCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Returns a copy of the user, loading it on a miss or when the cached one is behind the
+     * persisted token version. Throws like {@link UserService#findByUsername} when the user
+     * does not exist.
+     */
+    public User get(String username) {
+        if (!enabled) {
+            return userService.findByUsername(username);
+        }
+        long current = version.get();
+        User cached;
+        synchronized (entries) {
+            cached = entries.get(username);
+        }
+        if (cached != null && cached.getTokenVersion() == currentTokenVersion(username)) {
+            hits.increment();
+            return copyOf(cached);
+        }
+        misses.increment();
+        User user = userService.findByUsername(username);
+        synchronized (entries) {
+            // a user written during the load may have been read before the write
+            if (version.get() == current) {
+                entries.put(username, user);
+                tokenVersions.merge(username, user.getTokenVersion(), Long::max);
+            }
+        }
+        return copyOf(user);
+    }
+
+    /**
+     * Whether the user changed since the token was issued, i.e. the token carries an older token
+     * version than the one persisted. Throws like {@link UserService#findTokenVersion} when the
+     * user no longer exists.
+     */
+    public boolean isStale(String username, long tokenVersion) {
+        return tokenVersion != currentTokenVersion(username);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        String username = event.getUsername();
+        Long tokenVersion = event.getTokenVersion();
+        evict(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(username);
+                    if (status == STATUS_COMMITTED) {
+                        recordTokenVersion(username, tokenVersion);
+                    }
+                }
+            });
+        } else {
+            recordTokenVersion(username, tokenVersion);
+        }
+    }
+
+    /**
+     * Re-reads every held token version, a chunk per query, so a user changed through another
+     * instance is seen here within one interval; users that no longer exist are dropped and fail
+     * their next check.
+     */
+    @Scheduled(fixedDelayString = "${library.user-principal-cache.token-version-refresh-ms:5000}")
+    public void refreshTokenVersions() {
+        if (!enabled) {
+            return;
+        }
+        // iterating leaves the access order alone; only a version that moved counts as a use
+        Map<String, Long> held;
+        synchronized (entries) {
+            held = new LinkedHashMap<>(tokenVersions);
+        }
+        List<String> usernames = new ArrayList<>(held.keySet());
+        for (int from = 0; from < usernames.size(); from += REFRESH_CHUNK) {
+            List<String> chunk = usernames.subList(from, Math.min(from + REFRESH_CHUNK, usernames.size()));
+            Map<String, Long> persisted = userService.findTokenVersions(chunk);
+            synchronized (entries) {
+                for (String username : chunk) {
+                    Long tokenVersion = persisted.get(username);
+                    if (tokenVersion == null) {
+                        tokenVersions.remove(username);
+                        entries.remove(username);
+                    } else if (tokenVersion > held.get(username) && tokenVersions.containsKey(username)) {
+                        // versions only grow, so a read that raced a newer commit cannot rewind one
+                        tokenVersions.merge(username, tokenVersion, Long::max);
+                    }
+                }
+            }
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private long currentTokenVersion(String username) {
+        if (!enabled) {
+            return userService.findTokenVersion(username);
+        }
+        long current = version.get();
+        synchronized (entries) {
+            Long held = tokenVersions.get(username);
+            if (held != null) {
+                return held;
+            }
+        }
+        long tokenVersion = userService.findTokenVersion(username);
+        synchronized (entries) {
+            if (version.get() == current) {
+                tokenVersions.merge(username, tokenVersion, Long::max);
+            }
+        }
+        return tokenVersion;
+    }
+
+    // null when the user was deleted or the version is unknown: the next check reads it again
+    private void recordTokenVersion(String username, Long tokenVersion) {
+        if (!enabled || tokenVersion == null) {
+            return;
+        }
+        synchronized (entries) {
+            tokenVersions.merge(username, tokenVersion, Long::max);
+        }
+    }
+
+    private void evict(String username) {
+        version.incrementAndGet();
+        synchronized (entries) {
+            tokenVersions.remove(username);
+            if (entries.remove(username) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    // The cached instance is shared by concurrent requests, so none of them gets it directly
+    private static User copyOf(User user) {
+        User copy = new User(user.getUsername(), user.getPassword(), user.getName(), user.getSurname(), user.getRole());
+        copy.setAccountNonExpired(user.isAccountNonExpired());
+        copy.setAccountNonLocked(user.isAccountNonLocked());
+        copy.setCredentialsNonExpired(user.isCredentialsNonExpired());
+        copy.setEnabled(user.isEnabled());
+        copy.setTokenVersion(user.getTokenVersion());
+        return copy;
+    }
+
+}
@@ -6,37 +6,43 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.core.env.Environment;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Component
 public class DatabaseInitializer implements ApplicationRunner {
 
     private final JdbcTemplate jdbcTemplate;
     private final Environment environment;
+    private final TransactionTemplate transaction;
 
-    public DatabaseInitializer(JdbcTemplate jdbcTemplate, Environment environment) {
+    public DatabaseInitializer(JdbcTemplate jdbcTemplate, Environment environment,
+                               PlatformTransactionManager transactionManager) {
         this.jdbcTemplate = jdbcTemplate;
         this.environment = environment;
+        this.transaction = new TransactionTemplate(transactionManager);
     }
 
+    // Any failure propagates and stops startup: running without the views, triggers or
+    // constraints would serve wrong counts or accept duplicate wishlists without saying so
     @Override
     public void run(ApplicationArguments args) throws Exception {
-        try {
-            boolean isTestProfile = environment.acceptsProfiles("test", "integration-test");
-
-            if (isTestProfile) {
-                // For H2 test database, use regular views without PostgreSQL-specific features
-                createH2Views();
-            } else {
-                // For PostgreSQL production database, use materialized views with triggers
-                createPostgreSQLViews();
-            }
-
-            System.out.println("Database views successfully initialized for " +
-                (isTestProfile ? "H2 test" : "PostgreSQL production") + " environment");
-        } catch (Exception e) {
-            System.err.println("Error initializing database views: " + e.getMessage());
-            e.printStackTrace();
+        boolean isTestProfile = environment.acceptsProfiles("test", "integration-test");
+
+        if (isTestProfile) {
+            // For H2 test database, use regular views without PostgreSQL-specific features
+            createH2Views();
+        } else {
+            // For PostgreSQL production database, use a materialized view and trigger-maintained counts;
+            // one transaction, so the counts are seeded from the same state the triggers start from
+            transaction.executeWithoutResult(status -> createPostgreSQLViews());
+            createWishlistConstraints();
+            migrateAuthenticationLog();
+            createBookHistoryIndexes();
         }
+
+        System.out.println("Database views successfully initialized for " +
+            (isTestProfile ? "H2 test" : "PostgreSQL production") + " environment");
     }
 
     private void createH2Views() {
@@ -75,61 +81,143 @@ public class DatabaseInitializer implements ApplicationRunner {
                 "CREATE UNIQUE INDEX IF NOT EXISTS idx_books_by_author ON books_by_author (author_id)"
         );
 
-        // Create authors_by_country view
+        // authors_by_country used to be a materialized view rebuilt by statement triggers after every
+        // author write; drop it (and its triggers) in favour of an incrementally maintained counts table
         jdbcTemplate.execute(
-                "CREATE MATERIALIZED VIEW IF NOT EXISTS authors_by_country AS " +
-                        "SELECT c.id as country_id, c.name as country_name, COUNT(a.id) as author_count " +
-                        "FROM country c " +
-                        "LEFT JOIN author a ON c.id = a.country_id " +
-                        "GROUP BY c.id, c.name " +
-                        "WITH DATA"
+                "DROP TRIGGER IF EXISTS refresh_authors_by_country_insert ON author"
+        );
+        jdbcTemplate.execute(
+                "DROP TRIGGER IF EXISTS refresh_authors_by_country_update ON author"
+        );
+        jdbcTemplate.execute(
+                "DROP TRIGGER IF EXISTS refresh_authors_by_country_delete ON author"
+        );
+        jdbcTemplate.execute(
+                "DROP FUNCTION IF EXISTS refresh_authors_by_country()"
+        );
+        jdbcTemplate.execute(
+                "DO $$ " +
+                        "BEGIN " +
+                        "    IF EXISTS (SELECT 1 FROM pg_matviews WHERE matviewname = 'authors_by_country') THEN " +
+                        "        DROP MATERIALIZED VIEW authors_by_country; " +
+                        "    END IF; " +
+                        "END " +
+                        "$$"
         );
 
-        // Create index for better performance
+        // Number of authors per country, kept up to date by the row triggers below
+        jdbcTemplate.execute(
+                "CREATE TABLE IF NOT EXISTS author_country_counts (" +
+                        "    country_id BIGINT PRIMARY KEY REFERENCES country(id) ON DELETE CASCADE, " +
+                        "    author_count BIGINT NOT NULL DEFAULT 0" +
+                        ")"
+        );
+
+        // Create authors_by_country view over the counts, so countries without authors still show up
         jdbcTemplate.execute(
-                "CREATE UNIQUE INDEX IF NOT EXISTS idx_authors_by_country ON authors_by_country (country_id)"
+                "CREATE OR REPLACE VIEW authors_by_country AS " +
+                        "SELECT c.id as country_id, c.name as country_name, COALESCE(acc.author_count, 0) as author_count " +
+                        "FROM country c " +
+                        "LEFT JOIN author_country_counts acc ON c.id = acc.country_id"
         );
 
-        // Function to refresh the materialized view
+        // Function applying a -1/+1 delta per affected country for each author row
         jdbcTemplate.execute(
-                "CREATE OR REPLACE FUNCTION refresh_authors_by_country() " +
+                "CREATE OR REPLACE FUNCTION maintain_author_country_counts() " +
                         "RETURNS TRIGGER AS $$ " +
                         "BEGIN " +
-                        "    REFRESH MATERIALIZED VIEW authors_by_country; " +
+                        "    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.country_id IS NOT NULL THEN " +
+                        "        UPDATE author_country_counts SET author_count = author_count - 1 " +
+                        "        WHERE country_id = OLD.country_id; " +
+                        "    END IF; " +
+                        "    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.country_id IS NOT NULL THEN " +
+                        "        INSERT INTO author_country_counts (country_id, author_count) VALUES (NEW.country_id, 1) " +
+                        "        ON CONFLICT (country_id) " +
+                        "        DO UPDATE SET author_count = author_country_counts.author_count + 1; " +
+                        "    END IF; " +
                         "    RETURN NULL; " +
                         "END; " +
                         "$$ LANGUAGE plpgsql"
         );
 
-        // Triggers to refresh the view
+        // Triggers to maintain the counts, created only where missing so a restart never leaves a gap
+        // without them. Creating one locks author against writes until the transaction commits, so no
+        // author write falls between the trigger taking effect and the seed below
         jdbcTemplate.execute(
-                "DROP TRIGGER IF EXISTS refresh_authors_by_country_insert ON author"
+                "DO $$ " +
+                        "BEGIN " +
+                        "    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = 'author'::regclass " +
+                        "                   AND tgname = 'author_country_counts_insert_delete') THEN " +
+                        "        CREATE TRIGGER author_country_counts_insert_delete " +
+                        "        AFTER INSERT OR DELETE ON author " +
+                        "        FOR EACH ROW " +
+                        "        EXECUTE FUNCTION maintain_author_country_counts(); " +
+                        "    END IF; " +
+                        "    IF NOT EXISTS (SELECT 1 FROM pg_trigger WHERE tgrelid = 'author'::regclass " +
+                        "                   AND tgname = 'author_country_counts_update') THEN " +
+                        "        CREATE TRIGGER author_country_counts_update " +
+                        "        AFTER UPDATE OF country_id ON author " +
+                        "        FOR EACH ROW " +
+                        "        WHEN (OLD.country_id IS DISTINCT FROM NEW.country_id) " +
+                        "        EXECUTE FUNCTION maintain_author_country_counts(); " +
+                        "    END IF; " +
+                        "END " +
+                        "$$"
         );
+
+        // Seed countries that have no counts yet; drift is repaired by AuthorsByCountryReconciler
         jdbcTemplate.execute(
-                "CREATE TRIGGER refresh_authors_by_country_insert " +
-                        "AFTER INSERT ON author " +
-                        "FOR EACH STATEMENT " +
-                        "EXECUTE FUNCTION refresh_authors_by_country()"
+                "INSERT INTO author_country_counts (country_id, author_count) " +
+                        "SELECT country_id, COUNT(*) FROM author WHERE country_id IS NOT NULL GROUP BY country_id " +
+                        "ON CONFLICT (country_id) DO NOTHING"
         );
+    }
 
+    private void createWishlistConstraints() {
+        // Wishlist.user used to be a one-to-one, which left a unique constraint on user_username
+        // that stops a user from starting a new wishlist after borrowing one; drop it
         jdbcTemplate.execute(
-                "DROP TRIGGER IF EXISTS refresh_authors_by_country_update ON author"
+                "DO $$ " +
+                        "DECLARE c record; " +
+                        "BEGIN " +
+                        "    FOR c IN SELECT con.conname FROM pg_constraint con " +
+                        "             JOIN pg_class rel ON rel.oid = con.conrelid " +
+                        "             JOIN pg_attribute att ON att.attrelid = rel.oid AND att.attnum = con.conkey[1] " +
+                        "             WHERE rel.relname = 'wishlist' AND con.contype = 'u' " +
+                        "               AND array_length(con.conkey, 1) = 1 AND att.attname = 'user_username' " +
+                        "    LOOP " +
+                        "        EXECUTE format('ALTER TABLE wishlist DROP CONSTRAINT %I', c.conname); " +
+                        "    END LOOP; " +
+                        "END " +
+                        "$$"
         );
+
+        // At most one active (CREATED) wishlist per user; backs the insert-if-absent on first add
         jdbcTemplate.execute(
-                "CREATE TRIGGER refresh_authors_by_country_update " +
-                        "AFTER UPDATE ON author " +
-                        "FOR EACH STATEMENT " +
-                        "EXECUTE FUNCTION refresh_authors_by_country()"
+                "CREATE UNIQUE INDEX IF NOT EXISTS uk_wishlist_user_created ON wishlist (user_username) " +
+                        "WHERE status = 'CREATED'"
         );
+    }
+
+    private void migrateAuthenticationLog() {
+        // Logs now keep a SHA-256 fingerprint instead of the bearer token itself
+        jdbcTemplate.execute("ALTER TABLE authentication_log DROP COLUMN IF EXISTS token");
 
         jdbcTemplate.execute(
-                "DROP TRIGGER IF EXISTS refresh_authors_by_country_delete ON author"
+                "CREATE INDEX IF NOT EXISTS idx_auth_log_username_issued_at ON authentication_log (username, issued_at)"
+        );
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_auth_log_issued_at ON authentication_log (issued_at)"
+        );
+    }
+
+    private void createBookHistoryIndexes() {
+        // Backs the keyset-paginated and as-of history reads, which always filter by book
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS idx_book_history_book_modified_at ON book_history (book_id, modified_at)"
         );
         jdbcTemplate.execute(
-                "CREATE TRIGGER refresh_authors_by_country_delete " +
-                        "AFTER DELETE ON author " +
-                        "FOR EACH STATEMENT " +
-                        "EXECUTE FUNCTION refresh_authors_by_country()"
+                "CREATE UNIQUE INDEX IF NOT EXISTS uk_book_history_book_revision ON book_history (book_id, revision)"
         );
     }
 }
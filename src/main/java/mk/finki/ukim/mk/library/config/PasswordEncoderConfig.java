@@ -0,0 +1,35 @@
+package mk.finki.ukim.mk.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.security.BoundedPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+@Configuration
+public class PasswordEncoderConfig {
+
+    @Bean
+    PasswordEncoder passwordEncoder(@Value("${library.password.bcrypt-strength:10}") int strength,
+                                    @Value("${library.password.hashing-threads:0}") int threads,
+                                    @Value("${library.password.queue-capacity:64}") int queueCapacity,
+                                    @Value("${library.password.max-wait-ms:2000}") long maxWaitMs,
+                                    @Value("${library.password.latency-budget-ms:250}") long latencyBudgetMs,
+                                    MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                poolSize, queueCapacity, maxWaitMs, meterRegistry);
+
+        // Each bcrypt strength step doubles the cost; flag a setting this hardware cannot afford
+        Duration cost = encoder.measureCost();
+        if (cost.toMillis() > latencyBudgetMs) {
+            System.err.println("Warning: bcrypt strength " + strength + " takes " + cost.toMillis()
+                    + " ms per hash, over the " + latencyBudgetMs + " ms budget");
+        }
+        return encoder;
+    }
+}
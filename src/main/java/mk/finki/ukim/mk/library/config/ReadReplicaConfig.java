@@ -0,0 +1,90 @@
+package mk.finki.ukim.mk.library.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.datasource.ReadOnlyRoutingDataSource;
+import mk.finki.ukim.mk.library.datasource.ReadYourWritesTracker;
+import mk.finki.ukim.mk.library.datasource.ReplicaPool;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool plus one read-only pool per
+ * replica URL. Read-only transactions go to the replicas (see {@link ReplicaPool}), the rest to
+ * the primary. Only active with {@code library.datasource.replicas.enabled=true}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "library.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "library.datasource.replicas.read-your-writes", havingValue = "true", matchIfMissing = true)
+    ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker();
+    }
+
+    @Bean(destroyMethod = "close")
+    ReplicaPool replicaPool(HikariDataSource primaryDataSource,
+                            ObjectProvider<ReadYourWritesTracker> readYourWrites,
+                            DataSourceProperties properties,
+                            @Value("${library.datasource.replicas.urls}") List<String> urls,
+                            @Value("${library.datasource.replicas.pool-size:10}") int poolSize,
+                            @Value("${library.datasource.replicas.lag-query:}") String lagQuery,
+                            @Value("${library.datasource.replicas.max-lag-ms:5000}") long maxLagMs,
+                            @Value("${library.datasource.replicas.health-check-ms:5000}") long healthCheckMs,
+                            MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(properties.determineUsername());
+            replica.setPassword(properties.determinePassword());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // an unreachable replica must not stop startup; the health check keeps it out of use
+            replica.setInitializationFailTimeout(-1);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaPool(primaryDataSource, replicas, readYourWrites.getIfAvailable(),
+                lagQuery.isBlank() ? ReplicaPool.POSTGRES_LAG_QUERY : lagQuery, maxLagMs, healthCheckMs, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        return new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primaryDataSource, replicaPool));
+    }
+
+    // Hibernate otherwise keeps a session's first connection until the session closes, which with
+    // open-in-view is the end of the request: a write after a read-only call would reach the replica
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -0,0 +1,140 @@
+package mk.finki.ukim.mk.library.config;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * PostgreSQL schema changes that must be in place before anything reads or writes the affected
+ * tables. Runs before the entity manager factory starts, and so before Hibernate's schema update,
+ * the web server and the background writers; a failed step fails startup. Views, triggers and
+ * indexes that can wait until after the schema update stay in {@link DatabaseInitializer}.
+ */
+@Component
+@Profile("!test & !integration-test")
+public class SchemaMigrations implements InitializingBean {
+
+    // allocationSize of the book, author and country sequence generators
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate, Environment environment) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        migrateBookHistoryToDeltas();
+        syncIdSequences();
+    }
+
+    /**
+     * One-off conversion of history rows written before revisions existed (revision IS NULL),
+     * each a full copy of the book, into numbered revisions that keep only the changed fields,
+     * with a full snapshot every snapshot-interval revisions and wherever a field was cleared.
+     * Nothing can add revisions yet, so the legacy rows are numbered from 1 without colliding
+     * with new ones, and before Hibernate adds uk_book_history_book_revision. Prints the average
+     * stored bytes per revision before and after.
+     */
+    private void migrateBookHistoryToDeltas() {
+        if (!tableExists("book_history")) {
+            return;
+        }
+        jdbcTemplate.execute("ALTER TABLE book_history ADD COLUMN IF NOT EXISTS revision INTEGER");
+        jdbcTemplate.execute("ALTER TABLE book_history ADD COLUMN IF NOT EXISTS snapshot BOOLEAN");
+        Integer legacy = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM book_history WHERE revision IS NULL", Integer.class);
+        if (legacy == null || legacy == 0) {
+            return;
+        }
+        int interval = environment.getProperty("library.book-history.snapshot-interval", Integer.class, 10);
+        double bytesBefore = averageBookHistoryRowBytes();
+
+        jdbcTemplate.update(
+                "WITH ordered AS ( " +
+                        "    SELECT id, name, category, author_id, available_copies, " +
+                        "           ROW_NUMBER() OVER w AS rn, " +
+                        "           LAG(name) OVER w AS prev_name, " +
+                        "           LAG(category) OVER w AS prev_category, " +
+                        "           LAG(author_id) OVER w AS prev_author_id, " +
+                        "           LAG(available_copies) OVER w AS prev_available_copies " +
+                        "    FROM book_history WHERE revision IS NULL " +
+                        "    WINDOW w AS (PARTITION BY book_id ORDER BY modified_at, id) " +
+                        "), marked AS ( " +
+                        "    SELECT o.*, (o.rn - 1) % ? = 0 " +
+                        "        OR (o.name IS NULL AND o.prev_name IS NOT NULL) " +
+                        "        OR (o.category IS NULL AND o.prev_category IS NOT NULL) " +
+                        "        OR (o.author_id IS NULL AND o.prev_author_id IS NOT NULL) " +
+                        "        OR (o.available_copies IS NULL AND o.prev_available_copies IS NOT NULL) AS full_row " +
+                        "    FROM ordered o " +
+                        ") " +
+                        "UPDATE book_history h SET " +
+                        "    revision = m.rn, " +
+                        "    snapshot = m.full_row, " +
+                        "    name = CASE WHEN m.full_row OR m.name IS DISTINCT FROM m.prev_name THEN m.name END, " +
+                        "    category = CASE WHEN m.full_row OR m.category IS DISTINCT FROM m.prev_category THEN m.category END, " +
+                        "    author_id = CASE WHEN m.full_row OR m.author_id IS DISTINCT FROM m.prev_author_id THEN m.author_id END, " +
+                        "    available_copies = CASE WHEN m.full_row " +
+                        "        OR m.available_copies IS DISTINCT FROM m.prev_available_copies THEN m.available_copies END " +
+                        "FROM marked m WHERE h.id = m.id",
+                interval
+        );
+
+        double bytesAfter = averageBookHistoryRowBytes();
+        System.out.printf("Converted %d book history rows to deltas (snapshot every %d revisions): " +
+                "%.1f -> %.1f bytes per revision%n", legacy, interval, bytesBefore, bytesAfter);
+    }
+
+    /**
+     * Book, author and country ids used to come from their SERIAL columns and now come from
+     * book_seq, author_seq and country_seq in blocks of 50. Creates each sequence if the table
+     * already exists (on a new database Hibernate creates both) and moves it past the highest
+     * existing id, but only when that id lies beyond every block the sequence has handed out, so
+     * a restart never rewinds it under blocks another instance is still using.
+     */
+    private void syncIdSequences() {
+        for (String table : List.of("book", "author", "country")) {
+            if (!tableExists(table)) {
+                continue;
+            }
+            jdbcTemplate.execute(
+                    "CREATE SEQUENCE IF NOT EXISTS " + table + "_seq START WITH 1 INCREMENT BY " + ID_ALLOCATION_SIZE);
+            jdbcTemplate.queryForList(
+                    "SELECT setval('" + table + "_seq', t.max_id + 1, false) " +
+                            "FROM (SELECT COALESCE(MAX(id), 0) AS max_id FROM " + table + ") t, " + table + "_seq s " +
+                            "WHERE t.max_id + 1 > CASE WHEN s.is_called THEN s.last_value + ? ELSE s.last_value END",
+                    Long.class, ID_ALLOCATION_SIZE);
+        }
+    }
+
+    private double averageBookHistoryRowBytes() {
+        Double bytes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(AVG(pg_column_size(h.*)), 0) FROM book_history h", Double.class);
+        return bytes != null ? bytes : 0;
+    }
+
+    private boolean tableExists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    // Hibernate updates the schema when the entity manager factory starts, and every consumer of
+    // these tables starts after it, so making the factory wait is enough
+    @Configuration(proxyBeanMethods = false)
+    @Profile("!test & !integration-test")
+    static class JpaDependency extends EntityManagerFactoryDependsOnPostProcessor {
+
+        JpaDependency() {
+            super(SchemaMigrations.class);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package mk.finki.ukim.mk.library.config;
 
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
 import mk.finki.ukim.mk.library.model.domain.User;
+import mk.finki.ukim.mk.library.security.JwtPrincipal;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
@@ -8,10 +10,23 @@ import org.springframework.stereotype.Component;
 @Component
 public class UserContext {
 
+    private final UserPrincipalCache userPrincipalCache;
+
+    public UserContext(UserPrincipalCache userPrincipalCache) {
+        this.userPrincipalCache = userPrincipalCache;
+    }
+
     public User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        if (authentication != null && authentication.getPrincipal() instanceof User) {
-            return (User) authentication.getPrincipal();
+        if (authentication == null) {
+            return null;
+        }
+        if (authentication.getPrincipal() instanceof User user) {
+            return user;
+        }
+        // Stateless requests only carry the token's claims; load the full user on demand
+        if (authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return userPrincipalCache.get(principal.getUsername());
         }
         return null;
     }
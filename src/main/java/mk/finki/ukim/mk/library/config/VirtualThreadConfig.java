@@ -0,0 +1,38 @@
+package mk.finki.ukim.mk.library.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.web.RequestConcurrencyLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Limits for the virtual-threads profile ({@code spring.threads.virtual.enabled=true}), where
+ * Tomcat, the application task executor and the scheduler start a virtual thread per task. The
+ * number of requests in progress is capped at a multiple of the connection pool size, unless
+ * {@code max-concurrent-requests} sets it outright; the resulting limit is published as the
+ * {@code library.requests.limit} gauge.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    @Bean
+    FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            @Value("${library.virtual-threads.max-concurrent-requests:0}") int maxConcurrentRequests,
+            @Value("${library.virtual-threads.requests-per-connection:4}") int requestsPerConnection,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int connectionPoolSize,
+            @Value("${library.virtual-threads.max-wait-ms:2000}") long maxWaitMs,
+            MeterRegistry meterRegistry) {
+        int limit = maxConcurrentRequests > 0 ? maxConcurrentRequests : connectionPoolSize * requestsPerConnection;
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new RequestConcurrencyLimitFilter(limit, maxWaitMs, meterRegistry));
+        // ahead of Spring Security, so a request turned away costs no token parsing
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
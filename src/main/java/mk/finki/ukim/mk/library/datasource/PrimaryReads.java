@@ -0,0 +1,36 @@
+package mk.finki.ukim.mk.library.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the reads made by a piece of work on the primary, even in read-only transactions.
+ * <p>
+ * For work whose result outlives the request: cache loaders and index rebuilds. A value read
+ * from a lagging replica after a write committed would otherwise be cached as if it were
+ * current, and served to everyone until the next write. Has no effect without replicas.
+ */
+public final class PrimaryReads {
+
+    private static final ThreadLocal<Integer> DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private PrimaryReads() {
+    }
+
+    public static <T> T call(Supplier<T> work) {
+        DEPTH.set(DEPTH.get() + 1);
+        try {
+            return work.get();
+        } finally {
+            int depth = DEPTH.get() - 1;
+            if (depth == 0) {
+                DEPTH.remove();
+            } else {
+                DEPTH.set(depth);
+            }
+        }
+    }
+
+    public static boolean isRequested() {
+        return DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,68 @@
+package mk.finki.ukim.mk.library.datasource;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers when each signed-in user last committed a read-write transaction, so that
+ * {@link ReplicaPool} can keep their reads on the primary until the replicas have caught up with
+ * that write. Registered with the transaction manager as an execution listener. Entries are
+ * dropped by the replica health check once they are older than any lag a usable replica can have.
+ */
+public class ReadYourWritesTracker implements TransactionExecutionListener {
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public ReadYourWritesTracker() {
+        this(System::currentTimeMillis);
+    }
+
+    ReadYourWritesTracker(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (commitFailure != null || transaction.isReadOnly() || !transaction.isNewTransaction()) {
+            return;
+        }
+        String username = currentUsername();
+        if (username != null) {
+            lastWrites.put(username, clock.getAsLong());
+        }
+    }
+
+    // Long.MAX_VALUE when the current user has no recent write (or nobody is signed in)
+    public long millisSinceCurrentUsersLastWrite() {
+        String username = currentUsername();
+        Long writtenAt = username != null ? lastWrites.get(username) : null;
+        return writtenAt != null ? clock.getAsLong() - writtenAt : Long.MAX_VALUE;
+    }
+
+    void forgetOlderThan(long millis) {
+        long cutoff = clock.getAsLong() - millis;
+        lastWrites.values().removeIf(writtenAt -> writtenAt < cutoff);
+    }
+
+    int size() {
+        return lastWrites.size();
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,152 @@
+package mk.finki.ukim.mk.library.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read-only side of {@link ReadOnlyRoutingDataSource}: hands out connections from the replica
+ * pools in turn, skipping replicas whose last health check failed or measured more than
+ * {@code max-lag-ms} of replication lag, and falls back to the primary when none is usable.
+ * Replicas are not used until their first health check has passed.
+ * <p>
+ * With a {@link ReadYourWritesTracker}, a replica is also skipped for a user whose last write is
+ * more recent than the replica's lag plus one check interval (the lag is only measured that
+ * often), so users always read their own changes.
+ */
+public class ReplicaPool extends AbstractDataSource implements AutoCloseable {
+
+    // Milliseconds the standby is behind, 0 when it has replayed everything it received or is not
+    // a standby at all (pg_last_wal_receive_lsn() is then NULL)
+    public static final String POSTGRES_LAG_QUERY =
+            "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+                    "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000 END";
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final Counter reads;
+        private volatile boolean healthy;
+        private volatile long lagMillis;
+
+        private Replica(String name, DataSource dataSource, Counter reads) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.reads = reads;
+        }
+    }
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReadYourWritesTracker readYourWrites;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+
+    public ReplicaPool(DataSource primary, Map<String, DataSource> replicas, ReadYourWritesTracker readYourWrites,
+                       String lagQuery, long maxLagMillis, long checkIntervalMillis, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.readYourWrites = readYourWrites;
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.primaryReads = Counter.builder("library.datasource.read_connections")
+                .tag("target", "primary")
+                .register(meterRegistry);
+        replicas.forEach((name, dataSource) -> {
+            Replica replica = new Replica(name, dataSource, Counter.builder("library.datasource.read_connections")
+                    .tag("target", name)
+                    .register(meterRegistry));
+            Gauge.builder("library.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .tag("replica", name)
+                    .register(meterRegistry);
+            Gauge.builder("library.datasource.replica.lag", replica, r -> r.lagMillis)
+                    .tag("replica", name)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            this.replicas.add(replica);
+        });
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long sinceWrite = readYourWrites != null ? readYourWrites.millisSinceCurrentUsersLastWrite() : Long.MAX_VALUE;
+        int start = next.getAndIncrement();
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, replicas.size()));
+            if (!replica.healthy || replica.lagMillis + checkIntervalMillis >= sinceWrite) {
+                continue;
+            }
+            try {
+                Connection connection = replica.dataSource.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                // out until its next successful health check
+                replica.healthy = false;
+                System.err.println("Warning: replica " + replica.name + " is unavailable: " + e.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    // replica pools only know their configured credentials, so explicit ones go to the primary
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        primaryReads.increment();
+        return primary.getConnection(username, password);
+    }
+
+    @Scheduled(fixedDelayString = "${library.datasource.replicas.health-check-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout((int) Math.max(1, checkIntervalMillis / 1000));
+                try (ResultSet result = statement.executeQuery(lagQuery)) {
+                    replica.lagMillis = result.next() ? Math.max(0, Math.round(result.getDouble(1))) : 0;
+                }
+                replica.healthy = replica.lagMillis <= maxLagMillis;
+            } catch (SQLException e) {
+                replica.healthy = false;
+            }
+            if (wasHealthy != replica.healthy) {
+                System.err.println("Replica " + replica.name + (replica.healthy ? " is back in use" :
+                        " taken out of use, lag " + replica.lagMillis + " ms"));
+            }
+        }
+        if (readYourWrites != null) {
+            // a usable replica is at most this far behind, so older writes are visible everywhere
+            readYourWrites.forgetOlderThan(maxLagMillis + checkIntervalMillis);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Warning: could not close replica " + replica.name + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package mk.finki.ukim.mk.library.events;
+
+import lombok.Getter;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the book service for every saved or updated book, carrying the state to record
+ * in its history. The source is the book id; the editor is kept as a username so recording a
+ * revision never has to load the user.
+ */
+@Getter
+public class BookRevisionEvent extends ApplicationEvent {
+
+    private final String name;
+    private final Category category;
+    private final Long authorId;
+    private final Integer availableCopies;
+    private final String modifiedBy;
+    private final LocalDateTime modifiedAt;
+
+    public BookRevisionEvent(Book book, String modifiedBy) {
+        super(book.getId());
+        this.name = book.getName();
+        this.category = book.getCategory();
+        this.authorId = book.getAuthor() != null ? book.getAuthor().getId() : null;
+        this.availableCopies = book.getAvailableCopies();
+        this.modifiedBy = modifiedBy;
+        this.modifiedAt = LocalDateTime.now();
+    }
+
+    public Long getBookId() {
+        return (Long) getSource();
+    }
+}
@@ -0,0 +1,41 @@
+package mk.finki.ukim.mk.library.events;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published by the book, author and country services after any write to the catalog.
+ * The source is the changed entity, or its id (or ids) when only those are at hand.
+ * <p>
+ * For id sources, {@code entityType} says what the ids refer to and {@code removed} whether the
+ * entries are gone; listeners that only need to know that something changed can ignore both.
+ * Stock-only changes (borrows) carry the borrowed book ids and no type.
+ */
+@Getter
+public class CatalogChangedEvent extends ApplicationEvent {
+
+    private final LocalDateTime when;
+    private final Class<?> entityType;
+    private final boolean removed;
+
+    public CatalogChangedEvent(Object source) {
+        this(source, null, false);
+    }
+
+    public CatalogChangedEvent(Object source, Class<?> entityType, boolean removed) {
+        super(source);
+        this.when = LocalDateTime.now();
+        this.entityType = entityType;
+        this.removed = removed;
+    }
+
+    public static CatalogChangedEvent saved(Class<?> entityType, Object ids) {
+        return new CatalogChangedEvent(ids, entityType, false);
+    }
+
+    public static CatalogChangedEvent removed(Class<?> entityType, Object id) {
+        return new CatalogChangedEvent(id, entityType, true);
+    }
+}
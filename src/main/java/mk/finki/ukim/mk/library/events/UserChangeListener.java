@@ -0,0 +1,33 @@
+package mk.finki.ukim.mk.library.events;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import mk.finki.ukim.mk.library.model.domain.User;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener on {@link User} that turns every update or delete of a user row into a
+ * {@link UserChangedEvent}, whichever code path made it. Inserts are left out: a new user
+ * has no tokens or cache entries yet.
+ * <p>
+ * Instantiated by Hibernate through Spring's bean container, so the publisher is injected.
+ */
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    // the version bumped by User#revokeIssuedTokens, so caches can take it without a read
+    @PostUpdate
+    public void onUserChanged(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), user.getTokenVersion()));
+    }
+
+    @PostRemove
+    public void onUserRemoved(User user) {
+        eventPublisher.publishEvent(new UserChangedEvent(user.getUsername()));
+    }
+}
@@ -0,0 +1,30 @@
+package mk.finki.ukim.mk.library.events;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever a user row is updated or deleted (role, account flags,
+ * password...). The source is the username; the token version is the one the
+ * update wrote, or null when the user was deleted or the version is not known.
+ */
+public class UserChangedEvent extends ApplicationEvent {
+
+    private final Long tokenVersion;
+
+    public UserChangedEvent(String username) {
+        this(username, null);
+    }
+
+    public UserChangedEvent(String username, Long tokenVersion) {
+        super(username);
+        this.tokenVersion = tokenVersion;
+    }
+
+    public String getUsername() {
+        return (String) getSource();
+    }
+
+    public Long getTokenVersion() {
+        return tokenVersion;
+    }
+}
@@ -0,0 +1,22 @@
+package mk.finki.ukim.mk.library.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+import java.util.List;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class BookNotFoundException extends RuntimeException {
+
+    private final List<Long> ids;
+
+    public BookNotFoundException(Collection<Long> ids) {
+        super(String.format("Books with ids: %s were not found", ids));
+        this.ids = List.copyOf(ids);
+    }
+
+    public List<Long> getIds() {
+        return ids;
+    }
+}
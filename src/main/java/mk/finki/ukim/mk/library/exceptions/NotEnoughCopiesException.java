@@ -0,0 +1,17 @@
+package mk.finki.ukim.mk.library.exceptions;
+
+import java.util.List;
+
+public class NotEnoughCopiesException extends RuntimeException {
+
+    private final List<String> titles;
+
+    public NotEnoughCopiesException(List<String> titles) {
+        super(String.format("Not enough copies available for book: %s", String.join(", ", titles)));
+        this.titles = List.copyOf(titles);
+    }
+
+    public List<String> getTitles() {
+        return titles;
+    }
+}
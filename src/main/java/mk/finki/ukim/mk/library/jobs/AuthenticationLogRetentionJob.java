@@ -0,0 +1,87 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps authentication_log to the retention window. Whole days older than the window are
+ * folded into per-user daily counts in authentication_log_daily_count, then deleted.
+ */
+@Component
+public class AuthenticationLogRetentionJob {
+
+    static final String COUNT_EXPIRED =
+            "SELECT username, CAST(issued_at AS DATE) AS login_date, COUNT(*) AS logins " +
+                    "FROM authentication_log WHERE issued_at < ? " +
+                    "GROUP BY username, CAST(issued_at AS DATE)";
+
+    // Plain UPDATE-then-INSERT rather than a dialect-specific upsert, so it also runs on H2;
+    // the job is the only writer of the rollup table
+    static final String ADD_TO_DAY =
+            "UPDATE authentication_log_daily_count SET login_count = login_count + ? WHERE username = ? AND login_date = ?";
+
+    static final String INSERT_DAY =
+            "INSERT INTO authentication_log_daily_count (username, login_date, login_count) VALUES (?, ?, ?)";
+
+    static final String DELETE_EXPIRED =
+            "DELETE FROM authentication_log WHERE issued_at < ?";
+
+    record DailyCount(String username, LocalDate loginDate, long logins) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int retentionDays;
+    private final Counter rolledUp;
+
+    public AuthenticationLogRetentionJob(JdbcTemplate jdbcTemplate,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${library.auth-log.retention-days:30}") int retentionDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.retentionDays = retentionDays;
+        this.rolledUp = meterRegistry.counter("library.auth_log.rolled_up");
+    }
+
+    /**
+     * Returns the number of log rows folded into daily counts and deleted.
+     */
+    @Scheduled(cron = "${library.auth-log.retention-cron:0 15 3 * * *}")
+    @Transactional
+    public long rollUp() {
+        // cut at midnight so a day is always rolled up in one go
+        LocalDateTime cutoff = LocalDate.now().minusDays(retentionDays).atStartOfDay();
+
+        List<DailyCount> counts = jdbcTemplate.query(COUNT_EXPIRED, (rs, rowNum) -> new DailyCount(
+                rs.getString("username"), rs.getDate("login_date").toLocalDate(), rs.getLong("logins")), cutoff);
+        if (counts.isEmpty()) {
+            return 0;
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_DAY, counts.stream()
+                .map(c -> new Object[]{c.logins(), c.username(), c.loginDate()})
+                .toList());
+        List<Object[]> newDays = new ArrayList<>();
+        for (int i = 0; i < counts.size(); i++) {
+            if (updated[i] == 0) {
+                DailyCount c = counts.get(i);
+                newDays.add(new Object[]{c.username(), c.loginDate(), c.logins()});
+            }
+        }
+        if (!newDays.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DAY, newDays);
+        }
+
+        int deleted = jdbcTemplate.update(DELETE_EXPIRED, cutoff);
+        rolledUp.increment(deleted);
+        return deleted;
+    }
+}
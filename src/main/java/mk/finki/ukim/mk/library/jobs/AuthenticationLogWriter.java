@@ -0,0 +1,74 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Write-behind for authentication logs. Login threads only append to a bounded in-memory
+ * buffer; a background thread drains it and inserts the rows in JDBC batches.
+ * <p>
+ * When the buffer is full a login waits at most {@code offer-timeout-ms} for room and the
+ * event is then dropped (and counted) rather than slowing logins down further. Whatever is
+ * still buffered is written when the application shuts down.
+ */
+@Component
+public class AuthenticationLogWriter extends BatchingWriter<AuthenticationLog> {
+
+    static final String INSERT =
+            "INSERT INTO authentication_log (username, token_fingerprint, issued_at, expires_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+    private final Timer flushTimer;
+
+    public AuthenticationLogWriter(JdbcTemplate jdbcTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${library.auth-log.buffer-capacity:10000}") int capacity,
+                                   @Value("${library.auth-log.batch-size:500}") int batchSize,
+                                   @Value("${library.auth-log.flush-interval-ms:1000}") long flushIntervalMs,
+                                   @Value("${library.auth-log.offer-timeout-ms:0}") long offerTimeoutMs) {
+        super("auth-log-writer", capacity, batchSize, flushIntervalMs, offerTimeoutMs);
+        this.jdbcTemplate = jdbcTemplate;
+        this.written = meterRegistry.counter("library.auth_log.written");
+        this.dropped = meterRegistry.counter("library.auth_log.dropped");
+        this.failed = meterRegistry.counter("library.auth_log.failed");
+        this.flushTimer = meterRegistry.timer("library.auth_log.flush");
+        Gauge.builder("library.auth_log.buffered", this, AuthenticationLogWriter::buffered).register(meterRegistry);
+    }
+
+    /**
+     * Returns false when the event was dropped because the buffer stayed full.
+     */
+    public boolean append(AuthenticationLog log) {
+        boolean accepted = offer(log);
+        if (!accepted) {
+            dropped.increment();
+        }
+        return accepted;
+    }
+
+    @Override
+    protected void writeBatch(List<AuthenticationLog> batch) {
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT, batch.stream()
+                    .map(log -> new Object[]{log.getUsername(), log.getTokenFingerprint(),
+                            log.getIssuedAt(), log.getExpiresAt()})
+                    .toList()));
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            failed.increment(batch.size());
+            System.err.println("Warning: failed to write " + batch.size() + " authentication logs: " + e.getMessage());
+        }
+    }
+}
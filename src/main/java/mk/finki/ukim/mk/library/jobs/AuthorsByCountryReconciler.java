@@ -0,0 +1,76 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Verifies the trigger-maintained author_country_counts table against a full aggregate of
+ * the author table and repairs any country whose count has drifted.
+ */
+@Component
+public class AuthorsByCountryReconciler {
+
+    static final String FIND_DRIFT =
+            "SELECT COALESCE(agg.country_id, acc.country_id) AS country_id, " +
+                    "COALESCE(agg.author_count, 0) AS expected, " +
+                    "COALESCE(acc.author_count, 0) AS actual " +
+                    "FROM (SELECT country_id, COUNT(*) AS author_count FROM author " +
+                    "      WHERE country_id IS NOT NULL GROUP BY country_id) agg " +
+                    "FULL OUTER JOIN author_country_counts acc ON acc.country_id = agg.country_id " +
+                    "WHERE COALESCE(agg.author_count, 0) <> COALESCE(acc.author_count, 0)";
+
+    static final String REPAIR =
+            "INSERT INTO author_country_counts (country_id, author_count) VALUES (?, ?) " +
+                    "ON CONFLICT (country_id) DO UPDATE SET author_count = EXCLUDED.author_count";
+
+    record CountDrift(long countryId, long expected, long actual) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Environment environment;
+    private final Counter repairs;
+
+    public AuthorsByCountryReconciler(JdbcTemplate jdbcTemplate, Environment environment, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.environment = environment;
+        this.repairs = meterRegistry.counter("library.authors_by_country.repairs");
+    }
+
+    /**
+     * Returns the number of countries whose count had to be repaired.
+     */
+    @Scheduled(cron = "${library.authors-by-country.reconcile-cron:0 30 * * * *}")
+    @Transactional
+    public int reconcile() {
+        // H2 test databases use a plain aggregate view and have no counts table
+        if (environment.acceptsProfiles(Profiles.of("test", "integration-test"))) {
+            return 0;
+        }
+
+        // Blocks author writes (not reads) until commit, so no delta lands between the
+        // aggregate and the repair
+        jdbcTemplate.execute("LOCK TABLE author IN SHARE MODE");
+
+        List<CountDrift> drift = jdbcTemplate.query(FIND_DRIFT, (rs, rowNum) -> new CountDrift(
+                rs.getLong("country_id"), rs.getLong("expected"), rs.getLong("actual")));
+        if (drift.isEmpty()) {
+            return 0;
+        }
+
+        drift.forEach(d -> System.err.println("Warning: authors_by_country drift for country " + d.countryId()
+                + ": counted " + d.actual() + ", expected " + d.expected()));
+        jdbcTemplate.batchUpdate(REPAIR, drift.stream()
+                .map(d -> new Object[]{d.countryId(), d.expected()})
+                .toList());
+        repairs.increment(drift.size());
+        return drift.size();
+    }
+}
@@ -0,0 +1,133 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind buffer shared by the log and history writers. Callers append to a bounded
+ * in-memory queue; a background thread drains it and hands up to {@code batchSize} items at a
+ * time to {@link #writeBatch}. Whatever is still buffered is written when the application
+ * shuts down.
+ * <p>
+ * What happens to an item that finds the buffer full is up to the subclass: {@link #offer}
+ * waits at most {@code offerTimeoutMs} for room and then reports the item as not queued.
+ */
+public abstract class BatchingWriter<T> implements SmartLifecycle {
+
+    private final String threadName;
+    private final BlockingQueue<T> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long offerTimeoutMs;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    protected BatchingWriter(String threadName, int capacity, int batchSize, long flushIntervalMs, long offerTimeoutMs) {
+        this.threadName = threadName;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.offerTimeoutMs = offerTimeoutMs;
+    }
+
+    /**
+     * Writes a batch of items. Called from the background thread, from {@link #flush()} and on
+     * shutdown; failures are the subclass's to handle, an exception stops only this batch.
+     */
+    protected abstract void writeBatch(List<T> batch);
+
+    /**
+     * Returns false when the item was not queued because the buffer stayed full.
+     */
+    protected boolean offer(T item) {
+        try {
+            return offerTimeoutMs > 0
+                    ? buffer.offer(item, offerTimeoutMs, TimeUnit.MILLISECONDS)
+                    : buffer.offer(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Writes everything buffered so far on the calling thread.
+     */
+    public void flush() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    public int buffered() {
+        return buffer.size();
+    }
+
+    protected T oldestBuffered() {
+        return buffer.peek();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::drainLoop, threadName);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            try {
+                // the loop notices within one poll interval
+                worker.join(flushIntervalMs * 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                T first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // whatever accumulated while the previous batch was being written goes out together
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<T> batch) {
+        try {
+            writeBatch(batch);
+        } catch (RuntimeException e) {
+            System.err.println("Warning: " + threadName + " failed to write " + batch.size() + " items: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.events.BookRevisionEvent;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.repository.BookHistoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind for book history. A revision is queued only once the book write has committed,
+ * and a background thread inserts queued revisions in JDBC batches, so catalog edits no longer
+ * pay for the history row inside their own transaction.
+ * <p>
+ * Revisions are stored as deltas against the previous one, with a full snapshot every
+ * {@code snapshot-interval} revisions so any revision can be rebuilt from a bounded chain
+ * (see {@link DisplayBookHistoryDto#replay}). The writer remembers the last state it wrote per
+ * book and only reads it back from the database for books it has not seen yet.
+ * <p>
+ * Durability: a rolled-back edit never produces history. Once committed, a revision lives only
+ * in memory until its batch is written, so a crash (not a graceful shutdown, which flushes) can
+ * lose up to one buffer of revisions. When the buffer is full the committing thread waits at
+ * most {@code offer-timeout-ms} and then writes its revision itself instead of dropping it.
+ * Revisions of books deleted before they were written are skipped. A failed batch is retried
+ * one revision at a time, so a single bad row costs only itself, which is logged and counted.
+ */
+@Component
+public class BookHistoryWriter extends BatchingWriter<BookRevisionEvent> {
+
+    // Selecting from book skips revisions whose book was deleted while they were queued
+    static final String INSERT =
+            "INSERT INTO book_history (revision, snapshot, name, category, author_id, available_copies, " +
+                    "modified_at, modified_by_username, book_id) " +
+                    "SELECT CAST(? AS INTEGER), CAST(? AS BOOLEAN), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), " +
+                    "CAST(? AS BIGINT), CAST(? AS INTEGER), CAST(? AS TIMESTAMP), CAST(? AS VARCHAR(255)), b.id " +
+                    "FROM book b WHERE b.id = ?";
+
+    private static final int RECORDED_STATES = 10_000;
+
+    /**
+     * Last revision written for a book, as a full state; what the next revision is diffed against.
+     */
+    record RecordedState(int revision, String name, Category category, Long authorId, Integer availableCopies) {
+
+        static RecordedState of(BookRevisionEvent event, int revision) {
+            return new RecordedState(revision, event.getName(), event.getCategory(), event.getAuthorId(),
+                    event.getAvailableCopies());
+        }
+
+        static RecordedState of(DisplayBookHistoryDto state) {
+            return new RecordedState(state.revision(), state.name(), state.category(), state.authorId(),
+                    state.availableCopies());
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookHistoryRepository bookHistoryRepository;
+    private final TransactionTemplate overflowTransaction;
+    private final int snapshotInterval;
+    // bounded LRU; guarded by writeLock
+    private final Map<Long, RecordedState> lastRecorded = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, RecordedState> eldest) {
+            return size() > RECORDED_STATES;
+        }
+    };
+
+    private final Counter written;
+    private final Counter overflowed;
+    private final Counter failed;
+    private final Timer flushTimer;
+    private final Timer lagTimer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    public BookHistoryWriter(JdbcTemplate jdbcTemplate,
+                             BookHistoryRepository bookHistoryRepository,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${library.book-history.buffer-capacity:10000}") int capacity,
+                             @Value("${library.book-history.batch-size:200}") int batchSize,
+                             @Value("${library.book-history.flush-interval-ms:500}") long flushIntervalMs,
+                             @Value("${library.book-history.offer-timeout-ms:0}") long offerTimeoutMs,
+                             @Value("${library.book-history.snapshot-interval:10}") int snapshotInterval) {
+        super("book-history-writer", capacity, batchSize, flushIntervalMs, offerTimeoutMs);
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookHistoryRepository = bookHistoryRepository;
+        // runs from afterCommit, where the finished transaction's connection is still bound
+        this.overflowTransaction = new TransactionTemplate(transactionManager);
+        this.overflowTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotInterval = snapshotInterval;
+        this.written = meterRegistry.counter("library.book_history.written");
+        this.overflowed = meterRegistry.counter("library.book_history.overflowed");
+        this.failed = meterRegistry.counter("library.book_history.failed");
+        this.flushTimer = meterRegistry.timer("library.book_history.flush");
+        // time from the edit to its history row being written
+        this.lagTimer = meterRegistry.timer("library.book_history.lag");
+        Gauge.builder("library.book_history.buffered", this, BookHistoryWriter::buffered).register(meterRegistry);
+        Gauge.builder("library.book_history.oldest_pending_seconds", this, BookHistoryWriter::oldestPendingSeconds)
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onBookRevision(BookRevisionEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(event);
+                }
+            });
+        } else {
+            append(event);
+        }
+    }
+
+    /**
+     * Queues a committed revision. Returns false when the buffer stayed full and the revision
+     * was written synchronously instead.
+     */
+    public boolean append(BookRevisionEvent revision) {
+        boolean accepted = offer(revision);
+        if (!accepted) {
+            overflowed.increment();
+            overflowTransaction.executeWithoutResult(status -> writeBatch(List.of(revision)));
+        }
+        return accepted;
+    }
+
+    // one writer at a time: revision numbers come from lastRecorded, and overflow writes run on
+    // request threads. A lock rather than synchronized, so a virtual request thread waiting here
+    // or on the batch insert does not pin its carrier thread.
+    @Override
+    protected void writeBatch(List<BookRevisionEvent> batch) {
+        writeLock.lock();
+        try {
+            insert(batch);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void insert(List<BookRevisionEvent> batch) {
+        Map<Long, RecordedState> recorded = new HashMap<>();
+        try {
+            List<Object[]> rows = new ArrayList<>(batch.size());
+            for (BookRevisionEvent event : batch) {
+                RecordedState previous = recorded.containsKey(event.getBookId())
+                        ? recorded.get(event.getBookId())
+                        : lastRecorded(event.getBookId());
+                RecordedState current = RecordedState.of(event, previous == null ? 1 : previous.revision() + 1);
+                rows.add(toRow(event, current, previous));
+                recorded.put(event.getBookId(), current);
+            }
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(INSERT, rows));
+            lastRecorded.putAll(recorded);
+            written.increment(batch.size());
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(revision -> lagTimer.record(Duration.between(revision.getModifiedAt(), now)));
+        } catch (RuntimeException e) {
+            // numbering may now be off (e.g. another instance wrote first), so start again from the database
+            recorded.keySet().forEach(lastRecorded::remove);
+            if (batch.size() > 1) {
+                batch.forEach(revision -> insert(List.of(revision)));
+                return;
+            }
+            failed.increment();
+            System.err.println("Warning: failed to write history of book " + batch.get(0).getBookId() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * A snapshot carries every field; any other revision only the fields that differ from the
+     * previous one, leaving the rest null. As null means unchanged, a revision that clears a field
+     * is written as a snapshot.
+     */
+    private Object[] toRow(BookRevisionEvent event, RecordedState current, RecordedState previous) {
+        boolean snapshot = previous == null || (current.revision() - 1) % snapshotInterval == 0
+                || clears(current.name(), previous.name()) || clears(current.category(), previous.category())
+                || clears(current.authorId(), previous.authorId())
+                || clears(current.availableCopies(), previous.availableCopies());
+        return new Object[]{
+                current.revision(),
+                snapshot,
+                changed(current.name(), previous == null ? null : previous.name(), snapshot),
+                changed(current.category() != null ? current.category().name() : null,
+                        previous == null || previous.category() == null ? null : previous.category().name(), snapshot),
+                changed(current.authorId(), previous == null ? null : previous.authorId(), snapshot),
+                changed(current.availableCopies(), previous == null ? null : previous.availableCopies(), snapshot),
+                event.getModifiedAt(),
+                event.getModifiedBy(),
+                event.getBookId()
+        };
+    }
+
+    private static Object changed(Object value, Object previous, boolean snapshot) {
+        return snapshot || !Objects.equals(value, previous) ? value : null;
+    }
+
+    private static boolean clears(Object value, Object previous) {
+        return value == null && previous != null;
+    }
+
+    private RecordedState lastRecorded(Long bookId) {
+        RecordedState cached = lastRecorded.get(bookId);
+        if (cached != null) {
+            return cached;
+        }
+        Integer latest = bookHistoryRepository.findLatestRevision(bookId);
+        if (latest == null) {
+            return null;
+        }
+        List<DisplayBookHistoryDto> states =
+                DisplayBookHistoryDto.replay(bookHistoryRepository.findChain(bookId, latest, latest));
+        return states.isEmpty() ? null : RecordedState.of(states.get(states.size() - 1));
+    }
+
+    private double oldestPendingSeconds() {
+        BookRevisionEvent oldest = oldestBuffered();
+        return oldest == null ? 0 : Duration.between(oldest.getModifiedAt(), LocalDateTime.now()).toMillis() / 1000.0;
+    }
+}
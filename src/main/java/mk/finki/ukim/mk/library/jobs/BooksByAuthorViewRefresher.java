@@ -0,0 +1,162 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces refreshes of the books_by_author materialized view.
+ * <p>
+ * Book writes only mark the view dirty once their transaction commits. A background check
+ * then runs a single {@code REFRESH MATERIALIZED VIEW CONCURRENTLY} when writes have been quiet
+ * for the debounce window, or when the oldest unrefreshed write reaches the maximum staleness,
+ * so a burst of edits costs one rebuild and readers are never blocked by it.
+ */
+@Component
+public class BooksByAuthorViewRefresher {
+
+    private final BooksByAuthorViewRepository booksByAuthorViewRepository;
+    private final Environment environment;
+    private final long debounceMs;
+    private final long maxStalenessMs;
+    private final Timer refreshTimer;
+    private final ReentrantLock refreshLock = new ReentrantLock();
+
+    // both 0 while the view is clean
+    private long firstDirtyAt;
+    private long lastDirtyAt;
+
+    private volatile Instant lastRefreshAt;
+    private volatile long lastRefreshDurationMs;
+
+    public BooksByAuthorViewRefresher(BooksByAuthorViewRepository booksByAuthorViewRepository,
+                                      Environment environment,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${library.books-by-author.refresh-debounce-ms:2000}") long debounceMs,
+                                      @Value("${library.books-by-author.max-staleness-ms:30000}") long maxStalenessMs) {
+        this.booksByAuthorViewRepository = booksByAuthorViewRepository;
+        this.environment = environment;
+        this.debounceMs = debounceMs;
+        this.maxStalenessMs = maxStalenessMs;
+        this.refreshTimer = meterRegistry.timer("library.books_by_author.refresh");
+        Gauge.builder("library.books_by_author.last_refresh", this,
+                        refresher -> refresher.lastRefreshAt == null ? 0 : refresher.lastRefreshAt.getEpochSecond())
+                .register(meterRegistry);
+        Gauge.builder("library.books_by_author.dirty", this, refresher -> refresher.isDirty() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records that books changed. Inside a transaction the view only becomes dirty after commit,
+     * so a rolled-back write never triggers a refresh.
+     */
+    public void markDirty() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markDirtyNow();
+                }
+            });
+        } else {
+            markDirtyNow();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.books-by-author.refresh-check-ms:500}")
+    public void refreshIfDue() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            if (firstDirtyAt == 0) {
+                return;
+            }
+            boolean quiet = now - lastDirtyAt >= debounceMs;
+            boolean tooStale = now - firstDirtyAt >= maxStalenessMs;
+            if (!quiet && !tooStale) {
+                return;
+            }
+        }
+        refreshNow();
+    }
+
+    /**
+     * Refreshes the view immediately, whether or not it is dirty.
+     */
+    public void refreshNow() {
+        // a separate lock, so writers marking the view dirty never wait for a running refresh; not
+        // synchronized, which would pin a virtual scheduler thread for the length of the refresh
+        refreshLock.lock();
+        try {
+            long pendingSince;
+            long pendingLast;
+            synchronized (this) {
+                pendingSince = firstDirtyAt;
+                pendingLast = lastDirtyAt;
+                firstDirtyAt = 0;
+                lastDirtyAt = 0;
+            }
+
+            // H2 test databases use plain views that are always current
+            if (environment.acceptsProfiles(Profiles.of("test", "integration-test"))) {
+                lastRefreshAt = Instant.now();
+                return;
+            }
+
+            long start = System.nanoTime();
+            try {
+                booksByAuthorViewRepository.refreshMaterializedViewConcurrently();
+                lastRefreshAt = Instant.now();
+            } catch (Exception e) {
+                System.err.println("Warning: Could not refresh materialized view: " + e.getMessage());
+                restoreDirty(pendingSince, pendingLast);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                lastRefreshDurationMs = TimeUnit.NANOSECONDS.toMillis(elapsed);
+                refreshTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    public synchronized boolean isDirty() {
+        return firstDirtyAt != 0;
+    }
+
+    public Instant getLastRefreshAt() {
+        return lastRefreshAt;
+    }
+
+    public Duration getLastRefreshDuration() {
+        return Duration.ofMillis(lastRefreshDurationMs);
+    }
+
+    private synchronized void restoreDirty(long pendingSince, long pendingLast) {
+        if (pendingSince == 0) {
+            return;
+        }
+        firstDirtyAt = firstDirtyAt == 0 ? pendingSince : Math.min(firstDirtyAt, pendingSince);
+        lastDirtyAt = Math.max(lastDirtyAt, pendingLast);
+    }
+
+    private synchronized void markDirtyNow() {
+        long now = System.currentTimeMillis();
+        if (firstDirtyAt == 0) {
+            firstDirtyAt = now;
+        }
+        lastDirtyAt = now;
+    }
+}
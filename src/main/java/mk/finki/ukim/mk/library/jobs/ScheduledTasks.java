@@ -1,32 +1,21 @@
 package mk.finki.ukim.mk.library.jobs;
 
-import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
-import org.springframework.core.env.Environment;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 @Component
 public class ScheduledTasks {
 
-    private final BooksByAuthorViewRepository booksByAuthorViewRepository;
-    private final Environment environment;
+    private final BooksByAuthorViewRefresher booksByAuthorViewRefresher;
 
-    public ScheduledTasks(BooksByAuthorViewRepository booksByAuthorViewRepository, Environment environment) {
-        this.booksByAuthorViewRepository = booksByAuthorViewRepository;
-        this.environment = environment;
+    public ScheduledTasks(BooksByAuthorViewRefresher booksByAuthorViewRefresher) {
+        this.booksByAuthorViewRefresher = booksByAuthorViewRefresher;
     }
 
     @Scheduled(cron = "0 0 * * * *") // Run every hour
     public void refreshBooksbyAuthorView() {
-        // Only refresh materialized view in PostgreSQL production environment
-        boolean isTestProfile = environment.acceptsProfiles("test");
-
-        if (!isTestProfile) {
-            try {
-                booksByAuthorViewRepository.refreshMaterializedViewPostgreSQL();
-            } catch (Exception e) {
-                System.err.println("Warning: Could not refresh materialized view: " + e.getMessage());
-            }
-        }
+        // Safety net for changes made outside the application; goes through the same
+        // coordinator so it never overlaps a write-triggered refresh
+        booksByAuthorViewRefresher.refreshNow();
     }
 }
@@ -0,0 +1,28 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of the last log returned in a keyset page (newest first). Clients only ever
+ * see the encoded form.
+ */
+public record AuthLogCursor(
+        LocalDateTime lastIssuedAt,
+        Long lastId
+) {
+    private static final String SEPARATOR = "|";
+
+    public static AuthLogCursor after(DisplayAuthLogDto log) {
+        return new AuthLogCursor(log.issuedAt(), log.id());
+    }
+
+    public String encode() {
+        return CursorCodec.encode(SEPARATOR, lastIssuedAt, lastId);
+    }
+
+    public static AuthLogCursor decode(String token) {
+        return CursorCodec.decode(token, SEPARATOR, 2, fields -> new AuthLogCursor(
+                LocalDateTime.parse(fields[0]),
+                Long.parseLong(fields[1])));
+    }
+}
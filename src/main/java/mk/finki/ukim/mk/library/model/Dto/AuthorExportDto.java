@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+public record AuthorExportDto(
+        Long id,
+        String name,
+        String surname,
+        Long countryId,
+        String countryName
+) {
+}
@@ -0,0 +1,12 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookBrowsePageDto(
+        List<DisplayBookDto> content,
+        String nextCursor,
+        int size,
+        long total,
+        BookFacetsDto facets
+) {
+}
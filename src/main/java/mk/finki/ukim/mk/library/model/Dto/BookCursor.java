@@ -0,0 +1,38 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
+
+/**
+ * Position of the last book returned in a keyset page. Clients only ever see the
+ * encoded form, so the layout can change without breaking them.
+ */
+public record BookCursor(
+        BookSort sort,
+        Long lastId,
+        String lastName
+) {
+    private static final String SEPARATOR = ":";
+
+    public static BookCursor after(DisplayBookDto book, BookSort sort) {
+        return new BookCursor(sort, book.id(), sort == BookSort.NAME ? book.name() : null);
+    }
+
+    public String encode() {
+        return lastName != null
+                ? CursorCodec.encode(SEPARATOR, sort.name(), lastId, lastName)
+                : CursorCodec.encode(SEPARATOR, sort.name(), lastId);
+    }
+
+    public static BookCursor decode(String token) {
+        return CursorCodec.decode(token, SEPARATOR, 3, fields -> {
+            BookSort sort = BookSort.valueOf(fields[0]);
+            Long lastId = Long.parseLong(fields[1]);
+            String lastName = fields.length > 2 ? fields[2] : null;
+            if (sort == BookSort.NAME && lastName == null) {
+                throw new InvalidArgumentsException();
+            }
+            return new BookCursor(sort, lastId, lastName);
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import mk.finki.ukim.mk.library.model.domain.Category;
+
+/**
+ * One exported book. Apart from the id, the fields match the columns the bulk import reads,
+ * so an export can be imported again as it is.
+ */
+public record BookExportDto(
+        Long id,
+        String name,
+        Category category,
+        Long authorId,
+        String authorName,
+        String authorSurname,
+        Integer availableCopies
+) {
+}
@@ -0,0 +1,11 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookFacetsDto(
+        List<FacetCountDto> categories,
+        List<FacetCountDto> authors,
+        List<FacetCountDto> countries,
+        long available
+) {
+}
@@ -0,0 +1,28 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Position of the last history entry returned in a keyset page (newest first). Clients only
+ * ever see the encoded form.
+ */
+public record BookHistoryCursor(
+        LocalDateTime lastModifiedAt,
+        Long lastId
+) {
+    private static final String SEPARATOR = "|";
+
+    public static BookHistoryCursor after(DisplayBookHistoryDto history) {
+        return new BookHistoryCursor(history.modifiedAt(), history.id());
+    }
+
+    public String encode() {
+        return CursorCodec.encode(SEPARATOR, lastModifiedAt, lastId);
+    }
+
+    public static BookHistoryCursor decode(String token) {
+        return CursorCodec.decode(token, SEPARATOR, 2, fields -> new BookHistoryCursor(
+                LocalDateTime.parse(fields[0]),
+                Long.parseLong(fields[1])));
+    }
+}
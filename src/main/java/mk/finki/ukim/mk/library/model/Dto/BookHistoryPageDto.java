@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookHistoryPageDto(
+        List<DisplayBookHistoryDto> content,
+        String nextCursor,
+        int size
+) {
+}
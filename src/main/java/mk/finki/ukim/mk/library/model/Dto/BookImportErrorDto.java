@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+/**
+ * Rows are numbered from 1, not counting a CSV header.
+ */
+public record BookImportErrorDto(
+        long row,
+        String message
+) {
+}
@@ -0,0 +1,14 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookImportResultDto(
+        long rows,
+        long imported,
+        long failed,
+        List<BookImportErrorDto> errors,
+        boolean errorsTruncated,
+        long durationMs,
+        double rowsPerSecond
+) {
+}
@@ -0,0 +1,15 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+/**
+ * One row of a bulk import, as read from CSV or NDJSON and before validation. The author is
+ * given either by authorId or by authorName and authorSurname.
+ */
+public record BookImportRowDto(
+        String name,
+        String category,
+        Long authorId,
+        String authorName,
+        String authorSurname,
+        Integer availableCopies
+) {
+}
@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookPageDto(
+        List<DisplayBookDto> content,
+        String nextCursor,
+        int size
+) {
+}
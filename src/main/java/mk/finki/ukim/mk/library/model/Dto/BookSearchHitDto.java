@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+public record BookSearchHitDto(
+        Long id,
+        String name,
+        Long authorId,
+        String authorName,
+        double score
+) {
+}
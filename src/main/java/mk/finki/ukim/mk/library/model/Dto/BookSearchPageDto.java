@@ -0,0 +1,11 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import java.util.List;
+
+public record BookSearchPageDto(
+        List<BookSearchHitDto> content,
+        long total,
+        int page,
+        int size
+) {
+}
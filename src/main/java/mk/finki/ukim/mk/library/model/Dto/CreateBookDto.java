@@ -8,14 +8,21 @@ public record CreateBookDto(
         String name,
         Category category,
         Long authorId,
-        Integer availableCopies
+        Integer availableCopies,
+        // the version of the book an edit is based on, as last returned by the API; null when creating
+        Long version
 ) {
+    public CreateBookDto(String name, Category category, Long authorId, Integer availableCopies) {
+        this(name, category, authorId, availableCopies, null);
+    }
+
     public Book toBook(Author author) {
         Book book = new Book();
         book.setName(name);
         book.setCategory(category);
         book.setAuthor(author);
         book.setAvailableCopies(availableCopies);
+        book.setVersion(version);
         return book;
     }
 }
@@ -0,0 +1,39 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Token format shared by the keyset cursors: the fields joined by a separator, in URL-safe base64
+ * without padding. The last field may itself contain the separator. A token that does not decode
+ * or parse fails with {@link InvalidArgumentsException}.
+ */
+final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    static String encode(String separator, Object... fields) {
+        String raw = Arrays.stream(fields).map(String::valueOf).collect(Collectors.joining(separator));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Splits the token into at most {@code maxFields} fields and hands them to {@code parse}.
+     */
+    static <T> T decode(String token, String separator, int maxFields, Function<String[], T> parse) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            return parse.apply(raw.split(Pattern.quote(separator), maxFields));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new InvalidArgumentsException();
+        }
+    }
+}
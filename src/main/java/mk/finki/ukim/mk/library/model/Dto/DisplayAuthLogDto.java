@@ -7,15 +7,17 @@ import java.time.LocalDateTime;
 
 
 public record DisplayAuthLogDto(
+        Long id,
         String username,
-        String token,
+        String tokenFingerprint,
         LocalDateTime issuedAt,
         LocalDateTime expiresAt
 ) {
     public static DisplayAuthLogDto from(AuthenticationLog log) {
         return new DisplayAuthLogDto(
+                log.getId(),
                 log.getUsername(),
-                log.getToken(),
+                log.getTokenFingerprint(),
                 log.getIssuedAt(),
                 log.getExpiresAt()
         );
@@ -11,15 +11,21 @@ public record DisplayBookDto(
         String name,
         Category category,
         DisplayAuthorDto author,
-        Integer availableCopies
+        Integer availableCopies,
+        Long version
 ) {
+    public DisplayBookDto(Long id, String name, Category category, DisplayAuthorDto author, Integer availableCopies) {
+        this(id, name, category, author, availableCopies, null);
+    }
+
     public static DisplayBookDto from(Book book) {
         return new DisplayBookDto(
                 book.getId(),
                 book.getName(),
                 book.getCategory(),
                 DisplayAuthorDto.from(book.getAuthor()),
-                book.getAvailableCopies()
+                book.getAvailableCopies(),
+                book.getVersion()
         );
     }
 
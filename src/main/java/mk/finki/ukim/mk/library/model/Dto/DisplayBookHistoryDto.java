@@ -1,32 +1,48 @@
 package mk.finki.ukim.mk.library.model.Dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import mk.finki.ukim.mk.library.model.domain.BookHistory;
 import mk.finki.ukim.mk.library.model.domain.Category;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 public record DisplayBookHistoryDto(
         Long id,
         Long bookId,
+        Integer revision,
         String name,
         Category category,
+        Long authorId,
         String authorName,
         Integer availableCopies,
         LocalDateTime modifiedAt,
-        String modifiedBy
+        String modifiedBy,
+        // whether the stored row holds every field; only meaningful while replaying a chain
+        @JsonIgnore Boolean snapshot
 ) {
+    public DisplayBookHistoryDto(Long id, Long bookId, Integer revision, String name, Category category,
+                                 Long authorId, String authorName, Integer availableCopies,
+                                 LocalDateTime modifiedAt, String modifiedBy) {
+        this(id, bookId, revision, name, category, authorId, authorName, availableCopies, modifiedAt, modifiedBy,
+                null);
+    }
+
     public static DisplayBookHistoryDto from(BookHistory history) {
         return new DisplayBookHistoryDto(
                 history.getId(),
                 history.getBook().getId(),
+                history.getRevision(),
                 history.getName(),
                 history.getCategory(),
-                history.getAuthor().getName() + " " + history.getAuthor().getSurname(),
+                history.getAuthor() != null ? history.getAuthor().getId() : null,
+                history.getAuthor() != null ? history.getAuthor().getName() + " " + history.getAuthor().getSurname() : null,
                 history.getAvailableCopies(),
                 history.getModifiedAt(),
-                history.getModifiedBy().getUsername()
+                history.getModifiedBy() != null ? history.getModifiedBy().getUsername() : null,
+                history.getSnapshot()
         );
     }
 
@@ -35,4 +51,41 @@ public record DisplayBookHistoryDto(
                 .map(DisplayBookHistoryDto::from)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Rebuilds full states from stored revisions, which only hold the fields they changed.
+     * The chain must be in revision order and start at a snapshot.
+     */
+    public static List<DisplayBookHistoryDto> replay(List<DisplayBookHistoryDto> chain) {
+        List<DisplayBookHistoryDto> states = new ArrayList<>(chain.size());
+        DisplayBookHistoryDto previous = null;
+        for (DisplayBookHistoryDto revision : chain) {
+            previous = previous == null ? revision : revision.over(previous);
+            states.add(previous);
+        }
+        return states;
+    }
+
+    /**
+     * This revision with the fields it left unchanged taken from the state before it. A snapshot
+     * is complete as it stands, including fields it cleared.
+     */
+    public DisplayBookHistoryDto over(DisplayBookHistoryDto previous) {
+        if (Boolean.TRUE.equals(snapshot)) {
+            return this;
+        }
+        return new DisplayBookHistoryDto(
+                id,
+                bookId,
+                revision,
+                name != null ? name : previous.name,
+                category != null ? category : previous.category,
+                authorId != null ? authorId : previous.authorId,
+                authorId != null ? authorName : previous.authorName,
+                availableCopies != null ? availableCopies : previous.availableCopies,
+                modifiedAt,
+                modifiedBy,
+                snapshot
+        );
+    }
 }
@@ -0,0 +1,12 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+/**
+ * One facet value and how many books it would match. {@code value} is what to pass back as the
+ * filter (a category name or an id), {@code label} what to show.
+ */
+public record FacetCountDto(
+        String value,
+        String label,
+        long count
+) {
+}
@@ -0,0 +1,4 @@
+package mk.finki.ukim.mk.library.model.Dto;
+
+public record UserTokenVersionDto(String username, long tokenVersion) {
+}
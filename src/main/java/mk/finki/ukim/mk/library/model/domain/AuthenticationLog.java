@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
-import jakarta.persistence.MapKey;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
@@ -13,23 +12,30 @@ import java.time.LocalDateTime;
 @Data
 @Entity
 @NoArgsConstructor
+@Table(indexes = {
+        // per-user history and keyset pages, newest first
+        @Index(name = "idx_auth_log_username_issued_at", columnList = "username, issued_at"),
+        // unfiltered time ranges and the retention job
+        @Index(name = "idx_auth_log_issued_at", columnList = "issued_at")
+})
 public class AuthenticationLog {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long Id;
+    private Long id;
 
     private String username;
 
-    @Column(length = 2000)
-    private String token;
+    // SHA-256 of the issued JWT: enough to correlate a token, useless for replaying it
+    @Column(length = 64)
+    private String tokenFingerprint;
 
     private LocalDateTime issuedAt;
     private LocalDateTime expiresAt;
 
-    public AuthenticationLog(String username, String token, LocalDateTime issuedAt, LocalDateTime expiresAt) {
+    public AuthenticationLog(String username, String tokenFingerprint, LocalDateTime issuedAt, LocalDateTime expiresAt) {
         this.username = username;
-        this.token = token;
+        this.tokenFingerprint = tokenFingerprint;
         this.issuedAt = issuedAt;
         this.expiresAt = expiresAt;
     }
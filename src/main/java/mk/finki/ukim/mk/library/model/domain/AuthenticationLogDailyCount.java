@@ -0,0 +1,36 @@
+package mk.finki.ukim.mk.library.model.domain;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-user, per-day login count kept after the individual authentication_log rows
+ * have aged out of the retention window.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@IdClass(AuthenticationLogDailyCount.Key.class)
+public class AuthenticationLogDailyCount {
+
+    @Id
+    private String username;
+
+    @Id
+    private LocalDate loginDate;
+
+    private long loginCount;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String username;
+        private LocalDate loginDate;
+    }
+}
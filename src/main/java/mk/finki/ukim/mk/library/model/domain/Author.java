@@ -2,20 +2,34 @@ package mk.finki.ukim.mk.library.model.domain;
 
 
 import jakarta.persistence.*;
-import lombok.Data;
-
-@Data
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
+@Getter
+@Setter
+@ToString
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Author.CACHE_REGION)
 public class Author {
 
+    // countries and authors change rarely and are read on every book and author write
+    public static final String CACHE_REGION = "library.author";
+
+    // pooled ids from author_seq, like Book
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "author_seq")
+    @SequenceGenerator(name = "author_seq", sequenceName = "author_seq", allocationSize = 50)
     private Long Id;
 
     private String name;
     private String surname;
 
     @ManyToOne
+    @ToString.Exclude
     private Country country;
 
     public Author() {
@@ -58,4 +72,21 @@ public class Author {
     public Country getCountry() {
         return country;
     }
+
+    // equal by id only, like Book
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Author) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
 }
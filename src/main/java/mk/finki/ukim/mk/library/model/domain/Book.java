@@ -1,16 +1,28 @@
 package mk.finki.ukim.mk.library.model.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_book_name_id", columnList = "name, id"),
+        @Index(name = "idx_book_category_id", columnList = "category, id"),
+        @Index(name = "idx_book_author_id_id", columnList = "author_id, id")
+})
 public class Book {
 
+    // Ids come from book_seq in blocks of 50 (pooled-lo), so inserts need no round trip for the
+    // id and Hibernate can batch them; the first value of each block is the sequence value itself
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -19,11 +31,18 @@ public class Book {
     private Category category;
 
     @ManyToOne
+    @ToString.Exclude
     private Author author;
 
     private Integer availableCopies;
 
+    // Existing rows start at 0; borrows bump it too (see BookRepository.decrementAvailableCopies)
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @ManyToMany(mappedBy = "books")
+    @ToString.Exclude
     private List<Wishlist> wishlists;
 
     public Book() {
@@ -75,4 +94,31 @@ public class Book {
     public Integer getAvailableCopies() {
         return availableCopies;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    // Identity is the primary key alone, so equality never reads other fields or associations
+    // and holds for Hibernate proxies. A new entity is only equal to itself; the hash code is
+    // the same before and after it gets an id, so it stays findable in hash-based collections.
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Book) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
 }
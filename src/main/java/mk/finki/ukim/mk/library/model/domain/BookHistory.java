@@ -1,11 +1,21 @@
 package mk.finki.ukim.mk.library.model.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
-@Data
+@Getter
+@Setter
+@ToString
 @Entity
+@Table(indexes = {
+        // per-book history pages and as-of lookups, newest first
+        @Index(name = "idx_book_history_book_modified_at", columnList = "book_id, modified_at"),
+        // revision chains replayed from the nearest snapshot
+        @Index(name = "uk_book_history_book_revision", columnList = "book_id, revision", unique = true)
+})
 public class BookHistory {
 
     @Id
@@ -13,14 +23,24 @@ public class BookHistory {
     private Long id;
 
     @ManyToOne
+    @ToString.Exclude
     private Book book;
 
+    // 1-based per book. Only snapshot revisions hold every field; the others hold just the
+    // fields that changed and leave the rest null, so a revision that clears a field is stored
+    // as a snapshot. Rows from before revisions were introduced have no revision and are always
+    // complete.
+    private Integer revision;
+
+    private Boolean snapshot;
+
     private String name;
 
     @Enumerated(EnumType.STRING)
     private Category category;
 
     @ManyToOne
+    @ToString.Exclude
     private Author author;
 
     private Integer availableCopies;
@@ -28,6 +48,7 @@ public class BookHistory {
     private LocalDateTime modifiedAt;
 
     @ManyToOne
+    @ToString.Exclude
     private User modifiedBy;
 
     public BookHistory() {
@@ -44,6 +65,13 @@ public class BookHistory {
         this.modifiedBy = modifiedBy;
     }
 
+    // a complete revision, i.e. a snapshot
+    public BookHistory(Book book, User modifiedBy, int revision) {
+        this(book, modifiedBy);
+        this.revision = revision;
+        this.snapshot = true;
+    }
+
 //    public Long getId() {
 //        return id;
 //    }
@@ -75,4 +103,21 @@ public class BookHistory {
 //    public User getModifiedBy() {
 //        return modifiedBy;
 //    }
+
+    // equal by id only, like Book
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((BookHistory) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
 }
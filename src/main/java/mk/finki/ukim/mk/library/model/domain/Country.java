@@ -1,11 +1,15 @@
 package mk.finki.ukim.mk.library.model.domain;
 
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 //@Data
 //package mk.finki.ukim.mk.library.model;
@@ -13,10 +17,16 @@ import lombok.Data;
 
 @Entity
 @Data
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Country.CACHE_REGION)
 public class Country {
 
+    public static final String CACHE_REGION = "library.country";
+
+    // pooled ids from country_seq, like Book
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "country_seq")
+    @SequenceGenerator(name = "country_seq", sequenceName = "country_seq", allocationSize = 50)
     private Long id; // lowercase "id" to match getter/setter
 
     private String name;
@@ -0,0 +1,21 @@
+package mk.finki.ukim.mk.library.model.domain;
+
+import org.hibernate.proxy.HibernateProxy;
+
+/**
+ * Helpers for the identity-based {@code equals}/{@code hashCode} of the entities.
+ */
+final class Entities {
+
+    private Entities() {
+    }
+
+    /**
+     * The mapped class of an entity or of a Hibernate proxy for it, read without initializing the proxy.
+     */
+    static Class<?> effectiveClass(Object entity) {
+        return entity instanceof HibernateProxy proxy
+                ? proxy.getHibernateLazyInitializer().getPersistentClass()
+                : entity.getClass();
+    }
+}
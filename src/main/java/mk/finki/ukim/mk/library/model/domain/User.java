@@ -4,26 +4,34 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Table;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Objects;
 
 import jakarta.persistence.*;
+import mk.finki.ukim.mk.library.events.UserChangeListener;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-@Data
+@Getter
+@Setter
+@ToString
 @Entity
 @Table(name = "library_users")
+@EntityListeners(UserChangeListener.class)
 public class User implements UserDetails {
 
     @Id
     private String username;
 
     @JsonIgnore
+    @ToString.Exclude
     private String password;
 
     private String name;
@@ -33,14 +41,17 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
-    @OneToOne(mappedBy = "user")
-    private Wishlist wishlist;
-
     private boolean isAccountNonExpired = true;
     private boolean isAccountNonLocked = true;
     private boolean isCredentialsNonExpired = true;
     private boolean isEnabled = true;
 
+    // Carried in every token; any write to the user bumps it, so tokens issued before it are no
+    // longer trusted on their claims (see UserPrincipalCache#isStale). Existing rows start at 0.
+    @JsonIgnore
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long tokenVersion;
+
     public User() {
     }
 
@@ -64,6 +75,11 @@ public class User implements UserDetails {
         this.password = userDetails.getPassword();
     }
 
+    @PreUpdate
+    void revokeIssuedTokens() {
+        tokenVersion++;
+    }
+
    @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList((GrantedAuthority) role);
@@ -108,4 +124,21 @@ public class User implements UserDetails {
     public Role getRole() {
         return role;
     }
-}
\ No newline at end of file
+
+    // Identity is the username alone, which is assigned before the user is saved
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return username != null && username.equals(((User) o).getUsername());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(username);
+    }
+}
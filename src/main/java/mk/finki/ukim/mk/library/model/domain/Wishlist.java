@@ -1,14 +1,18 @@
 package mk.finki.ukim.mk.library.model.domain;
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 import mk.finki.ukim.mk.library.model.enumerations.WishlistStatus;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
-@Data
+@Getter
+@Setter
+@ToString
 @Entity
 public class Wishlist {
 
@@ -16,10 +20,19 @@ public class Wishlist {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    // A user keeps their borrowed wishlists; at most one of them is CREATED at a time
+    @ManyToOne
+    @ToString.Exclude
     private User user;
 
+    // Rows are added and removed one at a time through WishlistRepository.addBook/removeBook;
+    // the unique key makes a repeated add a no-op
     @ManyToMany
+    @JoinTable(name = "wishlist_books",
+            joinColumns = @JoinColumn(name = "wishlist_id"),
+            inverseJoinColumns = @JoinColumn(name = "books_id"),
+            uniqueConstraints = @UniqueConstraint(name = "uk_wishlist_books", columnNames = {"wishlist_id", "books_id"}))
+    @ToString.Exclude
     private List<Book> books;
 
     private LocalDateTime dateCreated;
@@ -73,4 +86,21 @@ public class Wishlist {
     public void setStatus(WishlistStatus status) {
         this.status = status;
     }
-}
\ No newline at end of file
+
+    // equal by id only, like Book
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || Entities.effectiveClass(this) != Entities.effectiveClass(o)) {
+            return false;
+        }
+        return getId() != null && getId().equals(((Wishlist) o).getId());
+    }
+
+    @Override
+    public int hashCode() {
+        return Entities.effectiveClass(this).hashCode();
+    }
+}
@@ -0,0 +1,6 @@
+package mk.finki.ukim.mk.library.model.enumerations;
+
+public enum BookSort {
+    ID,
+    NAME
+}
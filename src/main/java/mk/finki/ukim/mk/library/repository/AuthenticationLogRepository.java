@@ -2,15 +2,41 @@ package mk.finki.ukim.mk.library.repository;
 
 
 import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface AuthenticationLogRepository extends JpaRepository<AuthenticationLog, Long> {
         List<AuthenticationLog> findByUsername(String username);
-        List<AuthenticationLog> findAllByOrderByIssuedAtDesc();
 
+        // Keyset pages over [from, to), newest first. Kept as two queries so the per-user one
+        // is served by idx_auth_log_username_issued_at and the other by idx_auth_log_issued_at.
+        @Query("SELECT l FROM AuthenticationLog l " +
+                "WHERE l.username = :username AND l.issuedAt >= :from AND l.issuedAt < :to " +
+                "AND (:afterIssuedAt IS NULL OR l.issuedAt < :afterIssuedAt " +
+                "     OR (l.issuedAt = :afterIssuedAt AND l.id < :afterId)) " +
+                "ORDER BY l.issuedAt DESC, l.id DESC")
+        List<AuthenticationLog> findPageByUsername(@Param("username") String username,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to,
+                                                   @Param("afterIssuedAt") LocalDateTime afterIssuedAt,
+                                                   @Param("afterId") Long afterId,
+                                                   Limit limit);
 
+        @Query("SELECT l FROM AuthenticationLog l " +
+                "WHERE l.issuedAt >= :from AND l.issuedAt < :to " +
+                "AND (:afterIssuedAt IS NULL OR l.issuedAt < :afterIssuedAt " +
+                "     OR (l.issuedAt = :afterIssuedAt AND l.id < :afterId)) " +
+                "ORDER BY l.issuedAt DESC, l.id DESC")
+        List<AuthenticationLog> findPage(@Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("afterIssuedAt") LocalDateTime afterIssuedAt,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
 }
@@ -1,15 +1,51 @@
 package mk.finki.ukim.mk.library.repository;
 
 
+import jakarta.persistence.QueryHint;
+import mk.finki.ukim.mk.library.cache.ReferenceDataCacheMetrics;
+import mk.finki.ukim.mk.library.model.Dto.AuthorExportDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
 import mk.finki.ukim.mk.library.model.projections.AuthorNameProjection;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface AuthorRepository extends JpaRepository<Author, Long> {
 
+    // Load the country in the same select instead of one select per distinct country;
+    // served from the query cache until the author or country table changes
+    @EntityGraph(attributePaths = {"country"})
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = ReferenceDataCacheMetrics.QUERY_REGION)})
+    @Override
+    List<Author> findAll();
+
+    @EntityGraph(attributePaths = {"country"})
+    @Override
+    Optional<Author> findById(Long id);
+
     List<AuthorNameProjection> findAllProjectedBy();
+
+    // ids only: resolving an author by name must not load its country
+    @Query("SELECT a.id FROM Author a WHERE a.name = :name AND a.surname = :surname ORDER BY a.id")
+    List<Long> findIdsByNameAndSurname(@Param("name") String name, @Param("surname") String surname);
+
+    // see BookRepository.streamExport
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new mk.finki.ukim.mk.library.model.Dto.AuthorExportDto(a.id, a.name, a.surname, c.id, c.name) " +
+            "FROM Author a LEFT JOIN a.country c ORDER BY a.id")
+    Stream<AuthorExportDto> streamExport();
 }
@@ -3,8 +3,10 @@ package mk.finki.ukim.mk.library.repository;
 import mk.finki.ukim.mk.library.model.views.AuthorsByCountryView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
+@Transactional(readOnly = true)
 public interface AuthorsByCountryViewRepository extends JpaRepository<AuthorsByCountryView, Long> {
-    // No need for a refresh method here since it's handled by the database triggers
+    // No need for a refresh method here; the counts behind the view are maintained by database triggers
 }
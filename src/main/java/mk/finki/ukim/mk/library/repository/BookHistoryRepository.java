@@ -1,20 +1,82 @@
 package mk.finki.ukim.mk.library.repository;
 
 
+import jakarta.persistence.QueryHint;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.Book;
 import mk.finki.ukim.mk.library.model.domain.BookHistory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BookHistoryRepository extends JpaRepository<BookHistory, Long> {
+
+    // Rows come back as stored: fields a revision did not change are null, and
+    // DisplayBookHistoryDto.replay fills them in from the chain returned by findChain.
+    String SELECT_ROW = "SELECT new mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto(" +
+            "h.id, h.book.id, h.revision, h.name, h.category, a.id, " +
+            "CASE WHEN a.id IS NULL THEN NULL ELSE CONCAT(a.name, ' ', a.surname) END, " +
+            "h.availableCopies, h.modifiedAt, u.username, h.snapshot) " +
+            "FROM BookHistory h LEFT JOIN h.author a LEFT JOIN h.modifiedBy u ";
+
     List<BookHistory> findByBookOrderByModifiedAtDesc(Book book);
 
+    // History reads project straight into the DTO in one joined query, so a page costs one
+    // statement regardless of how many authors or users it mentions, and never loads the book.
+    // Both are served by idx_book_history_book_modified_at.
+    @Query(SELECT_ROW +
+            "WHERE h.book.id = :bookId " +
+            "AND (:from IS NULL OR h.modifiedAt >= :from) AND (:to IS NULL OR h.modifiedAt < :to) " +
+            "AND (:afterModifiedAt IS NULL OR h.modifiedAt < :afterModifiedAt " +
+            "     OR (h.modifiedAt = :afterModifiedAt AND h.id < :afterId)) " +
+            "ORDER BY h.modifiedAt DESC, h.id DESC")
+    List<DisplayBookHistoryDto> findPage(@Param("bookId") Long bookId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("afterModifiedAt") LocalDateTime afterModifiedAt,
+                                         @Param("afterId") Long afterId,
+                                         Limit limit);
+
+    // The latest entry at or before asOf is the book's state at that moment
+    @Query(SELECT_ROW +
+            "WHERE h.book.id = :bookId AND h.modifiedAt <= :asOf " +
+            "ORDER BY h.modifiedAt DESC, h.id DESC")
+    List<DisplayBookHistoryDto> findLatestAsOf(@Param("bookId") Long bookId,
+                                               @Param("asOf") LocalDateTime asOf,
+                                               Limit limit);
+
+    // Revisions up to toRevision, starting at the last snapshot at or before fromRevision;
+    // at most one snapshot interval more than the range asked for
+    @Query(SELECT_ROW +
+            "WHERE h.book.id = :bookId AND h.revision <= :toRevision " +
+            "AND h.revision >= (SELECT MAX(s.revision) FROM BookHistory s " +
+            "                   WHERE s.book.id = :bookId AND s.snapshot = true AND s.revision <= :fromRevision) " +
+            "ORDER BY h.revision")
+    List<DisplayBookHistoryDto> findChain(@Param("bookId") Long bookId,
+                                          @Param("fromRevision") Integer fromRevision,
+                                          @Param("toRevision") Integer toRevision);
+
+    @Query("SELECT MAX(h.revision) FROM BookHistory h WHERE h.book.id = :bookId")
+    Integer findLatestRevision(@Param("bookId") Long bookId);
+
+    // Every stored revision as in findChain, book by book, for a streaming export that replays
+    // each book's chain as it goes; see BookRepository.streamExport
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query(SELECT_ROW + "ORDER BY h.book.id, h.revision, h.id")
+    Stream<DisplayBookHistoryDto> streamAll();
+
     @Modifying
     @Query("DELETE FROM BookHistory bh WHERE bh.book.id = :bookId")
     void deleteByBookId(@Param("bookId") Long bookId);
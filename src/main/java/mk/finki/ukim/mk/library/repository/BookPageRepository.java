@@ -0,0 +1,21 @@
+package mk.finki.ukim.mk.library.repository;
+
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import org.springframework.data.domain.Limit;
+
+import java.util.List;
+
+/**
+ * Keyset pages of the catalog: each page seeks past the last row of the previous one instead of
+ * using OFFSET, so every page costs the same no matter how deep the client has scrolled. A null
+ * cursor asks for the first page and a null filter is left out of the query altogether, so the
+ * remaining predicates can range-scan the matching {@code (…, id)} index.
+ */
+public interface BookPageRepository {
+
+    List<Book> findPageOrderById(Long afterId, Category category, Long authorId, Long countryId, Limit limit);
+
+    List<Book> findPageOrderByName(String afterName, Long afterId, Category category,
+                                   Long authorId, Long countryId, Limit limit);
+}
@@ -0,0 +1,75 @@
+package mk.finki.ukim.mk.library.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import org.springframework.data.domain.Limit;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+class BookPageRepositoryImpl implements BookPageRepository {
+
+    // left joins: a book without an author, or an author without a country, is still a book
+    private static final String SELECT = "SELECT b FROM Book b LEFT JOIN FETCH b.author a LEFT JOIN FETCH a.country c";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Book> findPageOrderById(Long afterId, Category category, Long authorId, Long countryId, Limit limit) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (afterId != null) {
+            where.add("b.id > :afterId");
+            params.put("afterId", afterId);
+        }
+        filter(where, params, category, authorId, countryId);
+        return page(where, params, "b.id ASC", limit);
+    }
+
+    @Override
+    public List<Book> findPageOrderByName(String afterName, Long afterId, Category category,
+                                          Long authorId, Long countryId, Limit limit) {
+        List<String> where = new ArrayList<>();
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (afterName != null) {
+            // a row-value comparison the planner can turn into a single range on (name, id)
+            where.add("(b.name, b.id) > (:afterName, :afterId)");
+            params.put("afterName", afterName);
+            params.put("afterId", afterId != null ? afterId : 0L);
+        }
+        filter(where, params, category, authorId, countryId);
+        return page(where, params, "b.name ASC, b.id ASC", limit);
+    }
+
+    private static void filter(List<String> where, Map<String, Object> params,
+                               Category category, Long authorId, Long countryId) {
+        if (category != null) {
+            where.add("b.category = :category");
+            params.put("category", category);
+        }
+        if (authorId != null) {
+            where.add("a.id = :authorId");
+            params.put("authorId", authorId);
+        }
+        if (countryId != null) {
+            where.add("c.id = :countryId");
+            params.put("countryId", countryId);
+        }
+    }
+
+    private List<Book> page(List<String> where, Map<String, Object> params, String orderBy, Limit limit) {
+        String jpql = SELECT + (where.isEmpty() ? "" : " WHERE " + String.join(" AND ", where)) + " ORDER BY " + orderBy;
+        TypedQuery<Book> query = entityManager.createQuery(jpql, Book.class);
+        params.forEach(query::setParameter);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query.getResultList();
+    }
+}
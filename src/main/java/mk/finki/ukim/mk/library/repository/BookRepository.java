@@ -1,10 +1,72 @@
 package mk.finki.ukim.mk.library.repository;
 
 
+import jakarta.persistence.QueryHint;
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
 import mk.finki.ukim.mk.library.model.domain.Book;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface BookRepository  extends JpaRepository<Book, Long> {
+public interface BookRepository  extends JpaRepository<Book, Long>, BookPageRepository {
+
+    // Fetch author and country in the same select; the eager @ManyToOne defaults
+    // would otherwise issue one extra select per distinct author and country
+    @EntityGraph(attributePaths = {"author", "author.country"})
+    @Override
+    List<Book> findAll();
+
+    @EntityGraph(attributePaths = {"author", "author.country"})
+    @Override
+    Optional<Book> findById(Long id);
+
+    @EntityGraph(attributePaths = {"author", "author.country"})
+    List<Book> findAllByIdIn(Collection<Long> ids);
+
+    // Takes one copy in a single statement; returns 0 when the book is missing or out of copies.
+    // The version bump makes a concurrent edit of the same book fail its optimistic lock check
+    // instead of writing back a stale copy count.
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.availableCopies > 0")
+    int decrementAvailableCopies(@Param("id") Long id);
+
+    @Query("SELECT b.name FROM Book b WHERE b.id IN :ids AND b.availableCopies <= 0 ORDER BY b.name")
+    List<String> findNamesWithoutCopies(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids AND b.availableCopies > 0")
+    List<Long> findIdsWithCopies(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Set-based variant of decrementAvailableCopies: one statement however many books are borrowed
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.availableCopies > 0")
+    int decrementAvailableCopiesOfAll(@Param("ids") Collection<Long> ids);
+
+    // Export: a forward-only cursor over DTOs, which the persistence context does not keep,
+    // so memory stays flat however many rows are read. Must be consumed inside a transaction.
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "1000"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("SELECT new mk.finki.ukim.mk.library.model.Dto.BookExportDto(" +
+            "b.id, b.name, b.category, a.id, a.name, a.surname, b.availableCopies) " +
+            "FROM Book b LEFT JOIN b.author a ORDER BY b.id")
+    Stream<BookExportDto> streamExport();
 }
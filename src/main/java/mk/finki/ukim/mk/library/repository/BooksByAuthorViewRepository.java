@@ -7,7 +7,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+// reads may be served by a replica; the refreshes below run read-write on the primary
 @Repository
+@Transactional(readOnly = true)
 public interface BooksByAuthorViewRepository extends JpaRepository<BooksByAuthorView, Long> {
 
     @Transactional
@@ -15,6 +17,13 @@ public interface BooksByAuthorViewRepository extends JpaRepository<BooksByAuthor
     @Query(value = "REFRESH MATERIALIZED VIEW books_by_author", nativeQuery = true)
     void refreshMaterializedViewPostgreSQL();
 
+    // Rebuilds without taking the exclusive lock, so /api/books/by-author readers are not blocked.
+    // Relies on the unique index idx_books_by_author.
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "REFRESH MATERIALIZED VIEW CONCURRENTLY books_by_author", nativeQuery = true)
+    void refreshMaterializedViewConcurrently();
+
     // For H2 test environment - no-op since regular views auto-update
     default void refreshMaterializedView() {
         // This method will be overridden by service implementation
@@ -1,10 +1,24 @@
 package mk.finki.ukim.mk.library.repository;
 
 
+import jakarta.persistence.QueryHint;
+import mk.finki.ukim.mk.library.cache.ReferenceDataCacheMetrics;
 import mk.finki.ukim.mk.library.model.domain.Country;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_CACHE_REGION;
+
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Long> {
+
+    // served from the query cache until the country table changes
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = ReferenceDataCacheMetrics.QUERY_REGION)})
+    @Override
+    List<Country> findAll();
 }
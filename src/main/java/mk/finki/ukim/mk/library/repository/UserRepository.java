@@ -1,10 +1,14 @@
 package mk.finki.ukim.mk.library.repository;
 
+import mk.finki.ukim.mk.library.model.Dto.UserTokenVersionDto;
 import mk.finki.ukim.mk.library.model.domain.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,5 +26,11 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Override
     List<User> findAll();
 
+    @Query("select u.tokenVersion from User u where u.username = :username")
+    Optional<Long> findTokenVersionByUsername(@Param("username") String username);
+
+    @Query("select new mk.finki.ukim.mk.library.model.Dto.UserTokenVersionDto(u.username, u.tokenVersion) " +
+            "from User u where u.username in :usernames")
+    List<UserTokenVersionDto> findTokenVersionsByUsernameIn(@Param("usernames") Collection<String> usernames);
 
 }
\ No newline at end of file
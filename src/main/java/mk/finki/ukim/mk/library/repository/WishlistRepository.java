@@ -3,12 +3,49 @@ package mk.finki.ukim.mk.library.repository;
 import mk.finki.ukim.mk.library.model.domain.User;
 import mk.finki.ukim.mk.library.model.domain.Wishlist;
 import mk.finki.ukim.mk.library.model.enumerations.WishlistStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
+
+    // Wishlist reads always render every book with its author and country,
+    // so fetch the whole tree in one joined select
+    @EntityGraph(attributePaths = {"user", "books", "books.author", "books.author.country"})
     Optional<Wishlist> findByUserAndStatus(User user, WishlistStatus status);
+
+    @Query("SELECT w.id FROM Wishlist w WHERE w.user = :user AND w.status = :status")
+    Optional<Long> findIdByUserAndStatus(@Param("user") User user, @Param("status") WishlistStatus status);
+
+    // Membership changes touch exactly one join row instead of letting Hibernate delete and
+    // reinsert the whole collection. A book already on the wishlist, including one added by a
+    // concurrent request, hits uk_wishlist_books and makes the insert a no-op.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "INSERT INTO wishlist_books (wishlist_id, books_id) VALUES (:wishlistId, :bookId) " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int addBook(@Param("wishlistId") Long wishlistId, @Param("bookId") Long bookId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "DELETE FROM wishlist_books WHERE wishlist_id = :wishlistId AND books_id = :bookId",
+            nativeQuery = true)
+    int removeBook(@Param("wishlistId") Long wishlistId, @Param("bookId") Long bookId);
+
+    // Creates the user's active wishlist unless one already exists. A concurrent first add can
+    // pass the probe too; the partial unique index uk_wishlist_user_created then turns its insert
+    // into a no-op instead of an error that would abort the transaction
+    @Modifying
+    @Query(value = "INSERT INTO wishlist (user_username, date_created, status) " +
+            "SELECT :username, :dateCreated, 'CREATED' WHERE NOT EXISTS " +
+            "(SELECT 1 FROM wishlist WHERE user_username = :username AND status = 'CREATED') " +
+            "ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int insertActiveIfAbsent(@Param("username") String username, @Param("dateCreated") LocalDateTime dateCreated);
 }
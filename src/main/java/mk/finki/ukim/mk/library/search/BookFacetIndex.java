@@ -0,0 +1,356 @@
+package mk.finki.ukim.mk.library.search;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.datasource.PrimaryReads;
+import mk.finki.ukim.mk.library.model.Dto.BookFacetsDto;
+import mk.finki.ukim.mk.library.model.Dto.FacetCountDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import mk.finki.ukim.mk.library.repository.CountryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory facet index for browsing books by category, author, country and availability
+ * without a GROUP BY per request. Every book gets a slot, and each facet value keeps a
+ * {@link BitSet} of the slots it covers, so a combination of filters is a handful of ANDs.
+ * <p>
+ * Counts are disjunctive: the counts of one facet are taken with every filter applied except that
+ * facet's own, so they tell how many books picking another value would give. Category and
+ * availability counts intersect bitsets; author and country counts walk the matching slots once
+ * instead, as there can be thousands of authors.
+ * <p>
+ * Like {@link BookSearchIndex}, the index is built when the application is ready and then
+ * follows the catalog as a {@link CatalogIndex}; for borrows only the copies of the borrowed
+ * books are read back.
+ */
+@Component
+public class BookFacetIndex extends CatalogIndex {
+
+    private static final BitSet NONE = new BitSet();
+
+    private enum Facet { CATEGORY, AUTHOR, COUNTRY, AVAILABLE }
+
+    /**
+     * Ids of the first matching books after the requested one in id order, how many books match in
+     * total and the facet counts.
+     */
+    public record Result(List<Long> ids, long total, BookFacetsDto facets) {
+    }
+
+    private final AuthorRepository authorRepository;
+    private final CountryRepository countryRepository;
+
+    // guarded by lock; slots of removed books are reused so the bitsets stay as short as the catalog
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+    private long[] bookOf = new long[0];
+    private Category[] categoryOf = new Category[0];
+    // 0 when the book has no author, or the author no country
+    private long[] authorOf = new long[0];
+    private long[] countryOf = new long[0];
+
+    private final BitSet live = new BitSet();
+    private final BitSet available = new BitSet();
+    private final Map<Category, BitSet> byCategory = new EnumMap<>(Category.class);
+    private final Map<Long, BitSet> byAuthor = new HashMap<>();
+    private final Map<Long, BitSet> byCountry = new HashMap<>();
+    private final Map<Long, Long> authorCountry = new HashMap<>();
+    private final Map<Long, String> authorNames = new HashMap<>();
+    private final Map<Long, String> countryNames = new HashMap<>();
+
+    private final Timer queryTimer;
+
+    public BookFacetIndex(BookRepository bookRepository,
+                          AuthorRepository authorRepository,
+                          CountryRepository countryRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${library.facets.enabled:true}") boolean enabled) {
+        super(bookRepository, enabled);
+        this.authorRepository = authorRepository;
+        this.countryRepository = countryRepository;
+        this.queryTimer = Timer.builder("library.facets.query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Runnable load() {
+        // from the primary, like the cache loaders: a lagging replica would miss committed edits
+        List<Country> allCountries = PrimaryReads.call(countryRepository::findAll);
+        List<Author> allAuthors = PrimaryReads.call(authorRepository::findAll);
+        List<Book> allBooks = PrimaryReads.call(bookRepository::findAll);
+        return () -> {
+            slots.clear();
+            freeSlots.clear();
+            slotCount = 0;
+            live.clear();
+            available.clear();
+            byCategory.clear();
+            byAuthor.clear();
+            byCountry.clear();
+            authorCountry.clear();
+            authorNames.clear();
+            countryNames.clear();
+            allCountries.forEach(this::putCountry);
+            allAuthors.forEach(this::putAuthor);
+            allBooks.forEach(this::putBook);
+        };
+    }
+
+    /**
+     * Up to {@code limit} books matching every given filter, in id order after {@code afterId},
+     * with the total and the facet counts for the same filters. Null filters match everything.
+     */
+    public Result browse(Category category, Long authorId, Long countryId, boolean availableOnly,
+                         Long afterId, int limit) {
+        return queryTimer.record(() -> find(category, authorId, countryId, availableOnly, afterId, limit));
+    }
+
+    private Result find(Category category, Long authorId, Long countryId, boolean availableOnly,
+                        Long afterId, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = select(category, authorId, countryId, availableOnly, null);
+            BookFacetsDto facets = new BookFacetsDto(
+                    categoryCounts(select(category, authorId, countryId, availableOnly, Facet.CATEGORY)),
+                    counts(select(category, authorId, countryId, availableOnly, Facet.AUTHOR), authorOf, authorNames),
+                    counts(select(category, authorId, countryId, availableOnly, Facet.COUNTRY), countryOf, countryNames),
+                    intersection(select(category, authorId, countryId, availableOnly, Facet.AVAILABLE), available));
+            return new Result(page(matching, afterId != null ? afterId : 0L, limit), matching.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the query helpers below are called under the read lock
+
+    private BitSet select(Category category, Long authorId, Long countryId, boolean availableOnly, Facet ignored) {
+        BitSet result = (BitSet) live.clone();
+        if (category != null && ignored != Facet.CATEGORY) {
+            result.and(byCategory.getOrDefault(category, NONE));
+        }
+        if (authorId != null && ignored != Facet.AUTHOR) {
+            result.and(byAuthor.getOrDefault(authorId, NONE));
+        }
+        if (countryId != null && ignored != Facet.COUNTRY) {
+            result.and(byCountry.getOrDefault(countryId, NONE));
+        }
+        if (availableOnly && ignored != Facet.AVAILABLE) {
+            result.and(available);
+        }
+        return result;
+    }
+
+    private List<FacetCountDto> categoryCounts(BitSet base) {
+        List<FacetCountDto> counts = new ArrayList<>();
+        for (Map.Entry<Category, BitSet> entry : byCategory.entrySet()) {
+            long count = intersection(base, entry.getValue());
+            if (count > 0) {
+                counts.add(new FacetCountDto(entry.getKey().name(), entry.getKey().name(), count));
+            }
+        }
+        return sorted(counts);
+    }
+
+    private List<FacetCountDto> counts(BitSet base, long[] valueOf, Map<Long, String> labels) {
+        Map<Long, Long> counts = new HashMap<>();
+        for (int slot = base.nextSetBit(0); slot >= 0; slot = base.nextSetBit(slot + 1)) {
+            if (valueOf[slot] != 0) {
+                counts.merge(valueOf[slot], 1L, Long::sum);
+            }
+        }
+        List<FacetCountDto> result = new ArrayList<>(counts.size());
+        counts.forEach((id, count) -> result.add(new FacetCountDto(id.toString(), labels.get(id), count)));
+        return sorted(result);
+    }
+
+    private static long intersection(BitSet base, BitSet values) {
+        BitSet both = (BitSet) base.clone();
+        both.and(values);
+        return both.cardinality();
+    }
+
+    private static List<FacetCountDto> sorted(List<FacetCountDto> counts) {
+        counts.sort(Comparator.comparingLong(FacetCountDto::count).reversed()
+                .thenComparing(FacetCountDto::label, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(FacetCountDto::value));
+        return counts;
+    }
+
+    // slots are not in id order, so keep the lowest ids past the cursor in a bounded max-heap
+    private List<Long> page(BitSet matching, long afterId, int limit) {
+        PriorityQueue<Long> lowest = new PriorityQueue<>(limit + 1, Comparator.reverseOrder());
+        for (int slot = matching.nextSetBit(0); slot >= 0; slot = matching.nextSetBit(slot + 1)) {
+            long id = bookOf[slot];
+            if (id > afterId && (lowest.size() < limit || id < lowest.peek())) {
+                lowest.add(id);
+                if (lowest.size() > limit) {
+                    lowest.poll();
+                }
+            }
+        }
+        List<Long> ids = new ArrayList<>(lowest);
+        Collections.sort(ids);
+        return ids;
+    }
+
+    // untyped id events are borrows, which can only change availability
+    @Override
+    protected void copiesChanged(Collection<Long> bookIds) {
+        Set<Long> withCopies = new HashSet<>(bookRepository.findIdsWithCopies(bookIds));
+        write(() -> bookIds.forEach(id -> {
+            Integer slot = slots.get(id);
+            if (slot != null) {
+                available.set(slot, withCopies.contains(id));
+            }
+        }));
+    }
+
+    // the put/remove methods below are called under the write lock
+
+    @Override
+    protected void putBook(Book book) {
+        Integer slot = slots.get(book.getId());
+        if (slot != null) {
+            clearSlot(slot);
+        } else {
+            slot = allocate(book.getId());
+        }
+        long authorId = book.getAuthor() != null && book.getAuthor().getId() != null ? book.getAuthor().getId() : 0L;
+        long countryId = authorCountry.getOrDefault(authorId, 0L);
+        categoryOf[slot] = book.getCategory();
+        authorOf[slot] = authorId;
+        countryOf[slot] = countryId;
+        if (book.getCategory() != null) {
+            byCategory.computeIfAbsent(book.getCategory(), key -> new BitSet()).set(slot);
+        }
+        if (authorId != 0) {
+            byAuthor.computeIfAbsent(authorId, key -> new BitSet()).set(slot);
+        }
+        if (countryId != 0) {
+            byCountry.computeIfAbsent(countryId, key -> new BitSet()).set(slot);
+        }
+        available.set(slot, book.getAvailableCopies() != null && book.getAvailableCopies() > 0);
+        live.set(slot);
+    }
+
+    @Override
+    protected void removeBook(Long id) {
+        Integer slot = slots.remove(id);
+        if (slot != null) {
+            clearSlot(slot);
+            bookOf[slot] = 0;
+            freeSlots.push(slot);
+        }
+    }
+
+    private int allocate(Long id) {
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = slotCount++;
+            if (slot == bookOf.length) {
+                int capacity = Math.max(1024, bookOf.length * 2);
+                bookOf = Arrays.copyOf(bookOf, capacity);
+                categoryOf = Arrays.copyOf(categoryOf, capacity);
+                authorOf = Arrays.copyOf(authorOf, capacity);
+                countryOf = Arrays.copyOf(countryOf, capacity);
+            }
+        }
+        bookOf[slot] = id;
+        slots.put(id, slot);
+        return slot;
+    }
+
+    private void clearSlot(int slot) {
+        if (categoryOf[slot] != null) {
+            unset(byCategory, categoryOf[slot], slot);
+        }
+        if (authorOf[slot] != 0) {
+            unset(byAuthor, authorOf[slot], slot);
+        }
+        if (countryOf[slot] != 0) {
+            unset(byCountry, countryOf[slot], slot);
+        }
+        categoryOf[slot] = null;
+        authorOf[slot] = 0;
+        countryOf[slot] = 0;
+        available.clear(slot);
+        live.clear(slot);
+    }
+
+    @Override
+    protected void putAuthor(Author author) {
+        long id = author.getId();
+        authorNames.put(id, (Objects.toString(author.getName(), "") + " " + Objects.toString(author.getSurname(), "")).trim());
+        long countryId = 0L;
+        if (author.getCountry() != null && author.getCountry().getId() != null) {
+            putCountry(author.getCountry());
+            countryId = author.getCountry().getId();
+        }
+        Long old = countryId != 0 ? authorCountry.put(id, countryId) : authorCountry.remove(id);
+        long oldCountryId = old != null ? old : 0L;
+        if (oldCountryId == countryId) {
+            return;
+        }
+        // the author moved country: move their books with them
+        BitSet books = byAuthor.get(id);
+        if (books == null) {
+            return;
+        }
+        for (int slot = books.nextSetBit(0); slot >= 0; slot = books.nextSetBit(slot + 1)) {
+            if (oldCountryId != 0) {
+                unset(byCountry, oldCountryId, slot);
+            }
+            if (countryId != 0) {
+                byCountry.computeIfAbsent(countryId, key -> new BitSet()).set(slot);
+            }
+            countryOf[slot] = countryId;
+        }
+    }
+
+    @Override
+    protected void removeAuthor(Long id) {
+        authorNames.remove(id);
+        authorCountry.remove(id);
+    }
+
+    @Override
+    protected void putCountry(Country country) {
+        countryNames.put(country.getId(), country.getName());
+    }
+
+    @Override
+    protected void removeCountry(Long id) {
+        countryNames.remove(id);
+    }
+
+    private static <K> void unset(Map<K, BitSet> bitsets, K key, int slot) {
+        BitSet bits = bitsets.get(key);
+        if (bits != null) {
+            bits.clear(slot);
+            if (bits.isEmpty()) {
+                bitsets.remove(key);
+            }
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package mk.finki.ukim.mk.library.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.datasource.PrimaryReads;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchHitDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * In-memory inverted index over book titles and author names, so searching never touches the
+ * database. Terms are folded by {@link SearchText}; each query term matches a title or author
+ * term exactly or as a prefix, every term has to match, and books are ranked by how well they
+ * did: a title match beats an author match and an exact term beats a prefix.
+ * <p>
+ * The index is built once the application is ready and then follows the catalog as a
+ * {@link CatalogIndex}; countries and stock changes do not affect what is searchable.
+ */
+@Component
+public class BookSearchIndex extends CatalogIndex {
+
+    static final double TITLE_EXACT = 3.0;
+    static final double TITLE_PREFIX = 2.0;
+    static final double AUTHOR_EXACT = 1.5;
+    static final double AUTHOR_PREFIX = 1.0;
+
+    private record IndexedBook(Long id, String name, String sortKey, Long authorId, List<String> terms) {
+    }
+
+    private record IndexedAuthor(Long id, String displayName, List<String> terms) {
+    }
+
+    private final AuthorRepository authorRepository;
+
+    // guarded by lock
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final Map<Long, IndexedAuthor> authors = new HashMap<>();
+    private final Map<Long, Set<Long>> booksByAuthor = new HashMap<>();
+    private final NavigableMap<String, Set<Long>> titleTerms = new TreeMap<>();
+    private final NavigableMap<String, Set<Long>> authorTerms = new TreeMap<>();
+
+    private final Timer queryTimer;
+
+    public BookSearchIndex(BookRepository bookRepository,
+                           AuthorRepository authorRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${library.search.enabled:true}") boolean enabled) {
+        super(bookRepository, enabled);
+        this.authorRepository = authorRepository;
+        this.queryTimer = Timer.builder("library.search.query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("library.search.books", this, BookSearchIndex::size).register(meterRegistry);
+    }
+
+    @Override
+    protected Runnable load() {
+        // from the primary, like the cache loaders: a lagging replica would miss committed edits
+        List<Author> allAuthors = PrimaryReads.call(authorRepository::findAll);
+        List<Book> allBooks = PrimaryReads.call(bookRepository::findAll);
+        return () -> {
+            books.clear();
+            authors.clear();
+            booksByAuthor.clear();
+            titleTerms.clear();
+            authorTerms.clear();
+            allAuthors.forEach(this::putAuthor);
+            allBooks.forEach(this::putBook);
+        };
+    }
+
+    /**
+     * One page of books matching every term of the query, best first. Page numbers start at 0.
+     */
+    public BookSearchPageDto search(String query, int page, int size) {
+        return queryTimer.record(() -> find(query, page, size));
+    }
+
+    private BookSearchPageDto find(String query, int page, int size) {
+        List<String> terms = SearchText.terms(query);
+        if (terms.isEmpty()) {
+            return new BookSearchPageDto(List.of(), 0, page, size);
+        }
+        lock.readLock().lock();
+        try {
+            Map<Long, Double> scores = null;
+            for (String term : terms) {
+                Map<Long, Double> matches = match(term);
+                if (scores == null) {
+                    scores = matches;
+                } else {
+                    // AND: keep only books that matched every term so far
+                    Map<Long, Double> previous = scores;
+                    scores = new HashMap<>();
+                    for (Map.Entry<Long, Double> match : matches.entrySet()) {
+                        Double score = previous.get(match.getKey());
+                        if (score != null) {
+                            scores.put(match.getKey(), score + match.getValue());
+                        }
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return new BookSearchPageDto(List.of(), 0, page, size);
+                }
+            }
+            Map<Long, Double> ranked = scores;
+            List<Long> order = new ArrayList<>(ranked.keySet());
+            order.sort(Comparator.<Long>comparingDouble(ranked::get).reversed()
+                    .thenComparing(id -> books.get(id).sortKey())
+                    .thenComparing(Comparator.naturalOrder()));
+            int from = (int) Math.min((long) page * size, order.size());
+            int to = Math.min(from + size, order.size());
+            List<BookSearchHitDto> content = new ArrayList<>(to - from);
+            for (Long id : order.subList(from, to)) {
+                IndexedBook book = books.get(id);
+                IndexedAuthor author = book.authorId() != null ? authors.get(book.authorId()) : null;
+                content.add(new BookSearchHitDto(book.id(), book.name(), book.authorId(),
+                        author != null ? author.displayName() : null, ranked.get(id)));
+            }
+            return new BookSearchPageDto(content, order.size(), page, size);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return books.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // best score per book for one query term; called under the read lock
+    private Map<Long, Double> match(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<String, Set<Long>> entry : prefixed(titleTerms, term).entrySet()) {
+            double score = entry.getKey().equals(term) ? TITLE_EXACT : TITLE_PREFIX;
+            entry.getValue().forEach(id -> scores.merge(id, score, Math::max));
+        }
+        for (Map.Entry<String, Set<Long>> entry : prefixed(authorTerms, term).entrySet()) {
+            double score = entry.getKey().equals(term) ? AUTHOR_EXACT : AUTHOR_PREFIX;
+            for (Long authorId : entry.getValue()) {
+                booksByAuthor.getOrDefault(authorId, Set.of()).forEach(id -> scores.merge(id, score, Math::max));
+            }
+        }
+        return scores;
+    }
+
+    private static SortedMap<String, Set<Long>> prefixed(NavigableMap<String, Set<Long>> terms, String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    // the put/remove methods below are called under the write lock
+
+    @Override
+    protected void putBook(Book book) {
+        removeBook(book.getId());
+        Long authorId = book.getAuthor() != null ? book.getAuthor().getId() : null;
+        IndexedBook indexed = new IndexedBook(book.getId(), book.getName(), SearchText.fold(book.getName()),
+                authorId, SearchText.terms(book.getName()));
+        books.put(indexed.id(), indexed);
+        indexed.terms().forEach(term -> titleTerms.computeIfAbsent(term, key -> new HashSet<>()).add(indexed.id()));
+        if (authorId != null) {
+            booksByAuthor.computeIfAbsent(authorId, key -> new HashSet<>()).add(indexed.id());
+        }
+    }
+
+    @Override
+    protected void removeBook(Long id) {
+        IndexedBook old = books.remove(id);
+        if (old == null) {
+            return;
+        }
+        old.terms().forEach(term -> unpost(titleTerms, term, id));
+        if (old.authorId() != null) {
+            Set<Long> authored = booksByAuthor.get(old.authorId());
+            if (authored != null) {
+                authored.remove(id);
+                if (authored.isEmpty()) {
+                    booksByAuthor.remove(old.authorId());
+                }
+            }
+        }
+    }
+
+    @Override
+    protected void putAuthor(Author author) {
+        removeAuthor(author.getId());
+        String displayName = (Objects.toString(author.getName(), "") + " " + Objects.toString(author.getSurname(), "")).trim();
+        IndexedAuthor indexed = new IndexedAuthor(author.getId(), displayName, SearchText.terms(displayName));
+        authors.put(indexed.id(), indexed);
+        indexed.terms().forEach(term -> authorTerms.computeIfAbsent(term, key -> new HashSet<>()).add(indexed.id()));
+    }
+
+    @Override
+    protected void removeAuthor(Long id) {
+        IndexedAuthor old = authors.remove(id);
+        if (old != null) {
+            old.terms().forEach(term -> unpost(authorTerms, term, id));
+        }
+    }
+
+    private static void unpost(Map<String, Set<Long>> postings, String term, Long id) {
+        Set<Long> ids = postings.get(term);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+}
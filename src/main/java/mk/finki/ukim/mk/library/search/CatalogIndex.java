@@ -0,0 +1,177 @@
+package mk.finki.ukim.mk.library.search;
+
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * An in-memory index that follows the catalog through {@link CatalogChangedEvent}s, applied after
+ * their transaction commits so a rolled-back write never shows. Entities carried by an event are
+ * indexed from the event itself; id events are removals, the bulk import (whose books are read
+ * back) and untyped borrows (see {@link #copiesChanged}).
+ * <p>
+ * Subclasses keep their state behind {@link #lock}; the put and remove hooks are called with the
+ * write lock held. While {@link #rebuild()} reads the catalog, events are held back and applied
+ * to the rebuilt state once it is in place, so a change that commits during the load is not lost.
+ */
+public abstract class CatalogIndex {
+
+    protected final ReadWriteLock lock = new ReentrantReadWriteLock();
+    protected final BookRepository bookRepository;
+    protected final boolean enabled;
+    // events held back while a rebuild is loading; guarded by lock, set only while it is held
+    private volatile List<CatalogChangedEvent> heldBack;
+
+    protected CatalogIndex(BookRepository bookRepository, boolean enabled) {
+        this.bookRepository = bookRepository;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        write(() -> heldBack = new ArrayList<>());
+        Runnable replace = null;
+        try {
+            replace = load();
+        } finally {
+            Runnable loaded = replace;
+            write(() -> {
+                if (loaded != null) {
+                    loaded.run();
+                }
+                // replayed in arrival order: one the load already saw only repeats a change, and
+                // the last event for an entity leaves its latest state
+                List<CatalogChangedEvent> held = heldBack;
+                heldBack = null;
+                held.forEach(this::dispatch);
+            });
+        }
+    }
+
+    /**
+     * Reads the whole catalog and returns the change, run under the write lock, that replaces the
+     * index with it.
+     */
+    protected abstract Runnable load();
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(event);
+                }
+            });
+        } else {
+            apply(event);
+        }
+    }
+
+    void apply(CatalogChangedEvent event) {
+        if (!holdBack(event)) {
+            dispatch(event);
+        }
+    }
+
+    // an event that commits before a rebuild starts its load is part of what the load reads
+    private boolean holdBack(CatalogChangedEvent event) {
+        if (heldBack == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (heldBack == null) {
+                return false;
+            }
+            heldBack.add(event);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void dispatch(CatalogChangedEvent event) {
+        Object source = event.getSource();
+        Class<?> type = event.getEntityType();
+        if (source instanceof Book book) {
+            write(() -> putBookAndAuthor(book));
+        } else if (source instanceof Author author) {
+            write(() -> putAuthor(author));
+        } else if (source instanceof Country country) {
+            write(() -> putCountry(country));
+        } else if (type == Book.class && event.isRemoved()) {
+            write(() -> ids(source).forEach(this::removeBook));
+        } else if (type == Author.class && event.isRemoved()) {
+            write(() -> ids(source).forEach(this::removeAuthor));
+        } else if (type == Country.class && event.isRemoved()) {
+            write(() -> ids(source).forEach(this::removeCountry));
+        } else if (type == Book.class) {
+            List<Book> saved = bookRepository.findAllByIdIn(ids(source));
+            write(() -> saved.forEach(this::putBookAndAuthor));
+        } else if (type == null && (source instanceof Long || source instanceof Collection<?>)) {
+            copiesChanged(ids(source));
+        }
+    }
+
+    protected abstract void putBook(Book book);
+
+    protected abstract void removeBook(Long id);
+
+    protected abstract void putAuthor(Author author);
+
+    protected abstract void removeAuthor(Long id);
+
+    protected void putCountry(Country country) {
+    }
+
+    protected void removeCountry(Long id) {
+    }
+
+    /**
+     * Copies of these books were borrowed; nothing else about them changed. Called without the
+     * lock (except when replayed after a rebuild), so an index that tracks stock can read the
+     * counts back before taking it.
+     */
+    protected void copiesChanged(Collection<Long> bookIds) {
+    }
+
+    protected void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putBookAndAuthor(Book book) {
+        if (book.getAuthor() != null) {
+            putAuthor(book.getAuthor());
+        }
+        putBook(book);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Long> ids(Object source) {
+        return source instanceof Collection<?> collection ? (Collection<Long>) collection : List.of((Long) source);
+    }
+}
@@ -0,0 +1,89 @@
+package mk.finki.ukim.mk.library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Turns titles, names and queries into comparable search terms. Text is lower-cased, Cyrillic is
+ * transliterated to Latin and diacritics are dropped, so "Конески", "Koneski" and "KONESKI" all
+ * give {@code koneski}, and "Čašule" matches "Чашуле". Each Cyrillic letter maps straight to its
+ * Macedonian Latin spelling with the diacritics already dropped (ч → c, ш → s, ќ → k, ...), the
+ * same form the Latin spelling folds to, so both scripts meet.
+ */
+public final class SearchText {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final Map<Character, String> CYRILLIC = Map.ofEntries(
+            Map.entry('а', "a"), Map.entry('б', "b"), Map.entry('в', "v"), Map.entry('г', "g"),
+            Map.entry('д', "d"), Map.entry('ѓ', "g"), Map.entry('ђ', "dj"), Map.entry('е', "e"),
+            Map.entry('ё', "e"), Map.entry('ж', "z"), Map.entry('з', "z"), Map.entry('ѕ', "dz"),
+            Map.entry('и', "i"), Map.entry('й', "j"), Map.entry('ј', "j"), Map.entry('к', "k"),
+            Map.entry('л', "l"), Map.entry('љ', "lj"), Map.entry('м', "m"), Map.entry('н', "n"),
+            Map.entry('њ', "nj"), Map.entry('о', "o"), Map.entry('п', "p"), Map.entry('р', "r"),
+            Map.entry('с', "s"), Map.entry('т', "t"), Map.entry('ќ', "k"), Map.entry('ћ', "c"),
+            Map.entry('у', "u"), Map.entry('ф', "f"), Map.entry('х', "h"), Map.entry('ц', "c"),
+            Map.entry('ч', "c"), Map.entry('џ', "dz"), Map.entry('ш', "s"), Map.entry('щ', "st"),
+            Map.entry('ъ', ""), Map.entry('ы', "y"), Map.entry('ь', ""), Map.entry('э', "e"),
+            Map.entry('ю', "ju"), Map.entry('я', "ja"), Map.entry('і', "i"), Map.entry('ї', "ji"),
+            Map.entry('є', "je"), Map.entry('ґ', "g"),
+            // Latin letters that do not decompose into a base letter and a mark
+            Map.entry('đ', "dj"), Map.entry('ł', "l"), Map.entry('ø', "o"), Map.entry('ß', "ss"),
+            Map.entry('æ', "ae"), Map.entry('œ', "oe"));
+
+    private SearchText() {
+    }
+
+    /**
+     * The folded form of the text, with everything that is not a letter or digit turned into
+     * a single space.
+     */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            String replacement = CYRILLIC.get(c);
+            folded.append(replacement != null ? replacement : String.valueOf(c));
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(folded, Normalizer.Form.NFD)).replaceAll("");
+        StringBuilder result = new StringBuilder(stripped.length());
+        boolean space = true;
+        for (int i = 0; i < stripped.length(); i++) {
+            char c = stripped.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                result.append(c);
+                space = false;
+            } else if (!space) {
+                result.append(' ');
+                space = true;
+            }
+        }
+        int end = result.length();
+        return end > 0 && result.charAt(end - 1) == ' ' ? result.substring(0, end - 1) : result.toString();
+    }
+
+    /**
+     * The distinct folded terms of the text, in order of first appearance.
+     */
+    public static List<String> terms(String text) {
+        String folded = fold(text);
+        List<String> terms = new ArrayList<>();
+        if (folded.isEmpty()) {
+            return terms;
+        }
+        for (String term : folded.split(" ")) {
+            if (!terms.contains(term)) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,151 @@
+package mk.finki.ukim.mk.library.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.exceptions.PasswordHashingBusyException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the delegate's (deliberately slow) hashing and verification on a small dedicated pool
+ * with a bounded queue, so a login or registration burst cannot occupy more CPU than the pool
+ * is sized for. Callers still wait for their own result, but when the pool and queue are full,
+ * or their hash is still queued after the wait limit, they fail fast with
+ * {@link PasswordHashingBusyException} instead of piling up.
+ * <p>
+ * Only the time in the queue is bounded. bcrypt does not check for interrupts, so a hash that
+ * has started runs to the end whether or not anyone waits for it; its caller waits too, rather
+ * than leaving an abandoned hash holding a worker.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final long DEFAULT_HASH_MILLIS = 100;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxWaitMs;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejections;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long maxWaitMs,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.threads = threads;
+        this.maxWaitMs = maxWaitMs;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("library.password.hash")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("library.password.hash")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejections = meterRegistry.counter("library.password.rejections");
+        Gauge.builder("library.password.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("library.password.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Times a single hash on the calling thread, bypassing the pool; used for the startup cost check.
+     */
+    public Duration measureCost() {
+        long start = System.nanoTime();
+        delegate.encode("cost-check");
+        return Duration.ofNanos(System.nanoTime() - start);
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            throw busy();
+        }
+
+        try {
+            try {
+                return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // fails once the hash has started, and then it is as good as done
+                if (future.cancel(false)) {
+                    executor.remove((Runnable) future);
+                    throw busy();
+                }
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private PasswordHashingBusyException busy() {
+        rejections.increment();
+        return new PasswordHashingBusyException(retryAfterSeconds());
+    }
+
+    /**
+     * Estimated time for the current backlog to drain, rounded up to whole seconds.
+     */
+    private long retryAfterSeconds() {
+        // logins and registrations share the queue, so average over both
+        long hashes = encodeTimer.count() + matchesTimer.count();
+        double meanMs = hashes > 0
+                ? (encodeTimer.totalTime(TimeUnit.MILLISECONDS) + matchesTimer.totalTime(TimeUnit.MILLISECONDS)) / hashes
+                : DEFAULT_HASH_MILLIS;
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        return Math.max(1, (long) Math.ceil(backlog * meanMs / threads / 1000));
+    }
+}
@@ -5,5 +5,14 @@ public class JwtConstants {
     public static final Long EXPIRATION_TIME = 864000000L;
     public static final String HEADER = "Authorization";
     public static final String TOKEN_PREFIX = "Bearer ";
+
+    // Claims that let the filter build the principal without loading the user
+    public static final String ROLES_CLAIM = "roles";
+    public static final String ENABLED_CLAIM = "enabled";
+    public static final String ACCOUNT_NON_EXPIRED_CLAIM = "accountNonExpired";
+    public static final String ACCOUNT_NON_LOCKED_CLAIM = "accountNonLocked";
+    public static final String CREDENTIALS_NON_EXPIRED_CLAIM = "credentialsNonExpired";
+    // The user's token version when the token was issued; claims are trusted only while it is current
+    public static final String TOKEN_VERSION_CLAIM = "ver";
 }
 
@@ -1,17 +1,18 @@
 package mk.finki.ukim.mk.library.security;
 
-import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
-import mk.finki.ukim.mk.library.model.domain.User;
-import mk.finki.ukim.mk.library.service.domain.UserService;
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,11 +24,15 @@ import java.io.IOException;
 public class JwtFilter extends OncePerRequestFilter {
 
     private final JwtHelper jwtHelper;
-    private final UserService userService;
+    private final UserPrincipalCache userPrincipalCache;
+    private final boolean stateless;
 
-    public JwtFilter(JwtHelper jwtHelper, UserService userService) {
+    public JwtFilter(JwtHelper jwtHelper,
+                     UserPrincipalCache userPrincipalCache,
+                     @Value("${library.jwt.stateless:true}") boolean stateless) {
         this.jwtHelper = jwtHelper;
-        this.userService = userService;
+        this.userPrincipalCache = userPrincipalCache;
+        this.stateless = stateless;
     }
 
     @Override
@@ -45,19 +50,21 @@ public class JwtFilter extends OncePerRequestFilter {
         String token = headerValue.substring(JwtConstants.TOKEN_PREFIX.length());
 
         try {
-            String username = jwtHelper.extractUsername(token);
+            // Verify the token once and read everything from the resulting claims
+            Claims claims = jwtHelper.parseClaims(token);
+            String username = claims.getSubject();
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             if (username == null || authentication != null) {
                 filterChain.doFilter(request, response);
                 return;
             }
 
-            User user = userService.findByUsername(username);
-            if (jwtHelper.isValid(token, user)) {
+            UserDetails principal = resolvePrincipal(claims, username);
+            if (jwtHelper.isValid(claims, principal) && isActive(principal)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        user,
+                        principal,
                         null,
-                        user.getAuthorities()
+                        principal.getAuthorities()
                 );
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authToken);
@@ -69,5 +76,23 @@ public class JwtFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
-}
+    /**
+     * In stateless mode the principal comes straight from the claims, unless the token
+     * predates those claims or the user changed since it was issued; then the user is loaded.
+     */
+    private UserDetails resolvePrincipal(Claims claims, String username) {
+        Number tokenVersion = claims.get(JwtConstants.TOKEN_VERSION_CLAIM, Number.class);
+        if (stateless && tokenVersion != null && !userPrincipalCache.isStale(username, tokenVersion.longValue())) {
+            JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+            if (principal != null) {
+                return principal;
+            }
+        }
+        return userPrincipalCache.get(username);
+    }
 
+    private boolean isActive(UserDetails principal) {
+        return principal.isEnabled() && principal.isAccountNonLocked() && principal.isAccountNonExpired();
+    }
+
+}
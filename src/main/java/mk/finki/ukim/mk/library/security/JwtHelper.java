@@ -3,7 +3,9 @@ package mk.finki.ukim.mk.library.security;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import mk.finki.ukim.mk.library.model.domain.User;
 import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -18,10 +20,19 @@ import java.util.function.Function;
 @Profile("prod")
 public class JwtHelper {
 
+    // The key and parser are immutable and thread-safe, so build them once instead of per token
+    private final Key signingKey;
+    private final JwtParser parser;
+
+    public JwtHelper() {
+        this.signingKey = Keys.hmacShaKeyFor(hexStringToByteArray(JwtConstants.SECRET_KEY));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+    }
+
     private Key getSignIn() {
-        // Convert hex string to bytes
-        byte[] keyBytes = hexStringToByteArray(JwtConstants.SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signingKey;
     }
 
     private byte[] hexStringToByteArray(String hex) {
@@ -35,14 +46,19 @@ public class JwtHelper {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-                .parserBuilder()
-                .setSigningKey(getSignIn())
-                .build()
+        return parser
                 .parseClaimsJws(token)
                 .getBody();
     }
 
+    /**
+     * Verifies the token's signature and expiration once and returns its claims,
+     * so callers can read everything they need without parsing the token again.
+     */
+    public Claims parseClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     private <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         Claims allClaims = extractAllClaims(token);
         return claimsResolver.apply(allClaims);
@@ -73,22 +89,31 @@ public class JwtHelper {
 
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> extraClaims = new HashMap<>();
-        extraClaims.put("roles", userDetails.getAuthorities());
+        extraClaims.put(JwtConstants.ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        extraClaims.put(JwtConstants.ENABLED_CLAIM, userDetails.isEnabled());
+        extraClaims.put(JwtConstants.ACCOUNT_NON_EXPIRED_CLAIM, userDetails.isAccountNonExpired());
+        extraClaims.put(JwtConstants.ACCOUNT_NON_LOCKED_CLAIM, userDetails.isAccountNonLocked());
+        extraClaims.put(JwtConstants.CREDENTIALS_NON_EXPIRED_CLAIM, userDetails.isCredentialsNonExpired());
+        if (userDetails instanceof User user) {
+            extraClaims.put(JwtConstants.TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        }
         return buildToken(extraClaims, userDetails.getUsername(), JwtConstants.EXPIRATION_TIME);
     }
 
-    private boolean isExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
     public boolean isValid(String token, UserDetails userDetails) {
         try {
-            String username = extractUsername(token);
-            return !isExpired(token) && username.equals(userDetails.getUsername());
+            return isValid(extractAllClaims(token), userDetails);
         } catch (JwtException e) {
             return false;
         }
     }
 
+    public boolean isValid(Claims claims, UserDetails userDetails) {
+        return !claims.getExpiration().before(new Date())
+                && claims.getSubject().equals(userDetails.getUsername());
+    }
+
 }
 
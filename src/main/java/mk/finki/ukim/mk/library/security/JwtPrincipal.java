@@ -0,0 +1,96 @@
+package mk.finki.ukim.mk.library.security;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal built purely from a verified token's claims. Carries what authorization needs
+ * (username, roles, account flags) and nothing else; use {@code UserContext.getCurrentUser()}
+ * when the full user is required.
+ */
+public final class JwtPrincipal implements UserDetails {
+
+    private final String username;
+    private final List<GrantedAuthority> authorities;
+    private final boolean enabled;
+    private final boolean accountNonExpired;
+    private final boolean accountNonLocked;
+    private final boolean credentialsNonExpired;
+
+    public JwtPrincipal(String username, List<? extends GrantedAuthority> authorities, boolean enabled,
+                        boolean accountNonExpired, boolean accountNonLocked, boolean credentialsNonExpired) {
+        this.username = username;
+        this.authorities = List.copyOf(authorities);
+        this.enabled = enabled;
+        this.accountNonExpired = accountNonExpired;
+        this.accountNonLocked = accountNonLocked;
+        this.credentialsNonExpired = credentialsNonExpired;
+    }
+
+    /**
+     * Returns null when the token predates the role and account-flag claims,
+     * so the caller falls back to loading the user.
+     */
+    public static JwtPrincipal fromClaims(Claims claims) {
+        List<?> roles = claims.get(JwtConstants.ROLES_CLAIM, List.class);
+        Boolean enabled = claims.get(JwtConstants.ENABLED_CLAIM, Boolean.class);
+        Boolean accountNonExpired = claims.get(JwtConstants.ACCOUNT_NON_EXPIRED_CLAIM, Boolean.class);
+        Boolean accountNonLocked = claims.get(JwtConstants.ACCOUNT_NON_LOCKED_CLAIM, Boolean.class);
+        Boolean credentialsNonExpired = claims.get(JwtConstants.CREDENTIALS_NON_EXPIRED_CLAIM, Boolean.class);
+        if (claims.getSubject() == null || roles == null || enabled == null || accountNonExpired == null
+                || accountNonLocked == null || credentialsNonExpired == null) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = roles.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .toList();
+        return new JwtPrincipal(claims.getSubject(), authorities, enabled,
+                accountNonExpired, accountNonLocked, credentialsNonExpired);
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public String toString() {
+        return "JwtPrincipal{username='" + username + "', authorities=" + authorities + "}";
+    }
+}
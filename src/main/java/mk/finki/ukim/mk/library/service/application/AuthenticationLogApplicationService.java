@@ -1,12 +1,11 @@
 package mk.finki.ukim.mk.library.service.application;
 
-import mk.finki.ukim.mk.library.model.Dto.DisplayAuthLogDto;
+import mk.finki.ukim.mk.library.model.Dto.AuthLogPageDto;
 
 import java.time.LocalDateTime;
-import java.util.List;
 
 public interface AuthenticationLogApplicationService {
-    List<DisplayAuthLogDto> getAllAuthenticationLogs();
+    AuthLogPageDto findPage(String username, LocalDateTime from, LocalDateTime to, String cursor, Integer size);
 
     void createAuthenticationLog(String username, String token, LocalDateTime issuedAt, LocalDateTime expiresAt);
 
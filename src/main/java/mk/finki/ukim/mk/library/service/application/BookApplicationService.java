@@ -1,23 +1,37 @@
 package mk.finki.ukim.mk.library.service.application;
 
+import mk.finki.ukim.mk.library.model.Dto.BookBrowsePageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookHistoryPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
 import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 public interface BookApplicationService {
     List<DisplayBookDto> findAll();
+    BookPageDto findPage(Category category, Long authorId, Long countryId, BookSort sort, String cursor, Integer size);
     Optional<DisplayBookDto> findById(Long id);
     Optional<DisplayBookDto> save(CreateBookDto bookDto);
     Optional<DisplayBookDto> update(Long id, CreateBookDto bookDto);
     void deleteById(Long id);
     Optional<DisplayBookDto> markAsBorrowed(Long id);
     List<Category> findAllCategories();
+    BookSearchPageDto search(String query, Integer page, Integer size);
+    BookBrowsePageDto browse(Category category, Long authorId, Long countryId, Boolean availableOnly,
+                             String cursor, Integer size);
 
 
     //new method
-    List<DisplayBookHistoryDto> getBookHistory(Long bookId);
+    // empty when the book does not exist
+    Optional<BookHistoryPageDto> getBookHistory(Long bookId, LocalDateTime from, LocalDateTime to,
+                                                String cursor, Integer size);
+    Optional<DisplayBookHistoryDto> getBookStateAsOf(Long bookId, LocalDateTime asOf);
+    Optional<DisplayBookHistoryDto> getBookRevision(Long bookId, int revision);
 }
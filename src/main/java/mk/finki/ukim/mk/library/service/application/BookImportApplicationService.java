@@ -0,0 +1,10 @@
+package mk.finki.ukim.mk.library.service.application;
+
+import mk.finki.ukim.mk.library.model.Dto.BookImportResultDto;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+
+import java.io.InputStream;
+
+public interface BookImportApplicationService {
+    BookImportResultDto importBooks(InputStream body, CatalogFormat format);
+}
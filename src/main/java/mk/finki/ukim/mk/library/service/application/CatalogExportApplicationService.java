@@ -0,0 +1,13 @@
+package mk.finki.ukim.mk.library.service.application;
+
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Each export streams rows from the database into out as they are read and returns the row count
+public interface CatalogExportApplicationService {
+    long exportBooks(OutputStream out, CatalogFormat format) throws IOException;
+    long exportAuthors(OutputStream out, CatalogFormat format) throws IOException;
+    long exportBookHistory(OutputStream out, CatalogFormat format) throws IOException;
+}
@@ -1,7 +1,11 @@
 package mk.finki.ukim.mk.library.service.application.Impl;
 
+import mk.finki.ukim.mk.library.model.Dto.AuthLogCursor;
+import mk.finki.ukim.mk.library.model.Dto.AuthLogPageDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthLogDto;
 import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.security.TokenFingerprint;
 import mk.finki.ukim.mk.library.service.application.AuthenticationLogApplicationService;
 import mk.finki.ukim.mk.library.service.domain.AuthenticationLogService;
 import org.springframework.stereotype.Service;
@@ -13,6 +17,10 @@ import java.util.stream.Collectors;
 @Service
 public class AuthenticationLogApplicationServiceImpl implements AuthenticationLogApplicationService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_RANGE_DAYS = 7;
+
     private final AuthenticationLogService authenticationLogService;
 
     public AuthenticationLogApplicationServiceImpl(AuthenticationLogService authenticationLogService) {
@@ -20,16 +28,38 @@ public class AuthenticationLogApplicationServiceImpl implements AuthenticationLo
     }
 
     @Override
-    public List<DisplayAuthLogDto> getAllAuthenticationLogs() {
-        List<AuthenticationLog> logs = authenticationLogService.findAllAuthenticationLogs();
-        return logs.stream()
+    public AuthLogPageDto findPage(String username, LocalDateTime from, LocalDateTime to, String cursor, Integer size) {
+        LocalDateTime rangeEnd = to != null ? to : LocalDateTime.now();
+        LocalDateTime rangeStart = from != null ? from : rangeEnd.minusDays(DEFAULT_RANGE_DAYS);
+        if (!rangeStart.isBefore(rangeEnd)) {
+            throw new InvalidArgumentsException();
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        AuthLogCursor after = cursor != null && !cursor.isBlank() ? AuthLogCursor.decode(cursor) : null;
+
+        // fetch one extra row to learn whether another page exists without a COUNT query
+        List<DisplayAuthLogDto> rows = authenticationLogService.findPage(
+                        username != null && !username.isBlank() ? username : null,
+                        rangeStart, rangeEnd,
+                        after != null ? after.lastIssuedAt() : null,
+                        after != null ? after.lastId() : null,
+                        pageSize + 1
+                ).stream()
                 .map(DisplayAuthLogDto::from)
                 .collect(Collectors.toList());
+
+        if (rows.size() <= pageSize) {
+            return new AuthLogPageDto(rows, null, pageSize);
+        }
+        List<DisplayAuthLogDto> content = rows.subList(0, pageSize);
+        String nextCursor = AuthLogCursor.after(content.get(pageSize - 1)).encode();
+        return new AuthLogPageDto(List.copyOf(content), nextCursor, pageSize);
     }
 
     @Override
     public void createAuthenticationLog(String username, String token, LocalDateTime issuedAt, LocalDateTime expiresAt) {
-        AuthenticationLog authenticationLog = new AuthenticationLog(username, token, issuedAt, expiresAt);
+        AuthenticationLog authenticationLog =
+                new AuthenticationLog(username, TokenFingerprint.of(token), issuedAt, expiresAt);
         authenticationLogService.saveAuthenticationLog(authenticationLog);
     }
 }
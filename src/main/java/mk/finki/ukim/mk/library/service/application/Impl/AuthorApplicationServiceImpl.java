@@ -1,5 +1,6 @@
 package mk.finki.ukim.mk.library.service.application.Impl;
 
+import mk.finki.ukim.mk.library.cache.CatalogCache;
 import mk.finki.ukim.mk.library.model.Dto.CreateAuthorDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
@@ -10,30 +11,32 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class AuthorApplicationServiceImpl implements AuthorApplicationService {
 
     private final AuthorService authorService;
     private final CountryService countryService;
+    private final CatalogCache catalogCache;
 
-    public AuthorApplicationServiceImpl(AuthorService authorService, CountryService countryService) {
+    public AuthorApplicationServiceImpl(AuthorService authorService, CountryService countryService,
+                                        CatalogCache catalogCache) {
         this.authorService = authorService;
         this.countryService = countryService;
+        this.catalogCache = catalogCache;
     }
 
     @Override
     public List<DisplayAuthorDto> findAll() {
-        return authorService.findAll().stream()
+        return catalogCache.get("authors", () -> authorService.findAll().stream()
                 .map(DisplayAuthorDto::from)
-                .collect(Collectors.toList());
+                .toList());
     }
 
     @Override
     public Optional<DisplayAuthorDto> findById(Long id) {
-        return authorService.findById(id)
-                .map(DisplayAuthorDto::from);
+        return catalogCache.get("author:" + id, () -> authorService.findById(id)
+                .map(DisplayAuthorDto::from));
     }
 
     @Override
@@ -1,16 +1,29 @@
 package mk.finki.ukim.mk.library.service.application.Impl;
 
+import mk.finki.ukim.mk.library.cache.CatalogCache;
 import mk.finki.ukim.mk.library.config.UserContext;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.model.Dto.BookBrowsePageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookCursor;
+import mk.finki.ukim.mk.library.model.Dto.BookHistoryCursor;
+import mk.finki.ukim.mk.library.model.Dto.BookHistoryPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
 import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.Book;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
+import mk.finki.ukim.mk.library.search.BookFacetIndex;
+import mk.finki.ukim.mk.library.search.BookSearchIndex;
 import mk.finki.ukim.mk.library.service.application.BookApplicationService;
 import mk.finki.ukim.mk.library.service.domain.AuthorService;
 import mk.finki.ukim.mk.library.service.domain.BookService;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -18,27 +31,65 @@ import java.util.stream.Collectors;
 @Service
 public class BookApplicationServiceImpl implements BookApplicationService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final BookService bookService;
     private final AuthorService authorService;
     private final UserContext userContext;
+    private final CatalogCache catalogCache;
+    private final BookSearchIndex searchIndex;
+    private final BookFacetIndex facetIndex;
 
-    public BookApplicationServiceImpl(BookService bookService, AuthorService authorService, UserContext userContext) {
+    public BookApplicationServiceImpl(BookService bookService, AuthorService authorService, UserContext userContext,
+                                      CatalogCache catalogCache, BookSearchIndex searchIndex, BookFacetIndex facetIndex) {
         this.bookService = bookService;
         this.authorService = authorService;
         this.userContext = userContext;
+        this.catalogCache = catalogCache;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
     }
 
     @Override
     public List<DisplayBookDto> findAll() {
-        return bookService.findAll().stream()
+        return catalogCache.get("books", () -> bookService.findAll().stream()
+                .map(DisplayBookDto::from)
+                .toList());
+    }
+
+    @Override
+    public BookPageDto findPage(Category category, Long authorId, Long countryId, BookSort sort, String cursor, Integer size) {
+        BookSort order = sort != null ? sort : BookSort.ID;
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+
+        BookCursor after = cursor != null && !cursor.isBlank() ? BookCursor.decode(cursor) : null;
+        if (after != null && after.sort() != order) {
+            throw new InvalidArgumentsException();
+        }
+
+        // fetch one extra row to learn whether another page exists without a COUNT query
+        List<DisplayBookDto> rows = bookService.findPage(
+                        category, authorId, countryId, order,
+                        after != null ? after.lastName() : null,
+                        after != null ? after.lastId() : null,
+                        pageSize + 1
+                ).stream()
                 .map(DisplayBookDto::from)
                 .collect(Collectors.toList());
+
+        if (rows.size() <= pageSize) {
+            return new BookPageDto(rows, null, pageSize);
+        }
+        List<DisplayBookDto> content = rows.subList(0, pageSize);
+        String nextCursor = BookCursor.after(content.get(pageSize - 1), order).encode();
+        return new BookPageDto(List.copyOf(content), nextCursor, pageSize);
     }
 
     @Override
     public Optional<DisplayBookDto> findById(Long id) {
-        return bookService.findById(id)
-                .map(DisplayBookDto::from);
+        return catalogCache.get("book:" + id, () -> bookService.findById(id)
+                .map(DisplayBookDto::from));
     }
 
     @Override
@@ -48,8 +99,7 @@ public class BookApplicationServiceImpl implements BookApplicationService {
         return authorService.findById(bookDto.authorId())
                 .map(author -> {
                     Book book = bookDto.toBook(author);
-//                    return bookService.save(book, username);
-                    return bookService.save(book, "dj");
+                    return bookService.save(book, username);
                 })
                 .orElse(Optional.empty())
                 .map(DisplayBookDto::from);
@@ -57,18 +107,18 @@ public class BookApplicationServiceImpl implements BookApplicationService {
 
     @Override
     public Optional<DisplayBookDto> update(Long id, CreateBookDto bookDto) {
+        // an edit has to say which version of the book it is based on, or it could undo borrows
+        if (bookDto.version() == null) {
+            throw new InvalidArgumentsException();
+        }
         String username = userContext.getCurrentUsername();
 
-        return bookService.findById(id)
-                .flatMap(existingBook -> authorService.findById(bookDto.authorId())
-                        .map(author -> {
-                            Book book = bookDto.toBook(author);
-                            book.setId(id);
-//                            return bookService.update(book, username);
-                            return bookService.save(book, "dj");
-                        })
-                        .orElse(Optional.empty())
-                )
+        return authorService.findById(bookDto.authorId())
+                .flatMap(author -> {
+                    Book book = bookDto.toBook(author);
+                    book.setId(id);
+                    return bookService.update(book, username);
+                })
                 .map(DisplayBookDto::from);
     }
 
@@ -85,11 +135,79 @@ public class BookApplicationServiceImpl implements BookApplicationService {
 
     @Override
     public List<Category> findAllCategories() {
-        return bookService.findAllCategories();
+        return catalogCache.get("categories", () -> List.copyOf(bookService.findAllCategories()));
+    }
+
+    @Override
+    public BookSearchPageDto search(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank() || (page != null && page < 0)) {
+            throw new InvalidArgumentsException();
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        return searchIndex.search(query, page == null ? 0 : page, pageSize);
+    }
+
+    @Override
+    public BookBrowsePageDto browse(Category category, Long authorId, Long countryId, Boolean availableOnly,
+                                    String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        BookCursor after = cursor != null && !cursor.isBlank() ? BookCursor.decode(cursor) : null;
+        if (after != null && after.sort() != BookSort.ID) {
+            throw new InvalidArgumentsException();
+        }
+
+        // ids, total and counts come from the facet index; only the page itself is read from the database
+        BookFacetIndex.Result result = facetIndex.browse(category, authorId, countryId,
+                Boolean.TRUE.equals(availableOnly), after != null ? after.lastId() : null, pageSize + 1);
+        List<Long> ids = result.ids().size() > pageSize ? result.ids().subList(0, pageSize) : result.ids();
+        List<DisplayBookDto> content = ids.isEmpty() ? List.of() : bookService.findAllById(ids).stream()
+                .sorted(Comparator.comparing(Book::getId))
+                .map(DisplayBookDto::from)
+                .toList();
+        String nextCursor = result.ids().size() > pageSize
+                ? new BookCursor(BookSort.ID, ids.get(pageSize - 1), null).encode()
+                : null;
+        return new BookBrowsePageDto(content, nextCursor, pageSize, result.total(), result.facets());
+    }
+
+    @Override
+    public Optional<BookHistoryPageDto> getBookHistory(Long bookId, LocalDateTime from, LocalDateTime to,
+                                                       String cursor, Integer size) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidArgumentsException();
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        BookHistoryCursor after = cursor != null && !cursor.isBlank() ? BookHistoryCursor.decode(cursor) : null;
+
+        // fetch one extra row to learn whether another page exists without a COUNT query
+        List<DisplayBookHistoryDto> rows = bookService.findHistoryPage(
+                bookId, from, to,
+                after != null ? after.lastModifiedAt() : null,
+                after != null ? after.lastId() : null,
+                pageSize + 1
+        );
+
+        if (rows.isEmpty()) {
+            // only an empty page needs to tell a missing book apart from one without history here
+            return bookService.existsById(bookId)
+                    ? Optional.of(new BookHistoryPageDto(List.of(), null, pageSize))
+                    : Optional.empty();
+        }
+        if (rows.size() <= pageSize) {
+            return Optional.of(new BookHistoryPageDto(rows, null, pageSize));
+        }
+        List<DisplayBookHistoryDto> content = rows.subList(0, pageSize);
+        String nextCursor = BookHistoryCursor.after(content.get(pageSize - 1)).encode();
+        return Optional.of(new BookHistoryPageDto(List.copyOf(content), nextCursor, pageSize));
+    }
+
+    @Override
+    public Optional<DisplayBookHistoryDto> getBookStateAsOf(Long bookId, LocalDateTime asOf) {
+        return bookService.findHistoryAsOf(bookId, asOf);
     }
 
     @Override
-    public List<DisplayBookHistoryDto> getBookHistory(Long bookId) {
-        return DisplayBookHistoryDto.from(bookService.getBookHistory(bookId));
+    public Optional<DisplayBookHistoryDto> getBookRevision(Long bookId, int revision) {
+        return bookService.findRevision(bookId, revision);
     }
 }
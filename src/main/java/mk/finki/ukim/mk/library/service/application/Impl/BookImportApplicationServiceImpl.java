@@ -0,0 +1,266 @@
+package mk.finki.ukim.mk.library.service.application.Impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import mk.finki.ukim.mk.library.config.UserContext;
+import mk.finki.ukim.mk.library.model.Dto.BookImportErrorDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportResultDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportRowDto;
+import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+import mk.finki.ukim.mk.library.service.application.BookImportApplicationService;
+import mk.finki.ukim.mk.library.service.domain.AuthorService;
+import mk.finki.ukim.mk.library.service.domain.BookImportService;
+import mk.finki.ukim.mk.library.service.domain.BookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Streams an import body row by row: only the current chunk of {@code batch-size} valid rows is
+ * held in memory, whatever the size of the upload. Each chunk is inserted and committed on its
+ * own, so a failure late in a large file keeps the rows before it; a chunk that fails is retried
+ * row by row to find the rows at fault. Authors are looked up once per distinct id or name per
+ * import, and the books-by-author view is refreshed once at the end instead of per book.
+ */
+@Service
+public class BookImportApplicationServiceImpl implements BookImportApplicationService {
+
+    private final BookImportService bookImportService;
+    private final AuthorService authorService;
+    private final BookService bookService;
+    private final UserContext userContext;
+    private final ObjectReader rowReader;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    private final Counter importedRows;
+    private final Counter failedRows;
+
+    public BookImportApplicationServiceImpl(BookImportService bookImportService,
+                                            AuthorService authorService,
+                                            BookService bookService,
+                                            UserContext userContext,
+                                            ObjectMapper objectMapper,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${library.book-import.batch-size:1000}") int batchSize,
+                                            @Value("${library.book-import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.bookImportService = bookImportService;
+        this.authorService = authorService;
+        this.bookService = bookService;
+        this.userContext = userContext;
+        this.rowReader = objectMapper.readerFor(BookImportRowDto.class);
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+        this.importedRows = meterRegistry.counter("library.book_import.imported");
+        this.failedRows = meterRegistry.counter("library.book_import.failed");
+    }
+
+    @Override
+    public BookImportResultDto importBooks(InputStream body, CatalogFormat format) {
+        long started = System.nanoTime();
+        Import run = new Import(userContext.getCurrentUsername());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try {
+            if (format == CatalogFormat.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (IOException e) {
+            // a malformed or truncated body: keep what was read up to here and report where it stopped
+            run.reject(run.rows + 1, "unreadable input: " + e.getMessage());
+        }
+        run.flush();
+        if (run.imported > 0) {
+            bookService.refreshBooksByAuthorView();
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        double rowsPerSecond = durationMs > 0 ? run.rows * 1000.0 / durationMs : run.rows;
+        return new BookImportResultDto(run.rows, run.imported, run.failed, List.copyOf(run.errors),
+                run.errorsTruncated, durationMs, rowsPerSecond);
+    }
+
+    private void readCsv(BufferedReader reader, Import run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            // a UTF-8 byte order mark survives decoding as the first character
+            columns.put(header.get(i).replace("\uFEFF", "").trim(), i);
+        }
+        List<String> record;
+        while ((record = csv.next()) != null) {
+            long row = ++run.rows;
+            try {
+                run.accept(row, new BookImportRowDto(
+                        field(record, columns, "name"),
+                        field(record, columns, "category"),
+                        number(field(record, columns, "authorId"), "authorId", Long::valueOf),
+                        field(record, columns, "authorName"),
+                        field(record, columns, "authorSurname"),
+                        number(field(record, columns, "availableCopies"), "availableCopies", Integer::valueOf)));
+            } catch (IllegalArgumentException e) {
+                run.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, Import run) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            long row = ++run.rows;
+            try {
+                run.accept(row, rowReader.readValue(line));
+            } catch (JsonProcessingException e) {
+                run.reject(row, "malformed JSON: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    private static String field(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static <T> T number(String value, String column, Function<String, T> parser) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    /**
+     * State of one import run; never shared between requests.
+     */
+    private final class Import {
+
+        private final String username;
+        // "#id", or name and surname joined by NUL, to the author's id, empty when there is no such author
+        private final Map<String, Optional<Long>> authors = new HashMap<>();
+        private final List<CreateBookDto> chunk = new ArrayList<>();
+        private final List<Long> chunkRows = new ArrayList<>();
+        private final List<BookImportErrorDto> errors = new ArrayList<>();
+
+        private long rows;
+        private long imported;
+        private long failed;
+        private boolean errorsTruncated;
+
+        private Import(String username) {
+            this.username = username;
+        }
+
+        void accept(long row, BookImportRowDto input) {
+            CreateBookDto book;
+            try {
+                book = validate(input);
+            } catch (IllegalArgumentException e) {
+                reject(row, e.getMessage());
+                return;
+            }
+            chunk.add(book);
+            chunkRows.add(row);
+            if (chunk.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            failedRows.increment();
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BookImportErrorDto(row, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                insert(chunk);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < chunk.size(); i++) {
+                    try {
+                        insert(List.of(chunk.get(i)));
+                    } catch (RuntimeException rowFailure) {
+                        reject(chunkRows.get(i), "could not be saved: " + rowFailure.getMessage());
+                    }
+                }
+            } finally {
+                chunk.clear();
+                chunkRows.clear();
+            }
+        }
+
+        private void insert(List<CreateBookDto> books) {
+            bookImportService.insertAll(books, username);
+            imported += books.size();
+            importedRows.increment(books.size());
+        }
+
+        private CreateBookDto validate(BookImportRowDto input) {
+            if (input == null || input.name() == null || input.name().isBlank()) {
+                throw new IllegalArgumentException("name is required");
+            }
+            if (input.category() == null) {
+                throw new IllegalArgumentException("category is required");
+            }
+            Category category;
+            try {
+                category = Category.valueOf(input.category().trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("unknown category: " + input.category());
+            }
+            if (input.availableCopies() == null || input.availableCopies() < 0) {
+                throw new IllegalArgumentException("availableCopies must be zero or more");
+            }
+            return new CreateBookDto(input.name().trim(), category, resolveAuthor(input), input.availableCopies());
+        }
+
+        private Long resolveAuthor(BookImportRowDto input) {
+            Optional<Long> author;
+            if (input.authorId() != null) {
+                author = authors.computeIfAbsent("#" + input.authorId(), key ->
+                        authorService.existsById(input.authorId()) ? Optional.of(input.authorId()) : Optional.empty());
+            } else if (input.authorName() != null && input.authorSurname() != null) {
+                String name = input.authorName().trim();
+                String surname = input.authorSurname().trim();
+                author = authors.computeIfAbsent(name + "\u0000" + surname, key ->
+                        authorService.findIdByNameAndSurname(name, surname));
+            } else {
+                throw new IllegalArgumentException("authorId or authorName and authorSurname are required");
+            }
+            return author.orElseThrow(() -> new IllegalArgumentException("unknown author"));
+        }
+    }
+}
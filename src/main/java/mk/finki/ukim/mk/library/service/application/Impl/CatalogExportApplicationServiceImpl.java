@@ -0,0 +1,83 @@
+package mk.finki.ukim.mk.library.service.application.Impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import mk.finki.ukim.mk.library.model.Dto.AuthorExportDto;
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+import mk.finki.ukim.mk.library.service.application.CatalogExportApplicationService;
+import mk.finki.ukim.mk.library.service.domain.AuthorService;
+import mk.finki.ukim.mk.library.service.domain.BookService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Exports pipe a database cursor straight into the response: each row is serialised as soon as
+ * it is read and then dropped, so heap use does not grow with the size of the catalog.
+ */
+@Service
+public class CatalogExportApplicationServiceImpl implements CatalogExportApplicationService {
+
+    private final BookService bookService;
+    private final AuthorService authorService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int flushRows;
+
+    public CatalogExportApplicationServiceImpl(BookService bookService,
+                                               AuthorService authorService,
+                                               ObjectMapper objectMapper,
+                                               MeterRegistry meterRegistry,
+                                               @Value("${library.export.flush-rows:500}") int flushRows) {
+        this.bookService = bookService;
+        this.authorService = authorService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.flushRows = flushRows;
+    }
+
+    @Override
+    public long exportBooks(OutputStream out, CatalogFormat format) throws IOException {
+        return export("books", BookExportDto.class, out, format, bookService::exportAll);
+    }
+
+    @Override
+    public long exportAuthors(OutputStream out, CatalogFormat format) throws IOException {
+        return export("authors", AuthorExportDto.class, out, format, authorService::exportAll);
+    }
+
+    @Override
+    public long exportBookHistory(OutputStream out, CatalogFormat format) throws IOException {
+        return export("book_history", DisplayBookHistoryDto.class, out, format, bookService::exportHistory);
+    }
+
+    private <T extends Record> long export(String type, Class<T> rowType, OutputStream out, CatalogFormat format,
+                                           Consumer<Consumer<T>> source) throws IOException {
+        CatalogExportWriter<T> writer = new CatalogExportWriter<>(out, format, rowType, objectMapper, flushRows);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            source.accept(row -> {
+                try {
+                    writer.write(row);
+                } catch (IOException e) {
+                    // most likely the client went away; ends the cursor and its transaction
+                    throw new UncheckedIOException(e);
+                }
+            });
+            long rows = writer.finish();
+            meterRegistry.counter("library.export.rows", "type", type).increment(rows);
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            sample.stop(meterRegistry.timer("library.export", "type", type));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package mk.finki.ukim.mk.library.service.application.Impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+
+import java.io.*;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes export rows to a stream one at a time, as NDJSON or as CSV with a header row taken from
+ * the record's components. Nothing is kept per row; output is buffered and pushed to the stream
+ * after the first row, so the client sees data at once, and then every {@code flushEvery} rows.
+ * The stream is left open for the caller.
+ */
+public final class CatalogExportWriter<T extends Record> {
+
+    private final RecordComponent[] columns;
+    private final int flushEvery;
+    private final JsonGenerator json;
+    private final ObjectWriter rowWriter;
+    private final Writer csv;
+    private long rows;
+
+    public CatalogExportWriter(OutputStream out, CatalogFormat format, Class<T> type, ObjectMapper objectMapper,
+                               int flushEvery) throws IOException {
+        this.columns = type.getRecordComponents();
+        this.flushEvery = flushEvery;
+        if (format == CatalogFormat.NDJSON) {
+            this.json = objectMapper.getFactory().createGenerator(out);
+            this.json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // lines are separated explicitly below instead of by the generator's root separator
+            this.json.setRootValueSeparator(null);
+            this.rowWriter = objectMapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            this.csv = null;
+        } else {
+            this.json = null;
+            this.rowWriter = null;
+            this.csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                csv.write(columns[i].getName());
+            }
+            csv.write("\r\n");
+        }
+    }
+
+    public void write(T row) throws IOException {
+        if (json != null) {
+            rowWriter.writeValue(json, row);
+            json.writeRaw('\n');
+        } else {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    csv.write(',');
+                }
+                csv.write(escape(value(row, columns[i])));
+            }
+            csv.write("\r\n");
+        }
+        rows++;
+        if (rows == 1 || rows % flushEvery == 0) {
+            flush();
+        }
+    }
+
+    /**
+     * Pushes out whatever is buffered and returns the number of rows written.
+     */
+    public long finish() throws IOException {
+        flush();
+        return rows;
+    }
+
+    private void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        } else {
+            csv.flush();
+        }
+    }
+
+    private static Object value(Record row, RecordComponent column) {
+        try {
+            return column.getAccessor().invoke(row);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + column.getName() + " of " + row.getClass().getSimpleName(), e);
+        }
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break, doubling inner quotes
+    static String escape(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Enum<?> constant ? constant.name() : value.toString();
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        return quote ? '"' + text.replace("\"", "\"\"") + '"' : text;
+    }
+}
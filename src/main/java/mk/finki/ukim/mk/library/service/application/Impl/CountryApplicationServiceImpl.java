@@ -1,5 +1,6 @@
 package mk.finki.ukim.mk.library.service.application.Impl;
 
+import mk.finki.ukim.mk.library.cache.CatalogCache;
 import mk.finki.ukim.mk.library.model.Dto.CreateCountryDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayCountryDto;
 import mk.finki.ukim.mk.library.model.domain.Country;
@@ -9,28 +10,29 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class CountryApplicationServiceImpl implements CountryApplicationService {
 
     private final CountryService countryService;
+    private final CatalogCache catalogCache;
 
-    public CountryApplicationServiceImpl(CountryService countryService) {
+    public CountryApplicationServiceImpl(CountryService countryService, CatalogCache catalogCache) {
         this.countryService = countryService;
+        this.catalogCache = catalogCache;
     }
 
     @Override
     public List<DisplayCountryDto> findAll() {
-        return countryService.findAll().stream()
+        return catalogCache.get("countries", () -> countryService.findAll().stream()
                 .map(DisplayCountryDto::from)
-                .collect(Collectors.toList());
+                .toList());
     }
 
     @Override
     public Optional<DisplayCountryDto> findById(Long id) {
-        return countryService.findById(id)
-                .map(DisplayCountryDto::from);
+        return catalogCache.get("country:" + id, () -> countryService.findById(id)
+                .map(DisplayCountryDto::from));
     }
 
     @Override
@@ -5,24 +5,31 @@ import mk.finki.ukim.mk.library.model.Dto.DisplayUserDto;
 import mk.finki.ukim.mk.library.model.Dto.LoginResponseDto;
 import mk.finki.ukim.mk.library.model.Dto.LoginUserDto;
 import mk.finki.ukim.mk.library.model.domain.User;
+import mk.finki.ukim.mk.library.security.JwtConstants;
 import mk.finki.ukim.mk.library.security.JwtHelper;
+import mk.finki.ukim.mk.library.service.application.AuthenticationLogApplicationService;
 import mk.finki.ukim.mk.library.service.application.UserApplicationService;
 import mk.finki.ukim.mk.library.service.domain.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Service
 public class UserApplicationServiceImpl implements UserApplicationService {
 
     private final UserService userService;
+    private final AuthenticationLogApplicationService authenticationLogApplicationService;
 
     @Autowired(required = false)
     private JwtHelper jwtHelper;
 
-    public UserApplicationServiceImpl(UserService userService) {
+    public UserApplicationServiceImpl(UserService userService,
+                                      AuthenticationLogApplicationService authenticationLogApplicationService) {
         this.userService = userService;
+        this.authenticationLogApplicationService = authenticationLogApplicationService;
     }
 
     @Override
@@ -50,6 +57,9 @@ public class UserApplicationServiceImpl implements UserApplicationService {
         }
 
         String token = jwtHelper.generateToken(user);
+        LocalDateTime issuedAt = LocalDateTime.now();
+        authenticationLogApplicationService.createAuthenticationLog(user.getUsername(), token, issuedAt,
+                issuedAt.plus(Duration.ofMillis(JwtConstants.EXPIRATION_TIME)));
 
         return Optional.of(new LoginResponseDto(token));
     }
@@ -43,12 +43,9 @@ public class WishlistApplicationServiceImpl implements WishlistApplicationServic
 
     @Override
     public Optional<DisplayWishlistDto> borrowAllBooks(String username) {
-        try {
-            return wishlistService.borrowAllBooks(username)
-                    .map(DisplayWishlistDto::from);
-        } catch (RuntimeException e) {
-            throw new RuntimeException(e.getMessage());
-        }
+        // NotEnoughCopiesException and BookNotFoundException reach the controller as thrown
+        return wishlistService.borrowAllBooks(username)
+                .map(DisplayWishlistDto::from);
     }
 
     @Override
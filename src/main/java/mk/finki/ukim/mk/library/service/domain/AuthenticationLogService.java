@@ -1,12 +1,13 @@
 package mk.finki.ukim.mk.library.service.domain;
 
-import mk.finki.ukim.mk.library.model.Dto.DisplayAuthLogDto;
 import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface AuthenticationLogService {
-    List<AuthenticationLog> findAllAuthenticationLogs();
+    List<AuthenticationLog> findPage(String username, LocalDateTime from, LocalDateTime to,
+                                     LocalDateTime afterIssuedAt, Long afterId, int limit);
 
     void saveAuthenticationLog(AuthenticationLog authenticationLog);
 }
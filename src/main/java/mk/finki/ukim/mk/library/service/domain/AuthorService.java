@@ -1,10 +1,12 @@
 package mk.finki.ukim.mk.library.service.domain;
 
+import mk.finki.ukim.mk.library.model.Dto.AuthorExportDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
 import mk.finki.ukim.mk.library.model.projections.AuthorNameProjection;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface AuthorService {
 
@@ -15,4 +17,11 @@ public interface AuthorService {
     void deleteById(Long id);
 
     List<AuthorNameProjection> getAllAuthorNames();
+
+    boolean existsById(Long id);
+    // the oldest author with exactly this name, if any
+    Optional<Long> findIdByNameAndSurname(String name, String surname);
+
+    // streams every author, in id order, to the sink from a database cursor
+    void exportAll(Consumer<AuthorExportDto> sink);
 }
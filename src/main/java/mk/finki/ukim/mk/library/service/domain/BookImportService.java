@@ -0,0 +1,12 @@
+package mk.finki.ukim.mk.library.service.domain;
+
+import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
+
+import java.util.List;
+
+public interface BookImportService {
+
+    // inserts the books and their first history revision in one transaction;
+    // returns the new ids in input order. Authors must already be resolved.
+    List<Long> insertAll(List<CreateBookDto> books, String username);
+}
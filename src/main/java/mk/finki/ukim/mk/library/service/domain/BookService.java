@@ -1,17 +1,28 @@
 package mk.finki.ukim.mk.library.service.domain;
 
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.Book;
-import mk.finki.ukim.mk.library.model.domain.BookHistory;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface BookService {
 
     List<Book> findAll();
     Optional<Book> findById(Long id);
+    List<Book> findAllById(Collection<Long> ids);
+    boolean existsById(Long id);
+
+    // keyset page: rows strictly after (afterName, afterId) in the given sort order
+    List<Book> findPage(Category category, Long authorId, Long countryId,
+                        BookSort sort, String afterName, Long afterId, int limit);
 
     //dodaden username za changot da se zapazi
     Optional<Book> save(Book book, String username);
@@ -20,11 +31,28 @@ public interface BookService {
 
     void deleteById(Long id);
     Optional<Book> markAsBorrowed(Long id);
+
+    boolean borrowCopy(Long id);
+
+    void borrowCopies(Collection<Long> ids);
     List<Category> findAllCategories();
 
 
     //for the bookgistory addition
-    List<BookHistory> getBookHistory(Long bookId);
+    // keyset page of a book's history within [from, to), newest first; null bounds are open.
+    // History entries are always returned as full states, whatever the storage holds.
+    List<DisplayBookHistoryDto> findHistoryPage(Long bookId, LocalDateTime from, LocalDateTime to,
+                                                LocalDateTime afterModifiedAt, Long afterId, int limit);
+
+    Optional<DisplayBookHistoryDto> findHistoryAsOf(Long bookId, LocalDateTime asOf);
+
+    Optional<DisplayBookHistoryDto> findRevision(Long bookId, int revision);
 
     void refreshBooksByAuthorView();
+
+    // streams every book, in id order, to the sink from a database cursor
+    void exportAll(Consumer<BookExportDto> sink);
+
+    // streams every revision of every book as a full state, book by book in revision order
+    void exportHistory(Consumer<DisplayBookHistoryDto> sink);
 }
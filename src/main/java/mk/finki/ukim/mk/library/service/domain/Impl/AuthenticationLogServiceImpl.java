@@ -1,10 +1,13 @@
 package mk.finki.ukim.mk.library.service.domain.Impl;
 
+import mk.finki.ukim.mk.library.jobs.AuthenticationLogWriter;
 import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
 import mk.finki.ukim.mk.library.repository.AuthenticationLogRepository;
 import mk.finki.ukim.mk.library.service.domain.AuthenticationLogService;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 
@@ -12,18 +15,26 @@ import java.util.List;
 public class AuthenticationLogServiceImpl implements AuthenticationLogService {
 
     private final AuthenticationLogRepository authenticationLogRepository;
+    private final AuthenticationLogWriter authenticationLogWriter;
 
-    public AuthenticationLogServiceImpl(AuthenticationLogRepository authenticationLogRepository) {
+    public AuthenticationLogServiceImpl(AuthenticationLogRepository authenticationLogRepository,
+                                        AuthenticationLogWriter authenticationLogWriter) {
         this.authenticationLogRepository = authenticationLogRepository;
+        this.authenticationLogWriter = authenticationLogWriter;
     }
 
     @Override
-    public List<AuthenticationLog> findAllAuthenticationLogs() {
-        return authenticationLogRepository.findAllByOrderByIssuedAtDesc();
+    public List<AuthenticationLog> findPage(String username, LocalDateTime from, LocalDateTime to,
+                                            LocalDateTime afterIssuedAt, Long afterId, int limit) {
+        if (username != null) {
+            return authenticationLogRepository.findPageByUsername(username, from, to, afterIssuedAt, afterId, Limit.of(limit));
+        }
+        return authenticationLogRepository.findPage(from, to, afterIssuedAt, afterId, Limit.of(limit));
     }
 
     @Override
     public void saveAuthenticationLog(AuthenticationLog authenticationLog) {
-        authenticationLogRepository.save(authenticationLog);
+        // buffered and batch-inserted in the background; never blocks the login on the database
+        authenticationLogWriter.append(authenticationLog);
     }
 }
@@ -1,52 +1,90 @@
 package mk.finki.ukim.mk.library.service.domain.Impl;
 
 
+import mk.finki.ukim.mk.library.datasource.PrimaryReads;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.model.Dto.AuthorExportDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
 import mk.finki.ukim.mk.library.model.projections.AuthorNameProjection;
 import mk.finki.ukim.mk.library.repository.AuthorRepository;
 import mk.finki.ukim.mk.library.service.domain.AuthorService;
 import mk.finki.ukim.mk.library.service.domain.CountryService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class AuthorServiceImpl implements AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthorServiceImpl(AuthorRepository authorRepository) {
+    public AuthorServiceImpl(AuthorRepository authorRepository, ApplicationEventPublisher eventPublisher) {
         this.authorRepository = authorRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Author> findAll() {
-        return authorRepository.findAll();
+        // the result goes into the query cache, so it must not come from a lagging replica
+        return PrimaryReads.call(authorRepository::findAll);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Author> findById(Long id) {
         return authorRepository.findById(id);
     }
 
     @Override
     public Optional<Author> save(Author author) {
-        return Optional.of(authorRepository.save(author));
+        Author savedAuthor = authorRepository.save(author);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedAuthor));
+        return Optional.of(savedAuthor);
     }
 
     @Override
     public Optional<Author> update(Author author) {
-        return Optional.of(authorRepository.save(author));
+        Author savedAuthor = authorRepository.save(author);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedAuthor));
+        return Optional.of(savedAuthor);
     }
 
     @Override
     public void deleteById(Long id) {
         authorRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(Author.class, id));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<AuthorNameProjection> getAllAuthorNames() {
         return authorRepository.findAllProjectedBy();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        return authorRepository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> findIdByNameAndSurname(String name, String surname) {
+        return authorRepository.findIdsByNameAndSurname(name, surname).stream().findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<AuthorExportDto> sink) {
+        try (Stream<AuthorExportDto> authors = authorRepository.streamExport()) {
+            authors.forEach(sink);
+        }
+    }
 }
@@ -0,0 +1,77 @@
+package mk.finki.ukim.mk.library.service.domain.Impl;
+
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import mk.finki.ukim.mk.library.service.domain.BookImportService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk inserts for the book import. Book ids come from a pooled sequence, so Hibernate assigns
+ * them without touching the database and sends the inserts as JDBC batches of
+ * {@code hibernate.jdbc.batch_size} when the chunk is flushed. The authors are referenced by id
+ * only; they have already been resolved by the caller.
+ * <p>
+ * Every imported book gets revision 1 as a snapshot, written in the same transaction; the
+ * history writer reads it back before recording a later edit of the book.
+ */
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    // an importer without a user row (e.g. an anonymous request) leaves modified_by empty
+    static final String INSERT_HISTORY =
+            "INSERT INTO book_history (book_id, revision, snapshot, name, category, author_id, available_copies, " +
+                    "modified_at, modified_by_username) " +
+                    "VALUES (?, 1, TRUE, ?, ?, ?, ?, ?, (SELECT u.username FROM library_users u WHERE u.username = ?))";
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BookImportServiceImpl(BookRepository bookRepository, AuthorRepository authorRepository,
+                                 JdbcTemplate jdbcTemplate, ApplicationEventPublisher eventPublisher) {
+        this.bookRepository = bookRepository;
+        this.authorRepository = authorRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> insertAll(List<CreateBookDto> books, String username) {
+        if (books.isEmpty()) {
+            return List.of();
+        }
+        List<Book> entities = new ArrayList<>(books.size());
+        for (CreateBookDto book : books) {
+            Author author = authorRepository.getReferenceById(book.authorId());
+            entities.add(new Book(book.name(), book.category(), author, book.availableCopies()));
+        }
+        // the history rows reference the books, so their inserts must reach the database first
+        List<Long> ids = bookRepository.saveAllAndFlush(entities).stream().map(Book::getId).toList();
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> history = new ArrayList<>(books.size());
+        for (int i = 0; i < books.size(); i++) {
+            CreateBookDto book = books.get(i);
+            history.add(new Object[]{ids.get(i), book.name(), book.category().name(), book.authorId(),
+                    book.availableCopies(), now, username});
+        }
+        jdbcTemplate.batchUpdate(INSERT_HISTORY, history);
+
+        eventPublisher.publishEvent(CatalogChangedEvent.saved(Book.class, List.copyOf(ids)));
+        return ids;
+    }
+}
@@ -1,76 +1,118 @@
 package mk.finki.ukim.mk.library.service.domain.Impl;
 
 import mk.finki.ukim.mk.library.config.UserContext;
+import mk.finki.ukim.mk.library.events.BookRevisionEvent;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.exceptions.BookNotFoundException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
+import mk.finki.ukim.mk.library.jobs.BooksByAuthorViewRefresher;
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.*;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
 import mk.finki.ukim.mk.library.repository.BookHistoryRepository;
 import mk.finki.ukim.mk.library.repository.BookRepository;
-import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
 import mk.finki.ukim.mk.library.service.domain.BookService;
-import mk.finki.ukim.mk.library.service.domain.UserService;
-import org.springframework.core.env.Environment;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Arrays;
-import java.util.List;
-import java.util.Optional;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
     private final BookHistoryRepository bookHistoryRepository;
-    private final UserService userService;
-    private final BooksByAuthorViewRepository booksByAuthorViewRepository;
+    private final BooksByAuthorViewRefresher booksByAuthorViewRefresher;
     private final UserContext userContext;
-    private final Environment environment;
+    private final ApplicationEventPublisher eventPublisher;
 
     public BookServiceImpl(BookRepository bookRepository,
                            BookHistoryRepository bookHistoryRepository,
-                           UserService userService,
-                           BooksByAuthorViewRepository booksByAuthorViewRepository,
+                           BooksByAuthorViewRefresher booksByAuthorViewRefresher,
                            UserContext userContext,
-                           Environment environment) {
+                           ApplicationEventPublisher eventPublisher) {
         this.bookRepository = bookRepository;
         this.bookHistoryRepository = bookHistoryRepository;
-        this.userService = userService;
-        this.booksByAuthorViewRepository = booksByAuthorViewRepository;
+        this.booksByAuthorViewRefresher = booksByAuthorViewRefresher;
         this.userContext = userContext;
-        this.environment = environment;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Book> findAll() {
         return bookRepository.findAll();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Book> findById(Long id) {
         return bookRepository.findById(id);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findAllById(Collection<Long> ids) {
+        return bookRepository.findAllByIdIn(ids);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean existsById(Long id) {
+        return bookRepository.existsById(id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Book> findPage(Category category, Long authorId, Long countryId,
+                               BookSort sort, String afterName, Long afterId, int limit) {
+        if (sort == BookSort.NAME) {
+            return bookRepository.findPageOrderByName(afterName, afterId, category, authorId, countryId, Limit.of(limit));
+        }
+        return bookRepository.findPageOrderById(afterId, category, authorId, countryId, Limit.of(limit));
+    }
+
     @Override
     @Transactional
     public Optional<Book> save(Book book, String username) {
-        User user = userService.findByUsername(username);
 //        User user = userContext.getCurrentUser();
         Book savedBook = bookRepository.save(book);
-        BookHistory history = new BookHistory(savedBook, user);
-        bookHistoryRepository.save(history);
+        // recorded by BookHistoryWriter after commit, keeping the history insert out of this transaction
+        eventPublisher.publishEvent(new BookRevisionEvent(savedBook, username));
         this.refreshBooksByAuthorView();
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedBook));
         return Optional.of(savedBook);
     }
 
     @Override
     @Transactional
     public Optional<Book> update(Book book, String username) {
-        User user = userService.findByUsername(username);
-//        User user = userContext.getCurrentUser();
-        Book savedBook = bookRepository.save(book);
-        BookHistory history = new BookHistory(savedBook, user);
-        bookHistoryRepository.save(history);
-        this.refreshBooksByAuthorView();
-        return Optional.of(savedBook);
+        return bookRepository.findById(book.getId()).map(existing -> {
+            // the version the client read; a borrow bumps it too, so a stale edit fails with 409
+            // instead of writing back copies that have since been taken
+            if (!Objects.equals(book.getVersion(), existing.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+            }
+            existing.setName(book.getName());
+            existing.setCategory(book.getCategory());
+            existing.setAuthor(book.getAuthor());
+            existing.setAvailableCopies(book.getAvailableCopies());
+            Book savedBook = bookRepository.save(existing);
+            // recorded by BookHistoryWriter after commit, keeping the history insert out of this transaction
+            eventPublisher.publishEvent(new BookRevisionEvent(savedBook, username));
+            this.refreshBooksByAuthorView();
+            eventPublisher.publishEvent(new CatalogChangedEvent(savedBook));
+            return savedBook;
+        });
     }
 
     @Override
@@ -79,19 +121,51 @@ public class BookServiceImpl implements BookService {
         bookHistoryRepository.deleteByBookId(id);
         bookRepository.deleteById(id);
         this.refreshBooksByAuthorView();
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(Book.class, id));
     }
 
     @Override
     @Transactional
     public Optional<Book> markAsBorrowed(Long id) {
-        return bookRepository.findById(id)
-                .map(book -> {
-                    if (book.getAvailableCopies() > 0) {
-                        book.setAvailableCopies(book.getAvailableCopies() - 1);
-                        return bookRepository.save(book);
-                    }
-                    return book;
-                });
+        if (!borrowCopy(id)) {
+            // no row was updated: either the book does not exist or it has no copies left
+            Optional<Book> book = bookRepository.findById(id);
+            if (book.isPresent()) {
+                throw new NotEnoughCopiesException(List.of(book.get().getName()));
+            }
+            return Optional.empty();
+        }
+        return bookRepository.findById(id);
+    }
+
+    @Override
+    @Transactional
+    public boolean borrowCopy(Long id) {
+        boolean borrowed = bookRepository.decrementAvailableCopies(id) == 1;
+        if (borrowed) {
+            eventPublisher.publishEvent(new CatalogChangedEvent(id));
+        }
+        return borrowed;
+    }
+
+    @Override
+    @Transactional
+    public void borrowCopies(Collection<Long> ids) {
+        List<String> unavailable = bookRepository.findNamesWithoutCopies(ids);
+        if (!unavailable.isEmpty()) {
+            throw new NotEnoughCopiesException(unavailable);
+        }
+        if (bookRepository.decrementAvailableCopiesOfAll(ids) != ids.size()) {
+            // Some book was deleted, or a concurrent borrow took its last copy after the check
+            // above; throwing rolls back the copies already taken by this statement
+            Set<Long> missing = new LinkedHashSet<>(ids);
+            bookRepository.findExistingIds(ids).forEach(missing::remove);
+            if (!missing.isEmpty()) {
+                throw new BookNotFoundException(missing);
+            }
+            throw new NotEnoughCopiesException(bookRepository.findNamesWithoutCopies(ids));
+        }
+        eventPublisher.publishEvent(new CatalogChangedEvent(List.copyOf(ids)));
     }
 
     @Override
@@ -100,27 +174,86 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
-    public List<BookHistory> getBookHistory(Long bookId) {
-        return bookRepository.findById(bookId)
-                .map(bookHistoryRepository::findByBookOrderByModifiedAtDesc)
-                .orElse(List.of());
+    @Transactional(readOnly = true)
+    public List<DisplayBookHistoryDto> findHistoryPage(Long bookId, LocalDateTime from, LocalDateTime to,
+                                                       LocalDateTime afterModifiedAt, Long afterId, int limit) {
+        return reconstruct(bookId,
+                bookHistoryRepository.findPage(bookId, from, to, afterModifiedAt, afterId, Limit.of(limit)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<DisplayBookHistoryDto> findHistoryAsOf(Long bookId, LocalDateTime asOf) {
+        return reconstruct(bookId, bookHistoryRepository.findLatestAsOf(bookId, asOf, Limit.of(1)))
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<DisplayBookHistoryDto> findRevision(Long bookId, int revision) {
+        List<DisplayBookHistoryDto> states =
+                DisplayBookHistoryDto.replay(bookHistoryRepository.findChain(bookId, revision, revision));
+        return states.isEmpty() || states.get(states.size() - 1).revision() != revision
+                ? Optional.empty()
+                : Optional.of(states.get(states.size() - 1));
+    }
+
+    /**
+     * Replaces stored (delta) rows with the full states they stand for, reading one chain from
+     * the snapshot before the oldest row to the newest row, so the cost stays proportional to
+     * the rows asked for plus at most one snapshot interval.
+     */
+    private List<DisplayBookHistoryDto> reconstruct(Long bookId, List<DisplayBookHistoryDto> rows) {
+        IntSummaryStatistics revisions = rows.stream()
+                .map(DisplayBookHistoryDto::revision)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .summaryStatistics();
+        if (revisions.getCount() == 0) {
+            // no rows, or only complete rows from before revisions were introduced
+            return rows;
+        }
+
+        Map<Integer, DisplayBookHistoryDto> states = DisplayBookHistoryDto.replay(
+                        bookHistoryRepository.findChain(bookId, revisions.getMin(), revisions.getMax()))
+                .stream()
+                .collect(Collectors.toMap(DisplayBookHistoryDto::revision, Function.identity()));
+        return rows.stream()
+                .map(row -> row.revision() == null ? row : states.getOrDefault(row.revision(), row))
+                .toList();
     }
 
     @Override
     public void refreshBooksByAuthorView() {
-        // Only refresh materialized view in PostgreSQL production environment
-        // H2 test environment uses regular views that auto-update
-        boolean isTestProfile = environment.acceptsProfiles("test");
-
-        if (!isTestProfile) {
-            // Production PostgreSQL environment - refresh materialized view
-            try {
-                booksByAuthorViewRepository.refreshMaterializedViewPostgreSQL();
-            } catch (Exception e) {
-                // Log error but don't fail the operation
-                System.err.println("Warning: Could not refresh materialized view: " + e.getMessage());
-            }
+        // Coalesced and run after commit by the refresher instead of rebuilding the view per write
+        booksByAuthorViewRefresher.markDirty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<BookExportDto> sink) {
+        try (Stream<BookExportDto> books = bookRepository.streamExport()) {
+            books.forEach(sink);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportHistory(Consumer<DisplayBookHistoryDto> sink) {
+        try (Stream<DisplayBookHistoryDto> rows = bookHistoryRepository.streamAll()) {
+            // only the previous state is kept: rows arrive book by book, each chain from its first revision
+            DisplayBookHistoryDto[] previous = new DisplayBookHistoryDto[1];
+            rows.forEach(row -> {
+                if (row.revision() == null) {
+                    sink.accept(row);
+                    return;
+                }
+                DisplayBookHistoryDto last = previous[0];
+                DisplayBookHistoryDto state = last != null && last.bookId().equals(row.bookId()) ? row.over(last) : row;
+                previous[0] = state;
+                sink.accept(state);
+            });
         }
-        // For test environment (H2), do nothing as regular views auto-update
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,14 @@
 package mk.finki.ukim.mk.library.service.domain.Impl;
 
 
+import mk.finki.ukim.mk.library.datasource.PrimaryReads;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
 import mk.finki.ukim.mk.library.model.domain.Country;
 import mk.finki.ukim.mk.library.repository.CountryRepository;
 import mk.finki.ukim.mk.library.service.domain.CountryService;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,33 +17,43 @@ import java.util.Optional;
 public class CountryServiceImpl implements CountryService {
 
     private final CountryRepository countryRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CountryServiceImpl(CountryRepository countryRepository) {
+    public CountryServiceImpl(CountryRepository countryRepository, ApplicationEventPublisher eventPublisher) {
         this.countryRepository = countryRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<Country> findAll() {
-        return countryRepository.findAll();
+        // the result goes into the query cache, so it must not come from a lagging replica
+        return PrimaryReads.call(countryRepository::findAll);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Optional<Country> findById(Long id) {
         return countryRepository.findById(id);
     }
 
     @Override
     public Optional<Country> save(Country country) {
-        return Optional.of(countryRepository.save(country));
+        Country savedCountry = countryRepository.save(country);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedCountry));
+        return Optional.of(savedCountry);
     }
 
     @Override
     public Optional<Country> update(Country country) {
-        return Optional.of(countryRepository.save(country));
+        Country savedCountry = countryRepository.save(country);
+        eventPublisher.publishEvent(new CatalogChangedEvent(savedCountry));
+        return Optional.of(savedCountry);
     }
 
     @Override
     public void deleteById(Long id) {
         countryRepository.deleteById(id);
+        eventPublisher.publishEvent(CatalogChangedEvent.removed(Country.class, id));
     }
 }
@@ -1,6 +1,7 @@
 package mk.finki.ukim.mk.library.service.domain.Impl;
 
 import mk.finki.ukim.mk.library.exceptions.*;
+import mk.finki.ukim.mk.library.model.Dto.UserTokenVersionDto;
 import mk.finki.ukim.mk.library.model.domain.User;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
 import mk.finki.ukim.mk.library.repository.UserRepository;
@@ -11,6 +12,10 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 
 @Service
 public class UserServiceImpl implements UserService {
@@ -35,6 +40,18 @@ public class UserServiceImpl implements UserService {
                 username));
     }
 
+    @Override
+    public long findTokenVersion(String username) {
+        return userRepository.findTokenVersionByUsername(username).orElseThrow(() -> new UsernameNotFoundException(
+                username));
+    }
+
+    @Override
+    public Map<String, Long> findTokenVersions(Collection<String> usernames) {
+        return userRepository.findTokenVersionsByUsernameIn(usernames).stream()
+                .collect(Collectors.toMap(UserTokenVersionDto::username, UserTokenVersionDto::tokenVersion));
+    }
+
     @Override
     @Transactional
     public User register(
@@ -11,6 +11,7 @@ import mk.finki.ukim.mk.library.service.domain.WishlistService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -32,33 +33,17 @@ public class WishlistServiceImpl implements WishlistService {
         this.bookService = bookService;
     }
 
-//    @Override
-//    public Optional<Wishlist> getActiveWishlist(String username) {
-//        User user = userService.findByUsername(username);
-////                .orElseThrow(() -> new RuntimeException("User not found"));
-//
-//        return wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED)
-//                .or(() -> createWishlist(user));
-//    }
     @Override
     public Optional<Wishlist> getActiveWishlist(String username) {
-        User user = userService.findByUsername(username);
-        // If user is null, throw exception
-        if (user == null) {
-            throw new RuntimeException("User not found");
-        }
-
-        // First, try to find existing wishlist
-        Optional<Wishlist> existingWishlist = wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED);
-        if (existingWishlist.isPresent()) {
-            return existingWishlist;
-        }
-
-        // If no wishlist exists, try to create one with retry logic for constraint violations
-        return createWishlistWithRetry(user);
+        User user = findUser(username);
+        // Reads never write: without an active wishlist the user sees an empty, unsaved one,
+        // and the row is only created by the first book added
+        return Optional.of(wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED)
+                .orElseGet(() -> new Wishlist(user)));
     }
 
     @Override
+    @Transactional
     public Optional<Wishlist> addBookToWishlist(String username, Long bookId) {
         Book book = bookService.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
@@ -67,40 +52,46 @@ public class WishlistServiceImpl implements WishlistService {
             throw new RuntimeException("No available copies for this book");
         }
 
-        return getActiveWishlist(username)
-                .map(wishlist -> {
-                    List<Book> books = wishlist.getBooks();
-                    if (!books.contains(book)) {
-                        books.add(book);
-                    }
-                    return wishlistRepository.save(wishlist);
+        User user = findUser(username);
+        Long wishlistId = wishlistRepository.findIdByUserAndStatus(user, WishlistStatus.CREATED)
+                .orElseGet(() -> {
+                    wishlistRepository.insertActiveIfAbsent(user.getUsername(), LocalDateTime.now());
+                    return wishlistRepository.findIdByUserAndStatus(user, WishlistStatus.CREATED).orElseThrow();
                 });
+        // Inserts the single join row; a no-op if the book is already on the wishlist
+        wishlistRepository.addBook(wishlistId, bookId);
+        return wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED);
     }
 
     @Override
+    @Transactional
     public Optional<Wishlist> removeBookFromWishlist(String username, Long bookId) {
         Book book = bookService.findById(bookId)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
 
-        return getActiveWishlist(username)
-                .map(wishlist -> {
-                    wishlist.getBooks().removeIf(b -> b.getId().equals(bookId));
-                    return wishlistRepository.save(wishlist);
-                });
+        User user = findUser(username);
+        Optional<Long> wishlistId = wishlistRepository.findIdByUserAndStatus(user, WishlistStatus.CREATED);
+        if (wishlistId.isEmpty()) {
+            return Optional.of(new Wishlist(user));
+        }
+        wishlistRepository.removeBook(wishlistId.get(), bookId);
+        return wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED);
     }
 
     @Override
     @Transactional
     public Optional<Wishlist> borrowAllBooks(String username) {
-        return getActiveWishlist(username)
+        // Only a saved active wishlist can be borrowed; without one there is nothing to borrow
+        return wishlistRepository.findByUserAndStatus(findUser(username), WishlistStatus.CREATED)
                 .map(wishlist -> {
-                    List<Book> books = new ArrayList<>(wishlist.getBooks());
-                    for (Book book : books) {
-                        if (book.getAvailableCopies() > 0) {
-                            bookService.markAsBorrowed(book.getId());
-                        } else {
-                            throw new RuntimeException("Not enough copies available for book: " + book.getName());
-                        }
+                    List<Long> bookIds = wishlist.getBooks().stream()
+                            .map(Book::getId)
+                            .distinct()
+                            .toList();
+                    // One conditional update for the whole wishlist; throws, and so rolls back
+                    // every copy taken, if any book is out of copies
+                    if (!bookIds.isEmpty()) {
+                        bookService.borrowCopies(bookIds);
                     }
                     wishlist.setStatus(WishlistStatus.BORROWED);
                     wishlist.getBooks().clear();
@@ -115,47 +106,18 @@ public class WishlistServiceImpl implements WishlistService {
         return Optional.of(wishlistRepository.save(wishlist));
     }
 
-    /**
-     * Creates a wishlist with retry logic to handle constraint violations
-     * that can occur during concurrent access.
-     */
-    private Optional<Wishlist> createWishlistWithRetry(User user) {
-        int maxRetries = 3;
-        for (int attempt = 0; attempt < maxRetries; attempt++) {
-            try {
-                return createWishlist(user);
-            } catch (Exception e) {
-                // Check if it's a constraint violation
-                if (e.getMessage() != null && e.getMessage().contains("Unique index or primary key violation")) {
-                    // Another thread might have created the wishlist, try to find it
-                    Optional<Wishlist> existingWishlist = wishlistRepository.findByUserAndStatus(user, WishlistStatus.CREATED);
-                    if (existingWishlist.isPresent()) {
-                        return existingWishlist;
-                    }
-
-                    // If not found and we have retries left, wait a bit and try again
-                    if (attempt < maxRetries - 1) {
-                        try {
-                            Thread.sleep(10); // Small delay before retry
-                        } catch (InterruptedException ie) {
-                            Thread.currentThread().interrupt();
-                            throw new RuntimeException("Interrupted while waiting to retry wishlist creation", ie);
-                        }
-                        continue;
-                    }
-                }
-                // If it's not a constraint violation or we've exhausted retries, re-throw
-                throw new RuntimeException("Failed to create wishlist after " + maxRetries + " attempts", e);
-            }
-        }
-        // This should never be reached, but just in case
-        throw new RuntimeException("Failed to create wishlist after " + maxRetries + " attempts");
-    }
-
     @Override
     public List<Book> listBooksInWishlist(String username) {
         return getActiveWishlist(username)
                 .map(Wishlist::getBooks)
                 .orElse(new ArrayList<>());
     }
+
+    private User findUser(String username) {
+        User user = userService.findByUsername(username);
+        if (user == null) {
+            throw new RuntimeException("User not found");
+        }
+        return user;
+    }
 }
@@ -5,6 +5,9 @@ import mk.finki.ukim.mk.library.model.enumerations.Role;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import java.util.Collection;
+import java.util.Map;
+
 public interface UserService {
     User register(String username, String password, String repeatPassword, String name, String surname, Role role);
 
@@ -13,4 +16,9 @@ public interface UserService {
     UserDetails loadUserByUsername(String username) throws UsernameNotFoundException;
 
     User findByUsername(String username);
+
+    long findTokenVersion(String username);
+
+    // users that no longer exist are left out of the map
+    Map<String, Long> findTokenVersions(Collection<String> usernames);
 }
@@ -1,17 +1,22 @@
 package mk.finki.ukim.mk.library.web;
 
 
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import lombok.RequiredArgsConstructor;
-import mk.finki.ukim.mk.library.model.Dto.DisplayAuthLogDto;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.model.Dto.AuthLogPageDto;
 import mk.finki.ukim.mk.library.service.application.AuthenticationLogApplicationService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/auth-logs")
@@ -22,8 +27,24 @@ public class AuthenticationLogController {
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<DisplayAuthLogDto>> getAllAuthenticationLogs() {
-        List<DisplayAuthLogDto> logs = authenticationLogApplicationService.getAllAuthenticationLogs();
-        return ResponseEntity.ok(logs);
+    @Operation(summary = "Find a page of authentication logs",
+            description = "Returns one keyset-paginated page of logins in [from, to), newest first, optionally for one user. " +
+                    "The range defaults to the last 7 days. Pass the returned nextCursor back to fetch the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor or empty time range")
+    })
+    public ResponseEntity<AuthLogPageDto> findPage(
+            @RequestParam(required = false) String username,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            return ResponseEntity.ok(authenticationLogApplicationService.findPage(username, from, to, cursor, size));
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
@@ -5,14 +5,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import mk.finki.ukim.mk.library.model.Dto.CreateAuthorDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
 import mk.finki.ukim.mk.library.model.projections.AuthorNameProjection;
 import mk.finki.ukim.mk.library.model.views.AuthorsByCountryView;
 import mk.finki.ukim.mk.library.repository.AuthorRepository;
 import mk.finki.ukim.mk.library.repository.AuthorsByCountryViewRepository;
 import mk.finki.ukim.mk.library.service.application.AuthorApplicationService;
+import mk.finki.ukim.mk.library.service.application.CatalogExportApplicationService;
 import mk.finki.ukim.mk.library.service.domain.AuthorService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,12 +29,14 @@ public class AuthorController {
     private final AuthorsByCountryViewRepository authorsByCountryViewRepository;
     private final AuthorRepository authorRepository;
     private final AuthorService authorDomainService;
+    private final CatalogExportApplicationService exportService;
 
-    public AuthorController(AuthorApplicationService authorService, AuthorsByCountryViewRepository authorsByCountryViewRepository, AuthorRepository authorRepository, AuthorService authorDomainService) {
+    public AuthorController(AuthorApplicationService authorService, AuthorsByCountryViewRepository authorsByCountryViewRepository, AuthorRepository authorRepository, AuthorService authorDomainService, CatalogExportApplicationService exportService) {
         this.authorService = authorService;
         this.authorsByCountryViewRepository = authorsByCountryViewRepository;
         this.authorRepository = authorRepository;
         this.authorDomainService = authorDomainService;
+        this.exportService = exportService;
     }
 
     @GetMapping
@@ -40,6 +46,17 @@ public class AuthorController {
         return authorService.findAll();
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Export all authors",
+            description = "Streams every author in id order as NDJSON or CSV, gzip-compressed when the client accepts it")
+    @ApiResponse(responseCode = "200", description = "Export streamed")
+    public ResponseEntity<StreamingResponseBody> exportAuthors(
+            @RequestParam(defaultValue = "NDJSON") CatalogFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return CatalogExports.stream("authors", format, acceptEncoding, out -> exportService.exportAuthors(out, format));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get author by ID", description = "Retrieve a specific author by their ID")
     @ApiResponse(responseCode = "200", description = "Successfully retrieved author")
@@ -84,7 +101,7 @@ public class AuthorController {
 
     @GetMapping("/by-country")
     @Operation(summary = "Get authors count by country",
-            description = "Returns the number of authors for each country from a materialized view that refreshes on author changes")
+            description = "Returns the number of authors for each country from counts maintained incrementally on author changes")
     public ResponseEntity<List<AuthorsByCountryView>> getAuthorsCountByCountry() {
         return ResponseEntity.ok(authorsByCountryViewRepository.findAll());
     }
@@ -4,18 +4,37 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
+import mk.finki.ukim.mk.library.model.Dto.BookBrowsePageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookHistoryPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportResultDto;
+import mk.finki.ukim.mk.library.model.Dto.BookPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
 import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
 import mk.finki.ukim.mk.library.model.views.BooksByAuthorView;
 import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
 import mk.finki.ukim.mk.library.service.application.BookApplicationService;
+import mk.finki.ukim.mk.library.service.application.BookImportApplicationService;
+import mk.finki.ukim.mk.library.service.application.CatalogExportApplicationService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -24,19 +43,126 @@ import java.util.List;
 public class BookController {
 
     private final BookApplicationService bookService;
+    private final BookImportApplicationService bookImportService;
+    private final CatalogExportApplicationService exportService;
     private final BooksByAuthorViewRepository booksByAuthorViewRepository;
 
-    public BookController(BookApplicationService bookService, BooksByAuthorViewRepository booksByAuthorViewRepository) {
+    public BookController(BookApplicationService bookService, BookImportApplicationService bookImportService,
+                          CatalogExportApplicationService exportService,
+                          BooksByAuthorViewRepository booksByAuthorViewRepository) {
         this.bookService = bookService;
+        this.bookImportService = bookImportService;
+        this.exportService = exportService;
         this.booksByAuthorViewRepository = booksByAuthorViewRepository;
     }
 
+    /**
+     * Kept for clients that still expect the whole catalog as a bare array; the list is built once
+     * per catalog change and then served from {@code CatalogCache}, so only the first call after
+     * an edit reads the table. New clients should page through {@code /page} instead.
+     *
+     * @deprecated use {@link #findPage} with its capped page size
+     */
+    @Deprecated
     @GetMapping
-    @Operation(summary = "Find all books", description = "Returns all books in the library")
+    @Operation(summary = "Find all books",
+            description = "Returns all books in the library. Deprecated: use /api/books/page, which returns " +
+                    "at most 100 books per request.")
     public List<DisplayBookDto> findAll() {
         return bookService.findAll();
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "Find a page of books",
+            description = "Returns one keyset-paginated page of books, optionally filtered by category, author or country. " +
+                    "Pass the returned nextCursor back to fetch the following page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor or cursor issued for a different sort")
+    })
+    public ResponseEntity<BookPageDto> findPage(
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) Long countryId,
+            @RequestParam(defaultValue = "ID") BookSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            return ResponseEntity.ok(bookService.findPage(category, authorId, countryId, sort, cursor, size));
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/browse")
+    @Operation(summary = "Browse books by facets",
+            description = "Returns one page of books, in id order, matching every given filter, with the total and " +
+                    "live counts per category, author and country and of available books. Each facet's counts " +
+                    "apply all the other filters, so they show what choosing another value would return.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page and facet counts retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor")
+    })
+    public ResponseEntity<BookBrowsePageDto> browse(
+            @RequestParam(required = false) Category category,
+            @RequestParam(required = false) Long authorId,
+            @RequestParam(required = false) Long countryId,
+            @RequestParam(required = false) Boolean availableOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            return ResponseEntity.ok(bookService.browse(category, authorId, countryId, availableOnly, cursor, size));
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search books",
+            description = "Full-text search over book titles and author names, ignoring case, diacritics and " +
+                    "Cyrillic/Latin script. Every term must match a word or a word prefix; results are ranked " +
+                    "with title matches first.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching books, best first"),
+            @ApiResponse(responseCode = "400", description = "Empty query or negative page")
+    })
+    public ResponseEntity<BookSearchPageDto> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            return ResponseEntity.ok(bookService.search(q, page, size));
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all books",
+            description = "Streams every book in id order as NDJSON or CSV, gzip-compressed when the client accepts it. " +
+                    "The columns match the bulk import, so an export can be imported again.")
+    public ResponseEntity<StreamingResponseBody> exportBooks(
+            @RequestParam(defaultValue = "NDJSON") CatalogFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return CatalogExports.stream("books", format, acceptEncoding, out -> exportService.exportBooks(out, format));
+    }
+
+    @GetMapping("/history/export")
+    @Operation(summary = "Export the history of all books",
+            description = "Streams every recorded revision as a full book state, book by book in revision order, " +
+                    "as NDJSON or CSV, gzip-compressed when the client accepts it")
+    public ResponseEntity<StreamingResponseBody> exportBookHistory(
+            @RequestParam(defaultValue = "NDJSON") CatalogFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        return CatalogExports.stream("book-history", format, acceptEncoding,
+                out -> exportService.exportBookHistory(out, format));
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Find book by ID", description = "Returns a book by its ID")
     public ResponseEntity<DisplayBookDto> findById(@PathVariable Long id) {
@@ -55,14 +181,47 @@ public class BookController {
                 .orElseGet(() -> ResponseEntity.badRequest().build());
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+//    @PreAuthorize("hasRole('ROLE_LIBRARIAN')")
+    @Operation(summary = "Import books in bulk",
+            description = "Streams a CSV (with a header row) or NDJSON body of books with columns name, category, " +
+                    "availableCopies and either authorId or authorName and authorSurname. Valid rows are imported, " +
+                    "invalid ones are reported by row number.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Import finished; see the per-row errors"),
+            @ApiResponse(responseCode = "400", description = "Unsupported content type")
+    })
+    public ResponseEntity<BookImportResultDto> importBooks(HttpServletRequest request) throws IOException {
+        CatalogFormat format;
+        try {
+            format = CatalogFormat.fromContentType(request.getContentType());
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        // read straight from the request instead of binding the body, so it is never held in memory
+        return ResponseEntity.ok(bookImportService.importBooks(request.getInputStream(), format));
+    }
+
     @PutMapping("/edit/{id}")
 //    @PreAuthorize("hasRole('ROLE_LIBRARIAN')")
     @Operation(summary = "Edit a book", description = "Updates an existing book's information")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Book updated successfully"),
+            @ApiResponse(responseCode = "400", description = "No version of the book to base the edit on"),
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "Book was changed concurrently, retry the edit")
+    })
     public ResponseEntity<DisplayBookDto> update(@PathVariable Long id, @RequestBody CreateBookDto bookDto) {
         // Remove Principal parameter
-        return bookService.update(id, bookDto)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        try {
+            return bookService.update(id, bookDto)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/delete/{id}")
@@ -78,11 +237,20 @@ public class BookController {
 
     @PutMapping("/{id}/mark-as-borrowed")
 //    @PreAuthorize("hasRole('ROLE_LIBRARIAN')")
-    @Operation(summary = "Mark book as borrowed", description = "Decreases the available copies count by 1")
+    @Operation(summary = "Mark book as borrowed", description = "Atomically decreases the available copies count by 1 if any copies are left")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Copy borrowed"),
+            @ApiResponse(responseCode = "404", description = "Book not found"),
+            @ApiResponse(responseCode = "409", description = "No copies left")
+    })
     public ResponseEntity<DisplayBookDto> markAsBorrowed(@PathVariable Long id) {
-        return bookService.markAsBorrowed(id)
-                .map(ResponseEntity::ok)
-                .orElseGet(() -> ResponseEntity.notFound().build());
+        try {
+            return bookService.markAsBorrowed(id)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (NotEnoughCopiesException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @GetMapping("/categories")
@@ -92,21 +260,61 @@ public class BookController {
     }
 
     @GetMapping("/{id}/history")
-    @Operation(summary = "Get book change history", description = "Returns the complete change history for a book")
+    @Operation(summary = "Get book change history",
+            description = "Returns one keyset-paginated page of a book's changes, newest first, optionally limited " +
+                    "to modifications in [from, to). Pass the returned nextCursor back to fetch the following page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "History retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Malformed cursor or empty time range"),
             @ApiResponse(responseCode = "404", description = "Book not found")
     })
-    public ResponseEntity<List<DisplayBookHistoryDto>> getBookHistory(@PathVariable Long id) {
-        if (bookService.findById(id).isPresent()) {
-            return ResponseEntity.ok(bookService.getBookHistory(id));
+    public ResponseEntity<BookHistoryPageDto> getBookHistory(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size
+    ) {
+        try {
+            return bookService.getBookHistory(id, from, to, cursor, size)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (InvalidArgumentsException e) {
+            return ResponseEntity.badRequest().build();
         }
-        return ResponseEntity.notFound().build();
+    }
+
+    @GetMapping("/{id}/history/as-of")
+    @Operation(summary = "Get book state at a point in time",
+            description = "Returns the book as recorded by its latest change at or before the given timestamp")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "State retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Book not found or not yet created at that time")
+    })
+    public ResponseEntity<DisplayBookHistoryDto> getBookStateAsOf(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at
+    ) {
+        return bookService.getBookStateAsOf(id, at)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/{id}/history/revisions/{revision}")
+    @Operation(summary = "Get a book revision", description = "Returns the book as it was after the given revision (1-based)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Revision retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Book or revision not found")
+    })
+    public ResponseEntity<DisplayBookHistoryDto> getBookRevision(@PathVariable Long id, @PathVariable int revision) {
+        return bookService.getBookRevision(id, revision)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping("/by-author")
     @Operation(summary = "Get books count by author",
-            description = "Returns the number of books for each author from a materialized view that refreshes hourly")
+            description = "Returns the number of books for each author from a materialized view that is refreshed shortly after book changes")
     public ResponseEntity<List<BooksByAuthorView>> getBooksCountByAuthor() {
         return ResponseEntity.ok(booksByAuthorViewRepository.findAll());
     }
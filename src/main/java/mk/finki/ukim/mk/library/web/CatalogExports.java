@@ -0,0 +1,65 @@
+package mk.finki.ukim.mk.library.web;
+
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds the streamed responses of the export endpoints. The body is written on the MVC async
+ * thread after the handler returns, and gzip is applied only when the client accepts it.
+ */
+final class CatalogExports {
+
+    @FunctionalInterface
+    interface Export {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private CatalogExports() {
+    }
+
+    static ResponseEntity<StreamingResponseBody> stream(String name, CatalogFormat format, String acceptEncoding,
+                                                        Export export) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(format.getMediaType());
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(name + "." + format.name().toLowerCase(Locale.ROOT))
+                .build());
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                // syncFlush, so every chunk the writer flushes reaches the client compressed
+                GZIPOutputStream compressed = new GZIPOutputStream(out, 8192, true);
+                export.writeTo(compressed);
+                compressed.finish();
+            } else {
+                export.writeTo(out);
+            }
+        };
+        return new ResponseEntity<>(body, headers, 200);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,74 @@
+package mk.finki.ukim.mk.library.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.NonNull;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps the number of requests handled at once when each request runs on its own virtual thread.
+ * Tomcat's thread pool used to be that cap; without it every request would start at once and
+ * queue on the connection pool, timing out there instead. A request waits up to max-wait for a
+ * permit, in arrival order, and otherwise gets 503 with a Retry-After. Actuator endpoints are
+ * not limited, so health checks and metrics still answer while the application is saturated.
+ */
+public class RequestConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long maxWaitMs;
+    private final Counter rejected;
+
+    public RequestConcurrencyLimitFilter(int limit, long maxWaitMs, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(limit, true);
+        this.maxWaitMs = maxWaitMs;
+        this.rejected = meterRegistry.counter("library.requests.rejected");
+        Gauge.builder("library.requests.limit", () -> limit).register(meterRegistry);
+        Gauge.builder("library.requests.in_flight", permits, p -> limit - p.availablePermits())
+                .register(meterRegistry);
+        Gauge.builder("library.requests.waiting", permits, Semaphore::getQueueLength)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.equals("/actuator") || path.startsWith("/actuator/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER,
+                    String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(maxWaitMs))));
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
 import mk.finki.ukim.mk.library.exceptions.InvalidUserCredentialsException;
 import mk.finki.ukim.mk.library.exceptions.InvalidUsernameOrPasswordException;
+import mk.finki.ukim.mk.library.exceptions.PasswordHashingBusyException;
 import mk.finki.ukim.mk.library.exceptions.PasswordsDoNotMatchException;
 import mk.finki.ukim.mk.library.exceptions.UserNotFoundException;
 import mk.finki.ukim.mk.library.exceptions.UsernameAlreadyExistsException;
@@ -16,6 +17,8 @@ import mk.finki.ukim.mk.library.model.Dto.DisplayUserDto;
 import mk.finki.ukim.mk.library.model.Dto.LoginResponseDto;
 import mk.finki.ukim.mk.library.model.Dto.LoginUserDto;
 import mk.finki.ukim.mk.library.service.application.UserApplicationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -37,6 +40,8 @@ public class UserController {
                     description = "User registered successfully"
             ), @ApiResponse(
                     responseCode = "400", description = "Invalid input or passwords do not match"
+            ), @ApiResponse(
+                    responseCode = "429", description = "Password hashing is saturated; retry after the Retry-After delay"
             )}
     )
     @PostMapping("/register")
@@ -47,6 +52,8 @@ public class UserController {
                     .orElse(ResponseEntity.notFound().build());
         } catch (InvalidUsernameOrPasswordException | PasswordsDoNotMatchException | UsernameAlreadyExistsException exception) {
             return ResponseEntity.badRequest().build();
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e);
         }
     }
 
@@ -55,7 +62,8 @@ public class UserController {
             value = {@ApiResponse(
                     responseCode = "200",
                     description = "User authenticated successfully"
-            ), @ApiResponse(responseCode = "404", description = "Invalid username or password")}
+            ), @ApiResponse(responseCode = "404", description = "Invalid username or password"),
+                    @ApiResponse(responseCode = "429", description = "Password hashing is saturated; retry after the Retry-After delay")}
     )
     @PostMapping("/login")
     public ResponseEntity<LoginResponseDto> login(@RequestBody LoginUserDto loginUserDto) {
@@ -65,9 +73,17 @@ public class UserController {
                     .orElseThrow(InvalidUserCredentialsException::new);
         } catch (InvalidArgumentsException | UserNotFoundException | InvalidUserCredentialsException e) {
             return ResponseEntity.notFound().build();
+        } catch (PasswordHashingBusyException e) {
+            return tooManyRequests(e);
         }
     }
 
+    private <T> ResponseEntity<T> tooManyRequests(PasswordHashingBusyException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .build();
+    }
+
 //    @Operation(summary = "User logout", description = "Ends the user's session")
 //    @ApiResponse(responseCode = "200", description = "User logged out successfully")
 //    @GetMapping("/logout")
@@ -6,9 +6,12 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import mk.finki.ukim.mk.library.exceptions.BookNotFoundException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayWishlistDto;
 import mk.finki.ukim.mk.library.service.application.WishlistApplicationService;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -83,15 +86,19 @@ public class WishlistController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "All books borrowed successfully",
                     content = @Content(schema = @Schema(implementation = DisplayWishlistDto.class))),
-            @ApiResponse(responseCode = "400", description = "Error borrowing books, possibly due to insufficient copies")
+            @ApiResponse(responseCode = "400", description = "No active wishlist to borrow"),
+            @ApiResponse(responseCode = "404", description = "Books no longer in the catalog; the body lists their ids"),
+            @ApiResponse(responseCode = "409", description = "Not enough copies; the body lists the titles that ran out")
     })
     public ResponseEntity<?> borrowAllBooks(Principal principal) {
         try {
             return wishlistService.borrowAllBooks(principal.getName())
                     .map(ResponseEntity::ok)
                     .orElseGet(() -> ResponseEntity.badRequest().build());
-        } catch (RuntimeException ex) {
-            return ResponseEntity.badRequest().body(ex.getMessage());
+        } catch (NotEnoughCopiesException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getTitles());
+        } catch (BookNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getIds());
         }
     }
 
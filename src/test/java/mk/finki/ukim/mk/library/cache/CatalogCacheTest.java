@@ -0,0 +1,101 @@
+package mk.finki.ukim.mk.library.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CatalogCache catalogCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        catalogCache = new CatalogCache(true, 2, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeHitsAfterwards() {
+        // When
+        List<String> first = catalogCache.get("books", this::load);
+        List<String> second = catalogCache.get("books", this::load);
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.counter("library.catalog.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("library.catalog.cache.misses").count());
+    }
+
+    @Test
+    void onCatalogChanged_ShouldBumpVersionAndForceReload() {
+        // Given
+        catalogCache.get("books", this::load);
+        long version = catalogCache.version();
+
+        // When
+        catalogCache.onCatalogChanged(new CatalogChangedEvent(1L));
+        catalogCache.get("books", this::load);
+
+        // Then
+        assertTrue(catalogCache.version() > version);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheValueLoadedWhileCatalogChanged() {
+        // When
+        catalogCache.get("books", () -> {
+            catalogCache.invalidate();
+            return load();
+        });
+        catalogCache.get("books", this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedEntry_WhenFull() {
+        // Given
+        catalogCache.get("a", this::load);
+        catalogCache.get("b", this::load);
+        catalogCache.get("a", this::load);
+
+        // When
+        catalogCache.get("c", this::load);
+
+        // Then
+        assertEquals(2, catalogCache.size());
+        assertEquals(1.0, meterRegistry.counter("library.catalog.cache.evictions").count());
+        catalogCache.get("a", this::load);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenDisabled() {
+        // Given
+        CatalogCache disabled = new CatalogCache(false, 2, meterRegistry);
+
+        // When
+        disabled.get("books", this::load);
+        disabled.get("books", this::load);
+
+        // Then
+        assertEquals(2, loads.get());
+        assertEquals(0, disabled.size());
+    }
+
+    private List<String> load() {
+        return List.of("value-" + loads.incrementAndGet());
+    }
+}
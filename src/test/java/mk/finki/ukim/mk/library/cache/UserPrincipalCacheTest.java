@@ -0,0 +1,166 @@
+package mk.finki.ukim.mk.library.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.events.UserChangedEvent;
+import mk.finki.ukim.mk.library.model.domain.User;
+import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.service.domain.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserPrincipalCacheTest {
+
+    @Mock
+    private UserService userService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPrincipalCache userPrincipalCache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userPrincipalCache = new UserPrincipalCache(userService, true, 2, 100, meterRegistry);
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndServeHitsAfterwards() {
+        // Given
+        User user = user("alice");
+        when(userService.findByUsername("alice")).thenReturn(user);
+
+        // When
+        User first = userPrincipalCache.get("alice");
+        User second = userPrincipalCache.get("alice");
+
+        // Then each caller gets its own copy
+        assertEquals(user, first);
+        assertEquals(user, second);
+        assertNotSame(user, first);
+        assertNotSame(first, second);
+        verify(userService, times(1)).findByUsername("alice");
+        verify(userService, never()).findTokenVersion(anyString());
+        assertEquals(1.0, meterRegistry.counter("library.user_principal.cache.hits").count());
+        assertEquals(1.0, meterRegistry.counter("library.user_principal.cache.misses").count());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsed_WhenFull() {
+        // Given
+        when(userService.findByUsername(anyString())).thenAnswer(invocation -> user(invocation.getArgument(0)));
+        userPrincipalCache.get("alice");
+        userPrincipalCache.get("bob");
+        userPrincipalCache.get("alice");
+
+        // When
+        userPrincipalCache.get("carol");
+        userPrincipalCache.get("bob");
+
+        // Then
+        assertEquals(2, userPrincipalCache.size());
+        verify(userService, times(2)).findByUsername("bob");
+        verify(userService, times(1)).findByUsername("alice");
+    }
+
+    @Test
+    void onUserChanged_ShouldEvictUserAndTakeTheNewTokenVersionFromTheEvent() {
+        // Given
+        User changed = user("alice");
+        changed.setTokenVersion(1L);
+        when(userService.findByUsername("alice")).thenReturn(user("alice"), changed);
+        userPrincipalCache.get("alice");
+        assertFalse(userPrincipalCache.isStale("alice", 0));
+
+        // When the write bumped the persisted token version
+        userPrincipalCache.onUserChanged(new UserChangedEvent("alice", 1L));
+        userPrincipalCache.get("alice");
+
+        // Then
+        verify(userService, times(2)).findByUsername("alice");
+        verify(userService, never()).findTokenVersion(anyString());
+        assertTrue(userPrincipalCache.isStale("alice", 0));
+        assertFalse(userPrincipalCache.isStale("alice", 1));
+    }
+
+    @Test
+    void isStale_ShouldReadTheDatabaseOnlyOnAMiss() {
+        // Given
+        when(userService.findTokenVersion("alice")).thenReturn(3L);
+
+        // When
+        boolean first = userPrincipalCache.isStale("alice", 3);
+        boolean second = userPrincipalCache.isStale("alice", 3);
+        boolean older = userPrincipalCache.isStale("alice", 2);
+
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        assertTrue(older);
+        verify(userService, times(1)).findTokenVersion("alice");
+    }
+
+    @Test
+    void get_ShouldReload_WhenTheRefreshSeesAnotherInstanceBumpedTheTokenVersion() {
+        // Given no event reaches this instance
+        User locked = user("alice");
+        locked.setAccountNonLocked(false);
+        locked.setTokenVersion(1L);
+        when(userService.findByUsername("alice")).thenReturn(user("alice"), locked);
+        when(userService.findTokenVersions(List.of("alice"))).thenReturn(Map.of("alice", 1L));
+        userPrincipalCache.get("alice");
+
+        // When
+        userPrincipalCache.refreshTokenVersions();
+        User reloaded = userPrincipalCache.get("alice");
+
+        // Then
+        assertFalse(reloaded.isAccountNonLocked());
+        assertTrue(userPrincipalCache.isStale("alice", 0));
+        verify(userService, times(2)).findByUsername("alice");
+        verify(userService, never()).findTokenVersion(anyString());
+    }
+
+    @Test
+    void isStale_ShouldFail_WhenTheRefreshFindsTheUserDeleted() {
+        // Given
+        when(userService.findTokenVersion("alice")).thenReturn(0L)
+                .thenThrow(new UsernameNotFoundException("alice"));
+        userPrincipalCache.isStale("alice", 0);
+        when(userService.findTokenVersions(List.of("alice"))).thenReturn(Map.of());
+
+        // When
+        userPrincipalCache.refreshTokenVersions();
+
+        // Then
+        assertThrows(UsernameNotFoundException.class, () -> userPrincipalCache.isStale("alice", 0));
+    }
+
+    @Test
+    void get_ShouldAlwaysLoad_WhenDisabled() {
+        // Given
+        userPrincipalCache = new UserPrincipalCache(userService, false, 2, 100, meterRegistry);
+        when(userService.findByUsername("alice")).thenReturn(user("alice"));
+
+        // When
+        userPrincipalCache.get("alice");
+        userPrincipalCache.get("alice");
+
+        // Then
+        verify(userService, times(2)).findByUsername("alice");
+        assertEquals(0, userPrincipalCache.size());
+    }
+
+    private User user(String username) {
+        return new User(username, "password", "Test", "User", Role.ROLE_USER);
+    }
+}
@@ -1,7 +1,12 @@
 package mk.finki.ukim.mk.library.config;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.jsonwebtoken.Jwts;
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
 import mk.finki.ukim.mk.library.model.domain.User;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.security.JwtConstants;
 import mk.finki.ukim.mk.library.security.JwtHelper;
 import mk.finki.ukim.mk.library.security.JwtFilter;
 import mk.finki.ukim.mk.library.service.domain.UserService;
@@ -20,6 +25,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.util.Date;
+
 import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.*;
 
@@ -54,6 +61,22 @@ public class IntegrationTestConfig {
             return "testuser"; // fallback
         });
 
+        when(mockJwtHelper.parseClaims(anyString())).thenAnswer(invocation -> {
+            String token = invocation.getArgument(0);
+            String username = token.startsWith("mock-jwt-token-")
+                    ? token.substring("mock-jwt-token-".length())
+                    : "testuser"; // fallback
+            return Jwts.claims()
+                    .setSubject(username)
+                    .setExpiration(new Date(System.currentTimeMillis() + JwtConstants.EXPIRATION_TIME));
+        });
+
+        when(mockJwtHelper.isValid(any(Claims.class), any(User.class))).thenAnswer(invocation -> {
+            Claims claims = invocation.getArgument(0);
+            User user = invocation.getArgument(1);
+            return claims.getSubject().equals(user.getUsername());
+        });
+
         when(mockJwtHelper.isValid(anyString(), any(User.class))).thenAnswer(invocation -> {
             String token = invocation.getArgument(0);
             User user = invocation.getArgument(1);
@@ -68,8 +91,10 @@ public class IntegrationTestConfig {
     @Primary
     @Profile("integration-test")
     public JwtFilter testJwtFilter(UserService userService) {
-        // Create a test JwtFilter with the test JwtHelper and real UserService
-        return new JwtFilter(testJwtHelper(), userService);
+        // Create a test JwtFilter with the test JwtHelper and real UserService. The mock tokens carry
+        // no role claims and test transactions roll back user rows, so load the user on every request
+        UserPrincipalCache userPrincipalCache = new UserPrincipalCache(userService, false, 0, 0, new SimpleMeterRegistry());
+        return new JwtFilter(testJwtHelper(), userPrincipalCache, false);
     }
 
     @Bean
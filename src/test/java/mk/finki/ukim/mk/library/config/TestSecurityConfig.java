@@ -1,5 +1,7 @@
 package mk.finki.ukim.mk.library.config;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
 import mk.finki.ukim.mk.library.config.CustomUsernamePasswordAuthenticationProvider;
 import mk.finki.ukim.mk.library.config.UserContext;
 import mk.finki.ukim.mk.library.model.domain.User;
@@ -56,8 +58,9 @@ public class TestSecurityConfig {
     @Primary
     @Profile("test")
     public JwtFilter testJwtFilter() {
-        // Create a test JwtFilter with the test JwtHelper and mock UserService
-        return new JwtFilter(testJwtHelper(), testUserService());
+        // Create a test JwtFilter with the test JwtHelper and mock UserService, loading the user on every request
+        UserPrincipalCache userPrincipalCache = new UserPrincipalCache(testUserService(), false, 0, 0, new SimpleMeterRegistry());
+        return new JwtFilter(testJwtHelper(), userPrincipalCache, false);
     }
 
     @Bean
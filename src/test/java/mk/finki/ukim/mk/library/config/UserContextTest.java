@@ -1,7 +1,9 @@
 package mk.finki.ukim.mk.library.config;
 
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
 import mk.finki.ukim.mk.library.model.domain.User;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.security.JwtPrincipal;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -14,6 +16,8 @@ import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
 
@@ -31,6 +35,9 @@ class UserContextTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private UserPrincipalCache userPrincipalCache;
+
     @InjectMocks
     private UserContext userContext;
 
@@ -185,4 +192,19 @@ class UserContextTest {
         // Then
         assertSame(firstCall, secondCall);
     }
+
+    @Test
+    void getCurrentUser_ShouldLoadFullUser_WhenAuthenticatedFromTokenClaims() {
+        // Given
+        JwtPrincipal principal = new JwtPrincipal("testuser", List.of(Role.ROLE_USER), true, true, true, true);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(principal);
+        when(userPrincipalCache.get("testuser")).thenReturn(testUser);
+
+        // When
+        User currentUser = userContext.getCurrentUser();
+
+        // Then
+        assertSame(testUser, currentUser);
+    }
 }
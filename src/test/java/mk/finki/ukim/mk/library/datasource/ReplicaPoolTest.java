@@ -0,0 +1,193 @@
+package mk.finki.ukim.mk.library.datasource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.cache.CatalogCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Routes through the same proxy and routing data source as production, with one in-memory H2
+ * database each standing in for the primary and two replicas. Every database holds its own name,
+ * so a query shows where it ran; the lag query reads a lag the test sets per replica.
+ */
+class ReplicaPoolTest {
+
+    private static final long MAX_LAG_MS = 5_000;
+    private static final long CHECK_INTERVAL_MS = 500;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private DataSource primary;
+    private Map<String, DataSource> replicas;
+    private ReplicaPool pool;
+    private ReadYourWritesTracker tracker;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", database("replica-1"));
+        replicas.put("replica-2", database("replica-2"));
+        tracker = new ReadYourWritesTracker(clock::get);
+        pool = new ReplicaPool(primary, replicas, tracker, "SELECT lag_ms FROM replica_state",
+                MAX_LAG_MS, CHECK_INTERVAL_MS, new SimpleMeterRegistry());
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReadOnlyRoutingDataSource(primary, pool));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactionManager.addListener(tracker);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactions_ShouldTakeHealthyReplicasInTurn() {
+        // Given replicas are only used once checked
+        String beforeCheck = readOnlyQuery();
+        pool.checkHealth();
+
+        // When
+        List<String> reads = List.of(readOnlyQuery(), readOnlyQuery(), readOnlyQuery());
+        String write = readWrite.execute(status -> whereAmI());
+
+        // Then
+        assertEquals("primary", beforeCheck);
+        assertEquals(List.of("replica-2", "replica-1", "replica-2"), reads);
+        assertEquals("primary", write);
+        assertEquals("primary", whereAmI());
+    }
+
+    @Test
+    void checkHealth_ShouldSkipLaggingReplicasAndFallBackToPrimary() {
+        // Given
+        setLag("replica-1", MAX_LAG_MS + 1);
+        pool.checkHealth();
+
+        // When
+        List<String> oneLagging = List.of(readOnlyQuery(), readOnlyQuery());
+        setLag("replica-2", MAX_LAG_MS + 1);
+        pool.checkHealth();
+        String bothLagging = readOnlyQuery();
+        setLag("replica-1", 0);
+        pool.checkHealth();
+
+        // Then
+        assertEquals(List.of("replica-2", "replica-2"), oneLagging);
+        assertEquals("primary", bothLagging);
+        assertEquals("replica-1", readOnlyQuery());
+    }
+
+    @Test
+    void readYourWrites_ShouldKeepTheWritersReadsOnPrimaryUntilReplicasCatchUp() {
+        // Given both replicas are 100 ms behind and alice has just written
+        setLag("replica-1", 100);
+        setLag("replica-2", 100);
+        pool.checkHealth();
+        signIn("alice");
+        readWrite.executeWithoutResult(status -> whereAmI());
+
+        // When
+        clock.addAndGet(200);
+        String aliceSoonAfter = readOnlyQuery();
+        signIn("bob");
+        String bob = readOnlyQuery();
+        signIn("alice");
+        clock.addAndGet(CHECK_INTERVAL_MS);
+        String aliceLater = readOnlyQuery();
+
+        // Then
+        assertEquals("primary", aliceSoonAfter);
+        assertEquals("replica-2", bob);
+        assertEquals("replica-1", aliceLater);
+    }
+
+    @Test
+    void catalogCacheLoads_ShouldReadFromPrimary_WhenAnotherUserIsFirstAfterAWrite() {
+        // Given both replicas are 100 ms behind, alice has just written, and bob reads next
+        setLag("replica-1", 100);
+        setLag("replica-2", 100);
+        pool.checkHealth();
+        signIn("alice");
+        readWrite.executeWithoutResult(status -> whereAmI());
+        signIn("bob");
+        CatalogCache catalogCache = new CatalogCache(true, 10, new SimpleMeterRegistry());
+
+        // When
+        String cached = catalogCache.get("marker", this::readOnlyQuery);
+        String uncached = readOnlyQuery();
+
+        // Then the cached value cannot predate alice's write
+        assertEquals("primary", cached);
+        assertEquals("replica-1", uncached);
+        assertEquals("primary", catalogCache.get("marker", this::readOnlyQuery));
+    }
+
+    @Test
+    void checkHealth_ShouldForgetWritesOlderThanAnyUsableReplicaLag() {
+        // Given
+        signIn("alice");
+        readWrite.executeWithoutResult(status -> whereAmI());
+        pool.checkHealth();
+        assertEquals(1, tracker.size());
+
+        // When
+        clock.addAndGet(MAX_LAG_MS + CHECK_INTERVAL_MS + 1);
+        pool.checkHealth();
+
+        // Then
+        assertEquals(0, tracker.size());
+    }
+
+    private String readOnlyQuery() {
+        return readOnly.execute(status -> whereAmI());
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private void setLag(String replica, long lagMs) {
+        new JdbcTemplate(replicas.get(replica)).update("UPDATE replica_state SET lag_ms = ?", lagMs);
+    }
+
+    private static void signIn(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(username, null, List.of()));
+    }
+
+    private static DataSource database(String name) {
+        DataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+        jdbc.update("INSERT INTO marker (name) VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_state (lag_ms BIGINT)");
+        jdbc.update("INSERT INTO replica_state (lag_ms) VALUES (0)");
+        return dataSource;
+    }
+}
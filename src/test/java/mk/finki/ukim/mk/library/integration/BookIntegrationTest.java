@@ -34,6 +34,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -188,7 +189,8 @@ class BookIntegrationTest {
                 "Updated Book",
                 Category.BIOGRAPHY,
                 testAuthor.getId(),
-                15
+                15,
+                bookRepository.findById(testBook.getId()).orElseThrow().getVersion()
         );
 
         // When & Then
@@ -209,6 +211,30 @@ class BookIntegrationTest {
         assert updatedBook.getAvailableCopies() == 15;
     }
 
+    @Test
+    void update_ShouldReturnConflict_WhenBookWasBorrowedSinceItWasRead() throws Exception {
+        // Given the client read the book, then a copy was borrowed
+        Long readVersion = bookRepository.findById(testBook.getId()).orElseThrow().getVersion();
+        mockMvc.perform(put("/api/books/{id}/mark-as-borrowed", testBook.getId()))
+                .andExpect(status().isOk());
+        CreateBookDto updateBookDto = new CreateBookDto(
+                "Updated Book",
+                Category.BIOGRAPHY,
+                testAuthor.getId(),
+                15,
+                readVersion
+        );
+
+        // When & Then
+        mockMvc.perform(put("/api/books/edit/{id}", testBook.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookDto)))
+                .andExpect(status().isConflict());
+        Book unchanged = bookRepository.findById(testBook.getId()).orElseThrow();
+        assert unchanged.getName().equals(testBook.getName());
+        assert unchanged.getAvailableCopies() == testBook.getAvailableCopies() - 1;
+    }
+
     @Test
     void update_ShouldReturnNotFound_WhenBookDoesNotExist() throws Exception {
         // Given
@@ -216,7 +242,8 @@ class BookIntegrationTest {
                 "Updated Book",
                 Category.BIOGRAPHY,
                 testAuthor.getId(),
-                15
+                15,
+                0L
         );
 
         // When & Then
@@ -226,6 +253,24 @@ class BookIntegrationTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void update_ShouldReturnBadRequestWithoutChanges_WhenEditCarriesNoVersion() throws Exception {
+        // Given
+        CreateBookDto updateBookDto = new CreateBookDto(
+                "Updated Book",
+                Category.BIOGRAPHY,
+                testAuthor.getId(),
+                15
+        );
+
+        // When & Then
+        mockMvc.perform(put("/api/books/edit/{id}", testBook.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateBookDto)))
+                .andExpect(status().isBadRequest());
+        assert bookRepository.findById(testBook.getId()).orElseThrow().getName().equals(testBook.getName());
+    }
+
     @Test
     void delete_ShouldDeleteBook_WhenBookExists() throws Exception {
         // When & Then
@@ -283,4 +328,35 @@ class BookIntegrationTest {
                 .andExpect(jsonPath("$", hasItem("CLASSICS")))
                 .andExpect(jsonPath("$", hasItem("DRAMA")));
     }
+
+    @Test
+    @WithMockUser(username = "dj")
+    void importBooks_ShouldInsertValidCsvRowsWithTheirFirstRevision() throws Exception {
+        // Given
+        String csv = "name,category,authorId,authorName,authorSurname,availableCopies\n" +
+                "Imported One,NOVEL," + testAuthor.getId() + ",,,2\n" +
+                "Imported Two,DRAMA,,Test,Author,1\n" +
+                "Orphan,NOVEL,,Nobody,Known,1\n";
+
+        // When & Then
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows", is(3)))
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(3)));
+
+        assertEquals(3, bookRepository.count());
+        Book imported = bookRepository.findAll().stream()
+                .filter(book -> book.getName().equals("Imported Two"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(testAuthor.getId(), imported.getAuthor().getId());
+        mockMvc.perform(get("/api/books/" + imported.getId() + "/history/revisions/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Imported Two")))
+                .andExpect(jsonPath("$.modifiedBy", is("dj")));
+    }
 }
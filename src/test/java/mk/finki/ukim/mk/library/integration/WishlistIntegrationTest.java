@@ -238,14 +238,15 @@ class WishlistIntegrationTest {
 
     @Test
     @WithMockUser(username = "testuser")
-    void markAsBorrowed_ShouldReturnBadRequest_WhenInsufficientCopies() throws Exception {
+    void markAsBorrowed_ShouldReturnConflictWithTitles_WhenInsufficientCopies() throws Exception {
         // Given - set book available copies to 0
         testBook1.setAvailableCopies(0);
         bookRepository.save(testBook1);
 
         // When & Then
         mockMvc.perform(post("/api/wishlist/borrow"))
-                .andExpect(status().isBadRequest());
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$[0]").value(testBook1.getName()));
 
         // Verify wishlist status was not changed
         Wishlist unchangedWishlist = wishlistRepository.findById(testWishlist.getId()).orElseThrow();
@@ -0,0 +1,81 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationLogRetentionJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthenticationLogRetentionJob job;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        job = new AuthenticationLogRetentionJob(jdbcTemplate, meterRegistry, 30);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rollUp_ShouldAddToExistingDaysInsertNewOnesAndDeleteRows() {
+        // Given
+        LocalDate day = LocalDate.now().minusDays(40);
+        LocalDateTime cutoff = LocalDate.now().minusDays(30).atStartOfDay();
+        when(jdbcTemplate.query(eq(AuthenticationLogRetentionJob.COUNT_EXPIRED),
+                ArgumentMatchers.<RowMapper<AuthenticationLogRetentionJob.DailyCount>>any(), eq(cutoff)))
+                .thenReturn(List.of(
+                        new AuthenticationLogRetentionJob.DailyCount("alice", day, 3),
+                        new AuthenticationLogRetentionJob.DailyCount("bob", day, 2)));
+        when(jdbcTemplate.batchUpdate(eq(AuthenticationLogRetentionJob.ADD_TO_DAY), ArgumentMatchers.<List<Object[]>>any()))
+                .thenReturn(new int[]{1, 0});
+        when(jdbcTemplate.update(AuthenticationLogRetentionJob.DELETE_EXPIRED, cutoff)).thenReturn(5);
+
+        // When
+        long rolledUp = job.rollUp();
+
+        // Then
+        assertEquals(5, rolledUp);
+        ArgumentCaptor<List<Object[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuthenticationLogRetentionJob.INSERT_DAY), inserted.capture());
+        assertEquals(1, inserted.getValue().size());
+        assertArrayEquals(new Object[]{"bob", day, 2L}, inserted.getValue().get(0));
+        assertEquals(5.0, meterRegistry.counter("library.auth_log.rolled_up").count());
+    }
+
+    @Test
+    void rollUp_ShouldDoNothing_WhenNothingIsOlderThanRetention() {
+        // Given
+        when(jdbcTemplate.query(eq(AuthenticationLogRetentionJob.COUNT_EXPIRED),
+                ArgumentMatchers.<RowMapper<AuthenticationLogRetentionJob.DailyCount>>any(), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+
+        // When
+        long rolledUp = job.rollUp();
+
+        // Then
+        assertEquals(0, rolledUp);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any());
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+    }
+}
@@ -0,0 +1,115 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthenticationLogWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldInsertBufferedLogsInBatches() {
+        // Given
+        AuthenticationLogWriter writer = writer(10, 2);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(writer.append(log("user" + i)));
+        }
+
+        // When
+        writer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(eq(AuthenticationLogWriter.INSERT), batches.capture());
+        assertEquals(List.of(2, 2, 1), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals("user0", batches.getAllValues().get(0).get(0)[0]);
+        assertEquals(0, writer.buffered());
+        assertEquals(5.0, meterRegistry.counter("library.auth_log.written").count());
+    }
+
+    @Test
+    void append_ShouldDropAndCount_WhenBufferIsFull() {
+        // Given
+        AuthenticationLogWriter writer = writer(2, 10);
+        writer.append(log("a"));
+        writer.append(log("b"));
+
+        // When
+        boolean accepted = writer.append(log("c"));
+
+        // Then
+        assertFalse(accepted);
+        assertEquals(2, writer.buffered());
+        assertEquals(1.0, meterRegistry.counter("library.auth_log.dropped").count());
+    }
+
+    @Test
+    void stop_ShouldFlushWhatIsStillBuffered() {
+        // Given
+        AuthenticationLogWriter writer = writer(10, 10);
+        writer.append(log("a"));
+        writer.append(log("b"));
+
+        // When
+        writer.stop();
+
+        // Then
+        verify(jdbcTemplate).batchUpdate(eq(AuthenticationLogWriter.INSERT), ArgumentMatchers.<List<Object[]>>any());
+        assertEquals(0, writer.buffered());
+        assertFalse(writer.isRunning());
+    }
+
+    @Test
+    void flush_ShouldCountFailedBatchAndKeepGoing() {
+        // Given
+        AuthenticationLogWriter writer = writer(10, 1);
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any()))
+                .thenThrow(new DataAccessResourceFailureException("connection refused"))
+                .thenReturn(new int[]{1});
+        writer.append(log("a"));
+        writer.append(log("b"));
+
+        // When
+        writer.flush();
+
+        // Then
+        assertEquals(1.0, meterRegistry.counter("library.auth_log.failed").count());
+        assertEquals(1.0, meterRegistry.counter("library.auth_log.written").count());
+    }
+
+    private AuthenticationLogWriter writer(int capacity, int batchSize) {
+        return new AuthenticationLogWriter(jdbcTemplate, meterRegistry, capacity, batchSize, 100, 0);
+    }
+
+    private AuthenticationLog log(String username) {
+        LocalDateTime now = LocalDateTime.now();
+        return new AuthenticationLog(username, "fingerprint", now, now.plusDays(10));
+    }
+}
@@ -0,0 +1,94 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthorsByCountryReconcilerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Environment environment;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AuthorsByCountryReconciler reconciler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        reconciler = new AuthorsByCountryReconciler(jdbcTemplate, environment, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_ShouldRepairDriftedCountries() {
+        // Given
+        when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(false);
+        when(jdbcTemplate.query(eq(AuthorsByCountryReconciler.FIND_DRIFT),
+                ArgumentMatchers.<RowMapper<AuthorsByCountryReconciler.CountDrift>>any()))
+                .thenReturn(List.of(
+                        new AuthorsByCountryReconciler.CountDrift(1L, 3, 2),
+                        new AuthorsByCountryReconciler.CountDrift(2L, 0, 1)));
+
+        // When
+        int repaired = reconciler.reconcile();
+
+        // Then
+        assertEquals(2, repaired);
+        verify(jdbcTemplate).execute("LOCK TABLE author IN SHARE MODE");
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(AuthorsByCountryReconciler.REPAIR), rows.capture());
+        assertArrayEquals(new Object[]{1L, 3L}, rows.getValue().get(0));
+        assertArrayEquals(new Object[]{2L, 0L}, rows.getValue().get(1));
+        assertEquals(2.0, meterRegistry.counter("library.authors_by_country.repairs").count());
+    }
+
+    @Test
+    void reconcile_ShouldNotWrite_WhenCountsMatch() {
+        // Given
+        when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(false);
+        when(jdbcTemplate.query(eq(AuthorsByCountryReconciler.FIND_DRIFT),
+                ArgumentMatchers.<RowMapper<AuthorsByCountryReconciler.CountDrift>>any()))
+                .thenReturn(List.of());
+
+        // When
+        int repaired = reconciler.reconcile();
+
+        // Then
+        assertEquals(0, repaired);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any());
+    }
+
+    @Test
+    void reconcile_ShouldSkip_UnderTestProfiles() {
+        // Given
+        when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(true);
+
+        // When
+        int repaired = reconciler.reconcile();
+
+        // Then
+        assertEquals(0, repaired);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
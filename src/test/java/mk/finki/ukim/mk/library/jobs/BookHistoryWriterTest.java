@@ -0,0 +1,236 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.events.BookRevisionEvent;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.BookHistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookHistoryWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private BookHistoryRepository bookHistoryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldInsertRevisionsInBatchesAndRecordLag() {
+        // Given
+        BookHistoryWriter writer = writer(10, 2);
+        for (long id = 1; id <= 3; id++) {
+            assertTrue(writer.append(revision(id)));
+        }
+
+        // When
+        writer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batches = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(eq(BookHistoryWriter.INSERT), batches.capture());
+        assertEquals(List.of(2, 1), batches.getAllValues().stream().map(List::size).toList());
+        Object[] first = batches.getAllValues().get(0).get(0);
+        assertEquals(1, first[0]);
+        assertEquals(true, first[1]);
+        assertEquals("Book 1", first[2]);
+        assertEquals("NOVEL", first[3]);
+        assertEquals("librarian", first[7]);
+        assertEquals(1L, first[8]);
+        assertEquals(3.0, meterRegistry.counter("library.book_history.written").count());
+        assertEquals(3, meterRegistry.timer("library.book_history.lag").count());
+        assertEquals(0, writer.buffered());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldStoreOnlyChangedFieldsBetweenSnapshots() {
+        // Given a snapshot every 3 revisions
+        BookHistoryWriter writer = new BookHistoryWriter(jdbcTemplate, bookHistoryRepository, transactionManager,
+                meterRegistry, 10, 10, 100, 0, 3);
+        for (int copies = 3; copies > 0; copies--) {
+            writer.append(revision(1L, "Book 1", copies));
+        }
+        writer.append(revision(1L, "Renamed", 1));
+
+        // When
+        writer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(BookHistoryWriter.INSERT), batch.capture());
+        List<Object[]> rows = batch.getValue();
+        // revision 2: only the copies changed
+        assertArrayEquals(new Object[]{2, false, null, null, null, 2}, Arrays.copyOf(rows.get(1), 6));
+        // revision 4 starts a new interval, so it is complete even though only the name changed
+        assertArrayEquals(new Object[]{4, true, "Renamed", "NOVEL", 7L, 1}, Arrays.copyOf(rows.get(3), 6));
+        // the database is only asked once for the book's last revision
+        verify(bookHistoryRepository).findLatestRevision(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldContinueFromLastStoredRevision() {
+        // Given revision 5 is stored, rebuilt from the snapshot at revision 4
+        BookHistoryWriter writer = writer(10, 10);
+        when(bookHistoryRepository.findLatestRevision(1L)).thenReturn(5);
+        when(bookHistoryRepository.findChain(1L, 5, 5)).thenReturn(List.of(
+                new DisplayBookHistoryDto(40L, 1L, 4, "Book 1", Category.NOVEL, 7L, "Test Author", 3, null, "librarian"),
+                new DisplayBookHistoryDto(50L, 1L, 5, null, null, null, null, 2, null, "librarian")));
+        writer.append(revision(1L, "Book 1", 2));
+
+        // When
+        writer.flush();
+
+        // Then nothing changed since revision 5, so revision 6 stores no fields
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(BookHistoryWriter.INSERT), batch.capture());
+        assertArrayEquals(new Object[]{6, false, null, null, null, null}, Arrays.copyOf(batch.getValue().get(0), 6));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldWriteSnapshot_WhenRevisionClearsAField() {
+        // Given the second revision removes the author, which a delta could not tell from no change
+        BookHistoryWriter writer = writer(10, 10);
+        writer.append(revision(1L));
+        Book withoutAuthor = new Book("Book 1", Category.NOVEL, null, 3);
+        withoutAuthor.setId(1L);
+        writer.append(new BookRevisionEvent(withoutAuthor, "librarian"));
+
+        // When
+        writer.flush();
+
+        // Then
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(BookHistoryWriter.INSERT), batch.capture());
+        assertArrayEquals(new Object[]{2, true, "Book 1", "NOVEL", null, 3}, Arrays.copyOf(batch.getValue().get(1), 6));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flush_ShouldTreatStoredSnapshotsAsComplete_WhenContinuingFromDatabase() {
+        // Given revision 2 cleared the author and was stored as a snapshot
+        BookHistoryWriter writer = writer(10, 10);
+        when(bookHistoryRepository.findLatestRevision(1L)).thenReturn(2);
+        when(bookHistoryRepository.findChain(1L, 2, 2)).thenReturn(List.of(
+                new DisplayBookHistoryDto(10L, 1L, 1, "Book 1", Category.NOVEL, 7L, "Test Author", 3, null, "librarian", true),
+                new DisplayBookHistoryDto(20L, 1L, 2, "Book 1", Category.NOVEL, null, null, 3, null, "librarian", true)));
+        writer.append(revision(1L, "Book 1", 3));
+
+        // When
+        writer.flush();
+
+        // Then the author is set again, so revision 3 records it
+        ArgumentCaptor<List<Object[]>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(BookHistoryWriter.INSERT), batch.capture());
+        assertArrayEquals(new Object[]{3, false, null, null, 7L, null}, Arrays.copyOf(batch.getValue().get(0), 6));
+    }
+
+    @Test
+    void onBookRevision_ShouldOnlyQueueAfterCommit() {
+        // Given
+        BookHistoryWriter writer = writer(10, 10);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            writer.onBookRevision(revision(1L));
+
+            // Then
+            assertEquals(0, writer.buffered());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(1, writer.buffered());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void append_ShouldWriteSynchronously_WhenBufferIsFull() {
+        // Given
+        BookHistoryWriter writer = writer(1, 10);
+        writer.append(revision(1L));
+
+        // When
+        boolean queued = writer.append(revision(2L));
+
+        // Then nothing is dropped: the overflowing revision is written in its own transaction
+        assertFalse(queued);
+        assertEquals(1, writer.buffered());
+        verify(transactionManager).getTransaction(any());
+        verify(jdbcTemplate).batchUpdate(eq(BookHistoryWriter.INSERT), ArgumentMatchers.<List<Object[]>>any());
+        assertEquals(1.0, meterRegistry.counter("library.book_history.overflowed").count());
+    }
+
+    @Test
+    void flush_ShouldRetryFailedBatchOneByOne() {
+        // Given
+        BookHistoryWriter writer = writer(10, 10);
+        when(jdbcTemplate.batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any()))
+                .thenThrow(new DataIntegrityViolationException("unknown user"))
+                .thenReturn(new int[]{1})
+                .thenThrow(new DataIntegrityViolationException("unknown user"));
+        writer.append(revision(1L));
+        writer.append(revision(2L));
+
+        // When
+        writer.flush();
+
+        // Then
+        verify(jdbcTemplate, times(3)).batchUpdate(anyString(), ArgumentMatchers.<List<Object[]>>any());
+        assertEquals(1.0, meterRegistry.counter("library.book_history.written").count());
+        assertEquals(1.0, meterRegistry.counter("library.book_history.failed").count());
+    }
+
+    private BookHistoryWriter writer(int capacity, int batchSize) {
+        return new BookHistoryWriter(jdbcTemplate, bookHistoryRepository, transactionManager, meterRegistry,
+                capacity, batchSize, 100, 0, 10);
+    }
+
+    private BookRevisionEvent revision(Long bookId) {
+        return revision(bookId, "Book " + bookId, 3);
+    }
+
+    private BookRevisionEvent revision(Long bookId, String name, int availableCopies) {
+        Author author = new Author("Test", "Author", new Country("Test Country", "Test Continent"));
+        author.setId(7L);
+        Book book = new Book(name, Category.NOVEL, author, availableCopies);
+        book.setId(bookId);
+        return new BookRevisionEvent(book, "librarian");
+    }
+}
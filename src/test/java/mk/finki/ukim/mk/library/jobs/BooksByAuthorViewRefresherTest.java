@@ -0,0 +1,128 @@
+package mk.finki.ukim.mk.library.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BooksByAuthorViewRefresherTest {
+
+    @Mock
+    private BooksByAuthorViewRepository booksByAuthorViewRepository;
+
+    @Mock
+    private Environment environment;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(false);
+    }
+
+    @Test
+    void refreshIfDue_ShouldCoalesceBurstIntoSingleRefresh() {
+        // Given
+        BooksByAuthorViewRefresher refresher = refresher(0, 60_000);
+        refresher.markDirty();
+        refresher.markDirty();
+        refresher.markDirty();
+
+        // When
+        refresher.refreshIfDue();
+        refresher.refreshIfDue();
+
+        // Then
+        verify(booksByAuthorViewRepository, times(1)).refreshMaterializedViewConcurrently();
+        assertFalse(refresher.isDirty());
+        assertNotNull(refresher.getLastRefreshAt());
+        assertEquals(1, meterRegistry.timer("library.books_by_author.refresh").count());
+    }
+
+    @Test
+    void refreshIfDue_ShouldWait_WhileWritesAreStillArriving() {
+        // Given
+        BooksByAuthorViewRefresher refresher = refresher(60_000, 60_000);
+        refresher.markDirty();
+
+        // When
+        refresher.refreshIfDue();
+
+        // Then
+        verify(booksByAuthorViewRepository, never()).refreshMaterializedViewConcurrently();
+        assertTrue(refresher.isDirty());
+    }
+
+    @Test
+    void refreshIfDue_ShouldRefresh_WhenMaxStalenessReached() {
+        // Given
+        BooksByAuthorViewRefresher refresher = refresher(60_000, 0);
+        refresher.markDirty();
+
+        // When
+        refresher.refreshIfDue();
+
+        // Then
+        verify(booksByAuthorViewRepository).refreshMaterializedViewConcurrently();
+        assertFalse(refresher.isDirty());
+    }
+
+    @Test
+    void refreshIfDue_ShouldDoNothing_WhenClean() {
+        // Given
+        BooksByAuthorViewRefresher refresher = refresher(0, 0);
+
+        // When
+        refresher.refreshIfDue();
+
+        // Then
+        verifyNoInteractions(booksByAuthorViewRepository);
+    }
+
+    @Test
+    void refreshNow_ShouldKeepViewDirty_WhenRefreshFails() {
+        // Given
+        BooksByAuthorViewRefresher refresher = refresher(0, 60_000);
+        refresher.markDirty();
+        doThrow(new RuntimeException("lock timeout"))
+                .when(booksByAuthorViewRepository).refreshMaterializedViewConcurrently();
+
+        // When
+        refresher.refreshIfDue();
+
+        // Then
+        assertTrue(refresher.isDirty());
+        assertNull(refresher.getLastRefreshAt());
+    }
+
+    @Test
+    void refreshNow_ShouldSkipDatabase_UnderTestProfiles() {
+        // Given
+        when(environment.acceptsProfiles(any(Profiles.class))).thenReturn(true);
+        BooksByAuthorViewRefresher refresher = refresher(0, 60_000);
+        refresher.markDirty();
+
+        // When
+        refresher.refreshNow();
+
+        // Then
+        verifyNoInteractions(booksByAuthorViewRepository);
+        assertFalse(refresher.isDirty());
+    }
+
+    private BooksByAuthorViewRefresher refresher(long debounceMs, long maxStalenessMs) {
+        return new BooksByAuthorViewRefresher(booksByAuthorViewRepository, environment, meterRegistry,
+                debounceMs, maxStalenessMs);
+    }
+}
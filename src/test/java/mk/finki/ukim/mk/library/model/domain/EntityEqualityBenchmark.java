@@ -0,0 +1,156 @@
+package mk.finki.ukim.mk.library.model.domain;
+
+import mk.finki.ukim.mk.library.model.enumerations.Role;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of entity equality and printing on a wishlist of books that are each on other
+ * wishlists. {@code legacy*} reproduces what the Lombok {@code @Data} methods did, walking every
+ * field and association one level deep (the real ones recursed further, through
+ * {@code Book.wishlists} back to the books); {@code current*} uses the identity-based methods the
+ * entities have now. Run with the GC profiler, as {@link #main} does, to compare allocation per
+ * operation as well as time.
+ * <p>
+ * Not run by surefire; start it from the IDE or with
+ * {@code java -cp target/test-classes:<test classpath> mk.finki.ukim.mk.library.model.domain.EntityEqualityBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityEqualityBenchmark {
+
+    @Param({"20", "200"})
+    private int books;
+
+    private List<Book> wishlistBooks;
+    private Book missing;
+    private Wishlist wishlist;
+
+    @Setup
+    public void setUp() {
+        User user = new User("benchuser", "password", "Bench", "User", Role.ROLE_USER);
+        Country country = new Country("Macedonia", "Europe");
+        country.setId(1L);
+        Author author = new Author("Blaze", "Koneski", country);
+        author.setId(1L);
+
+        List<Wishlist> others = new ArrayList<>();
+        for (long i = 0; i < 5; i++) {
+            Wishlist other = new Wishlist(user);
+            other.setId(100 + i);
+            others.add(other);
+        }
+        wishlistBooks = new ArrayList<>();
+        for (long i = 0; i < books; i++) {
+            Book book = new Book("Book " + i, Category.NOVEL, author, 3);
+            book.setId(i + 1);
+            book.setWishlists(others);
+            wishlistBooks.add(book);
+        }
+        others.forEach(other -> other.setBooks(wishlistBooks));
+        wishlist = new Wishlist(user);
+        wishlist.setId(1L);
+        wishlist.setBooks(wishlistBooks);
+
+        missing = new Book("Missing", Category.NOVEL, author, 3);
+        missing.setId(books + 1L);
+        missing.setWishlists(others);
+    }
+
+    @Benchmark
+    public boolean legacyContains() {
+        for (Book book : wishlistBooks) {
+            if (legacyEquals(book, missing)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean currentContains() {
+        return wishlistBooks.contains(missing);
+    }
+
+    @Benchmark
+    public int legacyHashCode() {
+        return legacyHash(wishlist);
+    }
+
+    @Benchmark
+    public int currentHashCode() {
+        return wishlist.hashCode();
+    }
+
+    @Benchmark
+    public String legacyToString() {
+        StringBuilder printed = new StringBuilder("Wishlist(id=" + wishlist.getId() + ", books=[");
+        for (Book book : wishlist.getBooks()) {
+            printed.append(book.getId()).append(book.getName()).append(book.getAuthor().getName())
+                    .append(book.getAuthor().getCountry().getName()).append(book.getWishlists().size());
+        }
+        return printed.append("])").toString();
+    }
+
+    @Benchmark
+    public String currentToString() {
+        return wishlist.toString();
+    }
+
+    // @Data equality of two books: every field, with the author and the wishlists compared in depth
+    private static boolean legacyEquals(Book a, Book b) {
+        if (!Objects.equals(a.getId(), b.getId()) || !Objects.equals(a.getName(), b.getName())
+                || a.getCategory() != b.getCategory() || !Objects.equals(a.getAvailableCopies(), b.getAvailableCopies())
+                || !Objects.equals(a.getVersion(), b.getVersion())) {
+            return false;
+        }
+        Author x = a.getAuthor();
+        Author y = b.getAuthor();
+        if (!Objects.equals(x.getName(), y.getName()) || !Objects.equals(x.getSurname(), y.getSurname())
+                || !Objects.equals(x.getCountry().getName(), y.getCountry().getName())) {
+            return false;
+        }
+        if (a.getWishlists().size() != b.getWishlists().size()) {
+            return false;
+        }
+        for (int i = 0; i < a.getWishlists().size(); i++) {
+            if (legacyHash(a.getWishlists().get(i)) != legacyHash(b.getWishlists().get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // @Data hash of a wishlist: every field, with each book's own fields and author
+    private static int legacyHash(Wishlist wishlist) {
+        int hash = Objects.hash(wishlist.getId(), wishlist.getDateCreated(), wishlist.getStatus(),
+                wishlist.getUser().getUsername(), wishlist.getUser().getName(), wishlist.getUser().getRole());
+        for (Book book : wishlist.getBooks()) {
+            hash = 31 * hash + Objects.hash(book.getId(), book.getName(), book.getCategory(),
+                    book.getAvailableCopies(), book.getVersion(), book.getAuthor().getName(),
+                    book.getAuthor().getSurname(), book.getAuthor().getCountry().getName());
+        }
+        return hash;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(EntityEqualityBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -158,13 +158,20 @@ public abstract class BasePerformanceTest {
                 .get("token").asText();
     }
 
+    /**
+     * Threads running the simulated users: one platform thread each, like Tomcat's request pool
+     */
+    protected ExecutorService newLoadExecutor(int concurrentUsers) {
+        return Executors.newFixedThreadPool(concurrentUsers);
+    }
+
     /**
      * Execute a load test with specified number of concurrent users and requests per user
      */
     protected PerformanceResult executeLoadTest(Supplier<Boolean> testOperation, 
                                               int concurrentUsers, 
                                               int requestsPerUser) throws InterruptedException {
-        ExecutorService executor = Executors.newFixedThreadPool(concurrentUsers);
+        ExecutorService executor = newLoadExecutor(concurrentUsers);
         List<CompletableFuture<List<Long>>> futures = new ArrayList<>();
         
         AtomicInteger successCount = new AtomicInteger(0);
@@ -264,6 +271,15 @@ public abstract class BasePerformanceTest {
         };
     }
 
+    protected ResultMatcher isOkNotFoundOrConflict() {
+        return result -> {
+            int status = result.getResponse().getStatus();
+            if (status != 200 && status != 404 && status != 409) {
+                throw new AssertionError("Expected status 200, 404 or 409, but was " + status);
+            }
+        };
+    }
+
     protected ResultMatcher isOkOrBadRequest() {
         return result -> {
             int status = result.getResponse().getStatus();
@@ -273,6 +289,15 @@ public abstract class BasePerformanceTest {
         };
     }
 
+    protected ResultMatcher isOkBadRequestOrConflict() {
+        return result -> {
+            int status = result.getResponse().getStatus();
+            if (status != 200 && status != 400 && status != 409) {
+                throw new AssertionError("Expected status 200, 400 or 409, but was " + status);
+            }
+        };
+    }
+
     protected ResultMatcher isNoContentOrNotFound() {
         return result -> {
             int status = result.getResponse().getStatus();
@@ -45,7 +45,7 @@ public class BookEndpointPerformanceTest extends BasePerformanceTest {
                 // Test with different book IDs to simulate real usage
                 long bookId = (long) (Math.random() * 10) + 1; // Random ID 1-10
                 mockMvc.perform(get("/api/books/" + bookId))
-                        .andExpect(isOkOrNotFound()); // Accept 404 for non-existent books
+                        .andExpect(isOkNotFoundOrConflict()); // 404 for non-existent books, 409 once copies run out
                 return true;
             } catch (Exception e) {
                 return false;
@@ -114,7 +114,7 @@ public class BookEndpointPerformanceTest extends BasePerformanceTest {
                 long bookId = (long) (Math.random() * 10) + 1; // Random book ID
                 mockMvc.perform(put("/api/books/" + bookId + "/mark-as-borrowed")
                         .header("Authorization", "Bearer " + librarianToken))
-                        .andExpect(isOkOrNotFound()); // Accept 404 for non-existent books
+                        .andExpect(isOkNotFoundOrConflict()); // 404 for non-existent books, 409 once copies run out
                 return true;
             } catch (Exception e) {
                 return false;
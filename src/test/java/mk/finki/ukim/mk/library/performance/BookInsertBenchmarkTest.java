@@ -0,0 +1,146 @@
+package mk.finki.ukim.mk.library.performance;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import mk.finki.ukim.mk.library.repository.CountryRepository;
+import mk.finki.ukim.mk.library.service.domain.BookImportService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Benchmarks inserting 10,000 books, each with its first history revision, in chunks of 1,000
+ * per transaction. The per-row run flushes every book on its own and writes its history row
+ * straight after, which is what IDENTITY ids forced on Hibernate inserts; the batched run goes
+ * through the book import, where pooled sequence ids let Hibernate send the books as JDBC batches.
+ * Prints rows (books plus history) per second for both.
+ */
+@DisplayName("Book Insert Benchmark")
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true",
+        "spring.jpa.properties.hibernate.order_updates=true"
+})
+public class BookInsertBenchmarkTest extends BasePerformanceTest {
+
+    private static final int BOOKS = 10_000;
+    private static final int CHUNK = 1_000;
+
+    private static final String INSERT_HISTORY =
+            "INSERT INTO book_history (book_id, revision, snapshot, name, category, author_id, available_copies, " +
+                    "modified_at) VALUES (?, 1, TRUE, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private BookImportService bookImportService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Author author;
+
+    @BeforeEach
+    void setUpCatalog() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Country country = countryRepository.save(new Country("Benchmark Country", "Europe"));
+        author = authorRepository.save(new Author("Insert", "Benchmark", country));
+    }
+
+    @AfterEach
+    void removeBooks() {
+        jdbcTemplate.update("DELETE FROM book_history WHERE book_id IN (SELECT id FROM book WHERE author_id = ?)",
+                author.getId());
+        jdbcTemplate.update("DELETE FROM book WHERE author_id = ?", author.getId());
+    }
+
+    @Test
+    @DisplayName("Benchmark: 10k books and history rows, per-row flush vs batched inserts")
+    void batchedInserts_ShouldNeedFarFewerStatements_ThanPerRowInserts() {
+        long booksBefore = bookRepository.count();
+
+        statistics.clear();
+        long start = System.nanoTime();
+        for (int offset = 0; offset < BOOKS; offset += CHUNK) {
+            List<CreateBookDto> chunk = books("Per-row", offset);
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> insertPerRow(chunk));
+        }
+        long perRowNanos = System.nanoTime() - start;
+        long perRowStatements = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        start = System.nanoTime();
+        for (int offset = 0; offset < BOOKS; offset += CHUNK) {
+            bookImportService.insertAll(books("Batched", offset), null);
+        }
+        long batchedNanos = System.nanoTime() - start;
+        long batchedStatements = statistics.getPrepareStatementCount();
+
+        report("per-row", perRowNanos, perRowStatements);
+        report("batched", batchedNanos, batchedStatements);
+
+        assertEquals(booksBefore + 2L * BOOKS, bookRepository.count());
+        assertTrue(batchedStatements * 10 < perRowStatements,
+                "batched run prepared " + batchedStatements + " statements, per-row run " + perRowStatements);
+    }
+
+    private void insertPerRow(List<CreateBookDto> books) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (CreateBookDto dto : books) {
+            Book book = bookRepository.saveAndFlush(new Book(dto.name(), dto.category(), author, dto.availableCopies()));
+            jdbcTemplate.update(INSERT_HISTORY, book.getId(), dto.name(), dto.category().name(), author.getId(),
+                    dto.availableCopies(), now);
+        }
+    }
+
+    private List<CreateBookDto> books(String prefix, int offset) {
+        List<CreateBookDto> books = new ArrayList<>(CHUNK);
+        for (int i = offset; i < offset + CHUNK; i++) {
+            books.add(new CreateBookDto(prefix + " Book " + i, Category.NOVEL, author.getId(), 3));
+        }
+        return books;
+    }
+
+    private static void report(String run, long nanos, long statements) {
+        double seconds = nanos / 1_000_000_000.0;
+        System.out.printf("%s: %d books + %d history rows in %.2f s, %.0f rows/s, %d Hibernate statements%n",
+                run, BOOKS, BOOKS, seconds, 2 * BOOKS / seconds, statements);
+    }
+}
@@ -0,0 +1,86 @@
+package mk.finki.ukim.mk.library.performance;
+
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import mk.finki.ukim.mk.library.repository.CountryRepository;
+import mk.finki.ukim.mk.library.service.domain.BookService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Stress tests for the borrow path: many threads competing for the last copies of a book
+ * must never take more copies than exist.
+ */
+@DisplayName("Inventory Concurrency Tests")
+public class InventoryConcurrencyTest extends BasePerformanceTest {
+
+    private static final int COPIES = 25;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    private Book book;
+
+    @BeforeEach
+    void setUpBook() {
+        Country country = countryRepository.save(new Country("Stress Country", "Europe"));
+        Author author = authorRepository.save(new Author("Stress", "Author", country));
+        book = bookRepository.save(new Book("Stress Book " + System.nanoTime(), Category.NOVEL, author, COPIES));
+    }
+
+    @AfterEach
+    void tearDownBook() {
+        bookRepository.deleteById(book.getId());
+    }
+
+    @Test
+    @DisplayName("Stress Test: concurrent borrows never oversell copies")
+    void concurrentBorrows_ShouldNeverOversell() throws Exception {
+        // 100 concurrent users, 4 borrows each = 400 attempts for 25 copies
+        PerformanceResult result = executeLoadTest(() -> bookService.borrowCopy(book.getId()), 100, 4);
+
+        System.out.println("\n" + result);
+        assertEquals(COPIES, result.getSuccessfulRequests());
+        assertEquals(400 - COPIES, result.getFailedRequests());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    @DisplayName("Stress Test: borrows through the API never drive copies below zero")
+    void concurrentMarkAsBorrowed_ShouldStopAtZero() throws Exception {
+        // 100 attempts for 25 copies: the rest are refused with 409 rather than reported as borrowed
+        PerformanceResult result = executeLoadTest(() -> {
+            try {
+                int status = mockMvc.perform(put("/api/books/" + book.getId() + "/mark-as-borrowed")
+                                .header("Authorization", "Bearer " + librarianToken))
+                        .andExpect(isOkNotFoundOrConflict())
+                        .andReturn().getResponse().getStatus();
+                return status == 200;
+            } catch (Exception e) {
+                return false;
+            }
+        }, 50, 2);
+
+        assertEquals(COPIES, result.getSuccessfulRequests());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getAvailableCopies());
+    }
+}
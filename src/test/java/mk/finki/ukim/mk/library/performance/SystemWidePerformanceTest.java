@@ -156,7 +156,7 @@ public class SystemWidePerformanceTest extends BasePerformanceTest {
                         long bookId = (long) (Math.random() * 10) + 1;
                         mockMvc.perform(put("/api/books/" + bookId + "/mark-as-borrowed")
                                 .header("Authorization", "Bearer " + token))
-                                .andExpect(isOkOrNotFound());
+                                .andExpect(isOkNotFoundOrConflict());
                     } else {
                         // Browse books (librarians also browse)
                         mockMvc.perform(get("/api/books"))
@@ -223,7 +223,7 @@ public class SystemWidePerformanceTest extends BasePerformanceTest {
                     // 15% - Borrow all books (complex transaction)
                     mockMvc.perform(post("/api/wishlist/borrow")
                             .header("Authorization", "Bearer " + userToken))
-                            .andExpect(isOkOrBadRequest());
+                            .andExpect(isOkBadRequestOrConflict());
                 } else {
                     // 15% - Author names projection
                     mockMvc.perform(get("/api/authors/names"))
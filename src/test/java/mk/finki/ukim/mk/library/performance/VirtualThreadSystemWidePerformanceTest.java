@@ -0,0 +1,26 @@
+package mk.finki.ukim.mk.library.performance;
+
+import org.junit.jupiter.api.DisplayName;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs the {@link SystemWidePerformanceTest} scenarios in virtual-thread mode, for comparison with
+ * the printed results of that class: every simulated user gets a virtual thread, as every request
+ * does under Tomcat in this mode, and requests go through the connection-pool-sized concurrency
+ * limit. The wait for a permit is long enough that the limit queues requests rather than turning
+ * them away, so both runs complete the same work.
+ */
+@DisplayName("System-Wide Performance Tests (virtual threads)")
+@ActiveProfiles("virtual-threads")
+@TestPropertySource(properties = "library.virtual-threads.max-wait-ms=30000")
+public class VirtualThreadSystemWidePerformanceTest extends SystemWidePerformanceTest {
+
+    @Override
+    protected ExecutorService newLoadExecutor(int concurrentUsers) {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -0,0 +1,107 @@
+package mk.finki.ukim.mk.library.performance;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.finki.ukim.mk.library.model.domain.*;
+import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.model.enumerations.WishlistStatus;
+import mk.finki.ukim.mk.library.repository.*;
+import mk.finki.ukim.mk.library.service.domain.WishlistService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmarks borrowing whole wishlists of 1, 10 and 100 books. The borrow is set-based,
+ * so the number of SQL statements must stay the same whatever the wishlist size.
+ */
+@DisplayName("Wishlist Borrow Benchmark")
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+public class WishlistBorrowBenchmarkTest extends BasePerformanceTest {
+
+    private static final int[] SIZES = {1, 10, 100};
+    private static final int RUNS = 5;
+
+    @Autowired
+    private WishlistService wishlistService;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Author author;
+
+    @BeforeEach
+    void setUpCatalog() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Country country = countryRepository.save(new Country("Benchmark Country", "Europe"));
+        author = authorRepository.save(new Author("Benchmark", "Author", country));
+    }
+
+    @Test
+    @DisplayName("Benchmark: borrowAllBooks for wishlists of 1, 10 and 100 books")
+    void borrowAllBooks_ShouldUseConstantStatementCount_AsWishlistGrows() {
+        Map<Integer, Long> statementsBySize = new LinkedHashMap<>();
+
+        for (int size : SIZES) {
+            long totalNanos = 0;
+            long statements = 0;
+            for (int run = 0; run < RUNS; run++) {
+                String username = seedWishlist(size);
+
+                statistics.clear();
+                long start = System.nanoTime();
+                Wishlist borrowed = wishlistService.borrowAllBooks(username).orElseThrow();
+                totalNanos += System.nanoTime() - start;
+                statements = statistics.getPrepareStatementCount();
+
+                assertEquals(WishlistStatus.BORROWED, borrowed.getStatus());
+            }
+            statementsBySize.put(size, statements);
+            System.out.printf("borrowAllBooks with %3d books: avg %.2f ms, %d statements%n",
+                    size, totalNanos / 1_000_000.0 / RUNS, statements);
+        }
+
+        assertEquals(statementsBySize.get(1), statementsBySize.get(10));
+        assertEquals(statementsBySize.get(1), statementsBySize.get(100));
+    }
+
+    private String seedWishlist(int size) {
+        String username = "bench" + System.nanoTime();
+        User user = userRepository.save(new User(username, "password", "Bench", "User", Role.ROLE_USER));
+
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            books.add(new Book("Benchmark Book " + i, Category.NOVEL, author, 5));
+        }
+        Wishlist wishlist = new Wishlist(user);
+        wishlist.setBooks(bookRepository.saveAll(books));
+        wishlistRepository.save(wishlist);
+        return username;
+    }
+}
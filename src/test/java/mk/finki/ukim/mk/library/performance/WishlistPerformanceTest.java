@@ -83,7 +83,7 @@ public class WishlistPerformanceTest extends BasePerformanceTest {
             try {
                 mockMvc.perform(post("/api/wishlist/borrow")
                         .header("Authorization", "Bearer " + userToken))
-                        .andExpect(isOkOrBadRequest()); // May fail if insufficient copies
+                        .andExpect(isOkBadRequestOrConflict()); // 409 once copies run out
                 return true;
             } catch (Exception e) {
                 return false;
@@ -0,0 +1,81 @@
+package mk.finki.ukim.mk.library.repository;
+
+import mk.finki.ukim.mk.library.LibraryApplication;
+import mk.finki.ukim.mk.library.model.domain.AuthenticationLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ContextConfiguration(classes = LibraryApplication.class)
+@ActiveProfiles("test")
+class AuthenticationLogRepositoryTest {
+
+    @Autowired
+    private AuthenticationLogRepository authenticationLogRepository;
+
+    private LocalDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        authenticationLogRepository.deleteAll();
+        base = LocalDateTime.of(2024, 1, 10, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            authenticationLogRepository.save(log("alice", base.plusMinutes(i)));
+        }
+        authenticationLogRepository.save(log("bob", base.plusMinutes(2)));
+        authenticationLogRepository.save(log("alice", base.minusDays(30)));
+    }
+
+    @Test
+    void findPageByUsername_ShouldReturnNewestFirstWithinRange() {
+        // When
+        List<AuthenticationLog> page = authenticationLogRepository.findPageByUsername(
+                "alice", base.minusDays(1), base.plusDays(1), null, null, Limit.of(3));
+
+        // Then
+        assertThat(page).extracting(AuthenticationLog::getIssuedAt)
+                .containsExactly(base.plusMinutes(4), base.plusMinutes(3), base.plusMinutes(2));
+        assertThat(page).allMatch(log -> log.getUsername().equals("alice"));
+    }
+
+    @Test
+    void findPageByUsername_ShouldContinueAfterCursor() {
+        // Given
+        List<AuthenticationLog> first = authenticationLogRepository.findPageByUsername(
+                "alice", base.minusDays(1), base.plusDays(1), null, null, Limit.of(3));
+        AuthenticationLog last = first.get(2);
+
+        // When
+        List<AuthenticationLog> second = authenticationLogRepository.findPageByUsername(
+                "alice", base.minusDays(1), base.plusDays(1), last.getIssuedAt(), last.getId(), Limit.of(3));
+
+        // Then
+        assertThat(second).extracting(AuthenticationLog::getIssuedAt)
+                .containsExactly(base.plusMinutes(1), base);
+    }
+
+    @Test
+    void findPage_ShouldIncludeAllUsersInRange() {
+        // When
+        List<AuthenticationLog> page = authenticationLogRepository.findPage(
+                base.plusMinutes(2), base.plusMinutes(3), null, null, Limit.of(10));
+
+        // Then
+        assertThat(page).extracting(AuthenticationLog::getUsername)
+                .containsExactlyInAnyOrder("alice", "bob");
+    }
+
+    private AuthenticationLog log(String username, LocalDateTime issuedAt) {
+        return new AuthenticationLog(username, "fingerprint", issuedAt, issuedAt.plusDays(10));
+    }
+}
@@ -1,6 +1,7 @@
 package mk.finki.ukim.mk.library.repository;
 
 import mk.finki.ukim.mk.library.LibraryApplication;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.*;
 import mk.finki.ukim.mk.library.model.domain.Category;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
@@ -9,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.ActiveProfiles;
 
@@ -140,6 +142,88 @@ class BookHistoryRepositoryTest {
         assertThat(result).isEmpty();
     }
 
+    @Test
+    void findPage_ShouldProjectJoinedColumnsNewestFirst() {
+        // When
+        List<DisplayBookHistoryDto> page = bookHistoryRepository.findPage(
+                testBook1.getId(), null, null, null, null, Limit.of(10));
+
+        // Then
+        assertThat(page).extracting(DisplayBookHistoryDto::id)
+                .containsExactly(history2.getId(), history1.getId());
+        assertThat(page.get(0).bookId()).isEqualTo(testBook1.getId());
+        assertThat(page.get(0).authorName()).isEqualTo("Test Author");
+        assertThat(page.get(0).modifiedBy()).isEqualTo("user2");
+    }
+
+    @Test
+    void findPage_ShouldContinueAfterCursor() {
+        // Given
+        List<DisplayBookHistoryDto> first = bookHistoryRepository.findPage(
+                testBook1.getId(), null, null, null, null, Limit.of(1));
+
+        // When
+        List<DisplayBookHistoryDto> second = bookHistoryRepository.findPage(
+                testBook1.getId(), null, null, first.get(0).modifiedAt(), first.get(0).id(), Limit.of(1));
+
+        // Then
+        assertThat(first).extracting(DisplayBookHistoryDto::id).containsExactly(history2.getId());
+        assertThat(second).extracting(DisplayBookHistoryDto::id).containsExactly(history1.getId());
+    }
+
+    @Test
+    void findPage_ShouldRestrictToTimeRange() {
+        // When
+        List<DisplayBookHistoryDto> page = bookHistoryRepository.findPage(
+                testBook1.getId(), history1.getModifiedAt().plusSeconds(1), history2.getModifiedAt().plusSeconds(1),
+                null, null, Limit.of(10));
+
+        // Then
+        assertThat(page).extracting(DisplayBookHistoryDto::id).containsExactly(history2.getId());
+    }
+
+    @Test
+    void findLatestAsOf_ShouldReturnEntryInEffectAtTimestamp() {
+        // When
+        List<DisplayBookHistoryDto> between = bookHistoryRepository.findLatestAsOf(
+                testBook1.getId(), history2.getModifiedAt().minusHours(1), Limit.of(1));
+        List<DisplayBookHistoryDto> before = bookHistoryRepository.findLatestAsOf(
+                testBook1.getId(), history1.getModifiedAt().minusHours(1), Limit.of(1));
+
+        // Then
+        assertThat(between).extracting(DisplayBookHistoryDto::id).containsExactly(history1.getId());
+        assertThat(before).isEmpty();
+    }
+
+    @Test
+    void findChain_ShouldStartAtLastSnapshotBeforeRequestedRevision() {
+        // Given revisions 1 and 4 are snapshots, the others only store what changed
+        Book book = entityManager.persistAndFlush(new Book("Chain Book", Category.DRAMA, testBook1.getAuthor(), 5));
+        entityManager.persist(new BookHistory(book, testUser1, 1));
+        entityManager.persist(delta(book, 2, null, 4));
+        entityManager.persist(delta(book, 3, "Chain Book, 2nd ed.", null));
+        book.setName("Chain Book, 2nd ed.");
+        book.setAvailableCopies(4);
+        entityManager.persist(new BookHistory(book, testUser1, 4));
+        entityManager.persist(delta(book, 5, null, 3));
+        entityManager.flush();
+
+        // When
+        List<DisplayBookHistoryDto> early = bookHistoryRepository.findChain(book.getId(), 2, 3);
+        List<DisplayBookHistoryDto> latest = bookHistoryRepository.findChain(book.getId(), 5, 5);
+
+        // Then
+        assertThat(early).extracting(DisplayBookHistoryDto::revision).containsExactly(1, 2, 3);
+        assertThat(latest).extracting(DisplayBookHistoryDto::revision).containsExactly(4, 5);
+        assertThat(latest.get(1).name()).isNull();
+        assertThat(latest.get(1).authorName()).isNull();
+        DisplayBookHistoryDto rebuilt = DisplayBookHistoryDto.replay(latest).get(1);
+        assertThat(rebuilt.name()).isEqualTo("Chain Book, 2nd ed.");
+        assertThat(rebuilt.authorName()).isEqualTo("Test Author");
+        assertThat(rebuilt.availableCopies()).isEqualTo(3);
+        assertThat(bookHistoryRepository.findLatestRevision(book.getId())).isEqualTo(5);
+    }
+
     @Test
     void deleteByBookId_ShouldRemoveAllHistoryForBook() {
         // Given
@@ -273,4 +357,15 @@ class BookHistoryRepositoryTest {
         assertThat(savedHistory.getModifiedAt()).isAfter(beforeSave);
         assertThat(savedHistory.getModifiedAt()).isBefore(afterSave);
     }
+
+    private BookHistory delta(Book book, int revision, String name, Integer availableCopies) {
+        BookHistory history = new BookHistory();
+        history.setBook(book);
+        history.setRevision(revision);
+        history.setSnapshot(false);
+        history.setName(name);
+        history.setAvailableCopies(availableCopies);
+        history.setModifiedBy(testUser1);
+        return history;
+    }
 }
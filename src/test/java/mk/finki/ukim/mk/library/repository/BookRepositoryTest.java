@@ -1,20 +1,24 @@
 package mk.finki.ukim.mk.library.repository;
 
 import mk.finki.ukim.mk.library.LibraryApplication;
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
 import mk.finki.ukim.mk.library.model.domain.Book;
 import mk.finki.ukim.mk.library.model.domain.Country;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import org.hibernate.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -277,4 +281,80 @@ class BookRepositoryTest {
         assertThat(bookRepository.count()).isEqualTo(0);
         assertThat(bookRepository.findAll()).isEmpty();
     }
+
+    @Test
+    void findPageOrderById_ShouldSeekPastLastReturnedId() {
+        // When
+        List<Book> firstPage = bookRepository.findPageOrderById(null, null, null, null, Limit.of(2));
+        List<Book> secondPage = bookRepository.findPageOrderById(
+                firstPage.get(1).getId(), null, null, null, Limit.of(2));
+
+        // Then
+        assertThat(firstPage).extracting(Book::getId)
+                .containsExactly(testBook1.getId(), testBook2.getId());
+        assertThat(secondPage).extracting(Book::getId)
+                .containsExactly(testBook3.getId());
+    }
+
+    @Test
+    void findPageOrderByName_ShouldOrderByNameAndSeekPastCursor() {
+        // When
+        List<Book> firstPage = bookRepository.findPageOrderByName(null, null, null, null, null, Limit.of(2));
+        Book last = firstPage.get(1);
+        List<Book> secondPage = bookRepository.findPageOrderByName(
+                last.getName(), last.getId(), null, null, null, Limit.of(2));
+
+        // Then
+        assertThat(firstPage).extracting(Book::getName).containsExactly("Harry Potter", "IT");
+        assertThat(secondPage).extracting(Book::getName).containsExactly("The Shining");
+    }
+
+    @Test
+    void findPage_ShouldApplyCategoryAuthorAndCountryFilters() {
+        // When
+        List<Book> novels = bookRepository.findPageOrderById(null, Category.NOVEL, null, null, Limit.of(10));
+        List<Book> byAuthor = bookRepository.findPageOrderById(null, null, testAuthor2.getId(), null, Limit.of(10));
+        List<Book> byCountry = bookRepository.findPageOrderById(
+                null, null, null, testAuthor1.getCountry().getId(), Limit.of(10));
+
+        // Then
+        assertThat(novels).extracting(Book::getName).containsExactly("The Shining", "IT");
+        assertThat(byAuthor).extracting(Book::getName).containsExactly("Harry Potter");
+        assertThat(byCountry).extracting(Book::getName).containsExactly("The Shining", "IT");
+    }
+
+    @Test
+    void findPage_ShouldIncludeBooksWithoutAuthorOrCountry() {
+        // Given
+        Author stateless = new Author("Anonymous", "Scribe", null);
+        entityManager.persistAndFlush(stateless);
+        Book orphan = entityManager.persistAndFlush(new Book("Beowulf", Category.CLASSICS, null, 1));
+        Book noCountry = entityManager.persistAndFlush(new Book("Gilgamesh", Category.CLASSICS, stateless, 1));
+        entityManager.clear();
+
+        // When
+        List<Book> byId = bookRepository.findPageOrderById(testBook3.getId(), null, null, null, Limit.of(10));
+        List<Book> byName = bookRepository.findPageOrderByName(null, null, Category.CLASSICS, null, null, Limit.of(10));
+
+        // Then
+        assertThat(byId).extracting(Book::getId).containsExactly(orphan.getId(), noCountry.getId());
+        assertThat(byName).extracting(Book::getName).containsExactly("Beowulf", "Gilgamesh");
+    }
+
+    @Test
+    void streamExport_ShouldReturnFlatRowsInIdOrderWithoutLoadingEntities() {
+        // When
+        List<BookExportDto> rows;
+        try (Stream<BookExportDto> stream = bookRepository.streamExport()) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertThat(rows).extracting(BookExportDto::id)
+                .containsExactly(testBook1.getId(), testBook2.getId(), testBook3.getId());
+        assertThat(rows.get(1)).isEqualTo(new BookExportDto(testBook2.getId(), "Harry Potter", Category.FANTASY,
+                testAuthor2.getId(), "J.K.", "Rowling", 10));
+        // projections are not managed, so a long export does not fill the persistence context
+        assertThat(entityManager.getEntityManager().unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+    }
 }
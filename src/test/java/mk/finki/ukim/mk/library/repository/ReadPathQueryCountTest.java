@@ -0,0 +1,183 @@
+package mk.finki.ukim.mk.library.repository;
+
+import mk.finki.ukim.mk.library.LibraryApplication;
+import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayWishlistDto;
+import mk.finki.ukim.mk.library.model.domain.*;
+import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.model.enumerations.WishlistStatus;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Guards the book, author and wishlist read paths against N+1 selects: the number of
+ * SQL statements needed to load and render them must not grow with the number of rows.
+ * Also checks that comparing, hashing and printing entities never loads lazy collections.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ContextConfiguration(classes = LibraryApplication.class)
+@ActiveProfiles("test")
+class ReadPathQueryCountTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private WishlistRepository wishlistRepository;
+
+    private Statistics statistics;
+    private User testUser;
+    private Wishlist testWishlist;
+    private int seeded;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        testUser = new User("querycount", "password", "Query", "Count", Role.ROLE_USER);
+        entityManager.persist(testUser);
+        testWishlist = new Wishlist(testUser);
+        entityManager.persist(testWishlist);
+        seeded = 0;
+    }
+
+    @Test
+    void findAllBooks_ShouldUseConstantStatementCount_AsCatalogGrows() {
+        // Given
+        seedBooks(3);
+        long small = countStatements(() -> DisplayBookDto.from(bookRepository.findAll()));
+        seedBooks(30);
+
+        // When
+        long large = countStatements(() -> DisplayBookDto.from(bookRepository.findAll()));
+
+        // Then
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+    }
+
+    @Test
+    void findAllAuthors_ShouldUseConstantStatementCount_AsAuthorsGrow() {
+        // Given
+        seedBooks(3);
+        long small = countStatements(() -> DisplayAuthorDto.from(authorRepository.findAll()));
+        seedBooks(30);
+
+        // When
+        long large = countStatements(() -> DisplayAuthorDto.from(authorRepository.findAll()));
+
+        // Then
+        assertThat(large).isEqualTo(small).isEqualTo(1);
+    }
+
+    @Test
+    void findActiveWishlist_ShouldUseConstantStatementCount_AsWishlistGrows() {
+        // Given
+        seedBooks(3);
+        long small = countStatements(() -> wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED)
+                .map(DisplayWishlistDto::from)
+                .orElseThrow());
+        seedBooks(30);
+
+        // When
+        long large = countStatements(() -> wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED)
+                .map(DisplayWishlistDto::from)
+                .orElseThrow());
+
+        // Then
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void wishlistEquality_ShouldNotInitialiseLazyCollections() {
+        // Given
+        seedBooks(3);
+        Wishlist wishlist = entityManager.find(Wishlist.class, testWishlist.getId());
+        Book book = entityManager.find(Book.class, bookRepository.findAll().get(0).getId());
+        entityManager.clear();
+        Wishlist loadedWishlist = entityManager.find(Wishlist.class, wishlist.getId());
+        Book loadedBook = entityManager.find(Book.class, book.getId());
+        statistics.clear();
+
+        // When
+        Set<Object> seen = new HashSet<>();
+        seen.add(loadedWishlist);
+        seen.add(loadedBook);
+        boolean found = seen.contains(wishlist) && seen.contains(book);
+        String printed = loadedWishlist.toString() + loadedBook;
+
+        // Then
+        assertThat(found).isTrue();
+        assertThat(printed).doesNotContain("books=").doesNotContain("wishlists=").doesNotContain("user=");
+        assertThat(Hibernate.isInitialized(loadedWishlist.getBooks())).isFalse();
+        assertThat(Hibernate.isInitialized(loadedBook.getWishlists())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    void bookHistoryEquality_ShouldNotInitialiseLazyCollections() {
+        // Given
+        seedBooks(1);
+        Book book = bookRepository.findAll().get(0);
+        BookHistory history = entityManager.persistFlushFind(new BookHistory(book, testUser, 1));
+        entityManager.clear();
+        BookHistory loaded = entityManager.find(BookHistory.class, history.getId());
+        statistics.clear();
+
+        // When
+        boolean same = loaded.equals(history) && loaded.hashCode() == history.hashCode();
+        String printed = loaded.toString();
+
+        // Then
+        assertThat(same).isTrue();
+        assertThat(printed).contains("revision=1");
+        assertThat(Hibernate.isInitialized(loaded.getBook().getWishlists())).isFalse();
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    /**
+     * Adds books that each have their own author and country, the worst case for
+     * per-association selects, and puts every book on the test wishlist.
+     */
+    private void seedBooks(int count) {
+        Wishlist wishlist = entityManager.find(Wishlist.class, testWishlist.getId());
+        for (int i = 0; i < count; i++) {
+            int n = seeded++;
+            Country country = entityManager.persist(new Country("Country " + n, "Continent"));
+            Author author = entityManager.persist(new Author("Name " + n, "Surname " + n, country));
+            Book book = entityManager.persist(new Book("Book " + n, Category.NOVEL, author, 1));
+            wishlist.getBooks().add(book);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long countStatements(Runnable readPath) {
+        entityManager.clear();
+        statistics.clear();
+        readPath.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,113 @@
+package mk.finki.ukim.mk.library.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import mk.finki.ukim.mk.library.LibraryApplication;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks the second-level and query caches for countries and authors with the caches switched on,
+ * as in production. Each repository call runs in its own transaction, like the service calls do,
+ * so cached entries are only visible once the write that produced them has committed.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@ContextConfiguration(classes = LibraryApplication.class)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReferenceDataCacheTest {
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        authorRepository.deleteAll();
+        countryRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+    }
+
+    @Test
+    void findById_ShouldReadCountryFromSecondLevelCache() {
+        // Given
+        Country country = countryRepository.save(new Country("Macedonia", "Europe"));
+        countryRepository.findById(country.getId());
+        statistics.clear();
+
+        // When
+        Country cached = countryRepository.findById(country.getId()).orElseThrow();
+
+        // Then
+        assertThat(cached.getName()).isEqualTo("Macedonia");
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+        assertThat(statistics.getDomainDataRegionStatistics(Country.CACHE_REGION).getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void save_ShouldReplaceCachedCountry() {
+        // Given
+        Country country = countryRepository.save(new Country("Macedonia", "Europe"));
+        countryRepository.findById(country.getId());
+
+        // When
+        country.setName("North Macedonia");
+        countryRepository.save(country);
+
+        // Then
+        assertThat(countryRepository.findById(country.getId()).orElseThrow().getName()).isEqualTo("North Macedonia");
+    }
+
+    @Test
+    void findAll_ShouldUseQueryCacheUntilTheTableChanges() {
+        // Given
+        Country country = countryRepository.save(new Country("Macedonia", "Europe"));
+        authorRepository.save(new Author("Blaze", "Koneski", country));
+        authorRepository.findAll();
+        statistics.clear();
+
+        // When
+        int cachedSize = authorRepository.findAll().size();
+        long cachedStatements = statistics.getPrepareStatementCount();
+        long queryCacheHits = statistics.getQueryCacheHitCount();
+        authorRepository.save(new Author("Kocho", "Racin", country));
+        statistics.clear();
+        int reloadedSize = authorRepository.findAll().size();
+
+        // Then
+        assertThat(cachedSize).isEqualTo(1);
+        assertThat(cachedStatements).isZero();
+        assertThat(queryCacheHits).isEqualTo(1);
+        assertThat(reloadedSize).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isZero();
+    }
+}
@@ -189,6 +189,43 @@ class WishlistRepositoryTest {
         assertThat(oldStatusWishlist).isEmpty();
     }
 
+    @Test
+    void addBook_ShouldInsertSingleJoinRow_AndIgnoreRepeatedAdd() {
+        // When
+        int first = wishlistRepository.addBook(createdWishlist.getId(), testBook2.getId());
+        int repeated = wishlistRepository.addBook(createdWishlist.getId(), testBook2.getId());
+
+        // Then
+        assertThat(first).isEqualTo(1);
+        assertThat(repeated).isZero();
+        Wishlist wishlist = wishlistRepository.findByUserAndStatus(testUser1, WishlistStatus.CREATED).orElseThrow();
+        assertThat(wishlist.getBooks()).extracting(Book::getName)
+                .containsExactlyInAnyOrder("Test Book 1", "Test Book 2");
+    }
+
+    @Test
+    void removeBook_ShouldDeleteOnlyThatJoinRow() {
+        // Given
+        wishlistRepository.addBook(createdWishlist.getId(), testBook2.getId());
+
+        // When
+        int removed = wishlistRepository.removeBook(createdWishlist.getId(), testBook1.getId());
+
+        // Then
+        assertThat(removed).isEqualTo(1);
+        Wishlist wishlist = wishlistRepository.findByUserAndStatus(testUser1, WishlistStatus.CREATED).orElseThrow();
+        assertThat(wishlist.getBooks()).extracting(Book::getName).containsExactly("Test Book 2");
+    }
+
+    @Test
+    void findIdByUserAndStatus_ShouldReturnIdOnly_WhenWishlistExists() {
+        // When
+        Optional<Long> result = wishlistRepository.findIdByUserAndStatus(testUser1, WishlistStatus.CREATED);
+
+        // Then
+        assertThat(result).contains(createdWishlist.getId());
+    }
+
     @Test
     void findAll_ShouldReturnAllWishlists() {
         // When
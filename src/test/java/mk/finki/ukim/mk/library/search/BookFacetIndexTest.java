@@ -0,0 +1,196 @@
+package mk.finki.ukim.mk.library.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.model.Dto.BookFacetsDto;
+import mk.finki.ukim.mk.library.model.Dto.FacetCountDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import mk.finki.ukim.mk.library.repository.CountryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookFacetIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    private BookFacetIndex index;
+    private Country macedonia;
+    private Country russia;
+    private Author koneski;
+    private Author tolstoy;
+
+    @BeforeEach
+    void setUp() {
+        macedonia = country(1L, "Macedonia");
+        russia = country(2L, "Russia");
+        koneski = author(1L, "Blaze", "Koneski", macedonia);
+        tolstoy = author(2L, "Lev", "Tolstoy", russia);
+        when(countryRepository.findAll()).thenReturn(List.of(macedonia, russia));
+        when(authorRepository.findAll()).thenReturn(List.of(koneski, tolstoy));
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(10L, "Vezilka", Category.CLASSICS, koneski, 2),
+                book(11L, "War and Peace", Category.NOVEL, tolstoy, 0),
+                book(12L, "Anna Karenina", Category.NOVEL, tolstoy, 3),
+                book(13L, "Peace Poems", Category.CLASSICS, koneski, 1)));
+        index = new BookFacetIndex(bookRepository, authorRepository, countryRepository, new SimpleMeterRegistry(), true);
+        index.rebuild();
+    }
+
+    @Test
+    void browse_ShouldCountEveryFacetWithoutFilters() {
+        // When
+        BookFacetIndex.Result result = index.browse(null, null, null, false, null, 10);
+
+        // Then
+        assertEquals(List.of(10L, 11L, 12L, 13L), result.ids());
+        assertEquals(4, result.total());
+        assertEquals(Map.of("NOVEL", 2L, "CLASSICS", 2L), counts(result.facets().categories()));
+        assertEquals(Map.of("1", 2L, "2", 2L), counts(result.facets().authors()));
+        assertEquals("Blaze Koneski", result.facets().authors().get(0).label());
+        assertEquals(Map.of("1", 2L, "2", 2L), counts(result.facets().countries()));
+        assertEquals(3, result.facets().available());
+    }
+
+    @Test
+    void browse_ShouldCountEachFacetWithTheOtherFiltersOnly() {
+        // When
+        BookFacetIndex.Result result = index.browse(Category.NOVEL, null, null, true, null, 10);
+        BookFacetsDto facets = result.facets();
+
+        // Then only Anna Karenina is a novel with copies left
+        assertEquals(List.of(12L), result.ids());
+        assertEquals(1, result.total());
+        // categories ignore the category filter: available novels and classics
+        assertEquals(Map.of("NOVEL", 1L, "CLASSICS", 2L), counts(facets.categories()));
+        assertEquals(List.of("CLASSICS", "NOVEL"), facets.categories().stream().map(FacetCountDto::value).toList());
+        assertEquals(Map.of("2", 1L), counts(facets.authors()));
+        assertEquals(Map.of("2", 1L), counts(facets.countries()));
+        // availability ignores the available-only filter: one of the two novels has copies
+        assertEquals(1, facets.available());
+        assertEquals(2, index.browse(Category.NOVEL, null, null, false, null, 10).total());
+    }
+
+    @Test
+    void browse_ShouldPageInIdOrderAfterTheCursor() {
+        // Given a slot freed by a delete is reused by a later book
+        index.apply(CatalogChangedEvent.removed(Book.class, 10L));
+        index.apply(new CatalogChangedEvent(book(14L, "Resurrection", Category.NOVEL, tolstoy, 1)));
+
+        // When
+        BookFacetIndex.Result first = index.browse(null, null, null, false, null, 2);
+        BookFacetIndex.Result second = index.browse(null, null, null, false, 12L, 2);
+
+        // Then
+        assertEquals(List.of(11L, 12L), first.ids());
+        assertEquals(List.of(13L, 14L), second.ids());
+        assertEquals(4, second.total());
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void apply_ShouldFollowBorrowsWithoutReloadingBooks() {
+        // Given the last copy of Peace Poems was borrowed
+        when(bookRepository.findIdsWithCopies(List.of(12L, 13L))).thenReturn(List.of(12L));
+
+        // When
+        index.apply(new CatalogChangedEvent(List.of(12L, 13L)));
+
+        // Then
+        assertEquals(List.of(10L, 12L), index.browse(null, null, null, true, null, 10).ids());
+        verify(bookRepository, never()).findAllByIdIn(any());
+    }
+
+    @Test
+    void apply_ShouldMoveBooksWhenTheirAuthorChangesCountry() {
+        // Given
+        Author moved = author(2L, "Lev", "Tolstoy", macedonia);
+
+        // When
+        index.apply(new CatalogChangedEvent(moved));
+
+        // Then
+        assertEquals(List.of(10L, 11L, 12L, 13L), index.browse(null, null, 1L, false, null, 10).ids());
+        assertTrue(index.browse(null, null, 2L, false, null, 10).ids().isEmpty());
+        assertEquals(Map.of("1", 4L), counts(index.browse(null, null, null, false, null, 10).facets().countries()));
+    }
+
+    @Test
+    void apply_ShouldIndexImportsAndRenamedCountries() {
+        // Given
+        when(bookRepository.findAllByIdIn(List.of(20L)))
+                .thenReturn(List.of(book(20L, "Hadji Murat", Category.HISTORY, tolstoy, 5)));
+
+        // When
+        index.apply(CatalogChangedEvent.saved(Book.class, List.of(20L)));
+        index.apply(new CatalogChangedEvent(country(2L, "Russian Empire")));
+
+        // Then
+        BookFacetIndex.Result result = index.browse(Category.HISTORY, null, null, false, null, 10);
+        assertEquals(List.of(20L), result.ids());
+        assertEquals("Russian Empire", result.facets().countries().get(0).label());
+    }
+
+    @Test
+    void onCatalogChanged_ShouldApplyWritesOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            index.onCatalogChanged(CatalogChangedEvent.removed(Book.class, 11L));
+
+            // Then
+            assertEquals(4, index.size());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertEquals(3, index.size());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Map<String, Long> counts(List<FacetCountDto> facet) {
+        return facet.stream().collect(Collectors.toMap(FacetCountDto::value, FacetCountDto::count));
+    }
+
+    private static Country country(Long id, String name) {
+        Country country = new Country(name, "Europe");
+        country.setId(id);
+        return country;
+    }
+
+    private static Author author(Long id, String name, String surname, Country country) {
+        Author author = new Author(name, surname, country);
+        author.setId(id);
+        return author;
+    }
+
+    private static Book book(Long id, String name, Category category, Author author, int copies) {
+        Book book = new Book(name, category, author, copies);
+        book.setId(id);
+        return book;
+    }
+}
@@ -0,0 +1,92 @@
+package mk.finki.ukim.mk.library.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of {@link BookSearchIndex} queries over a synthetic catalog of {@code books}
+ * titles by {@code books / 10} authors, in Latin and Cyrillic. Sample-time mode, so the
+ * report includes the p99 latency per query.
+ * <p>
+ * Not run by surefire; start it from the IDE or with
+ * {@code java -cp target/test-classes:<test classpath> mk.finki.ukim.mk.library.search.BookSearchIndexBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchIndexBenchmark {
+
+    private static final String[] WORDS = {
+            "war", "peace", "river", "night", "stone", "garden", "winter", "letters", "silence", "city",
+            "везилка", "мост", "песна", "ноќ", "море", "планина", "бегство", "градина", "пат", "сонце"};
+
+    @Param({"10000", "100000"})
+    public int books;
+
+    private BookSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<Author> authors = new ArrayList<>();
+        for (long id = 1; id <= books / 10; id++) {
+            Author author = new Author("Author" + id, id % 2 == 0 ? "Конески" + id : "Tolstoy" + id, null);
+            author.setId(id);
+            authors.add(author);
+        }
+        List<Book> catalog = new ArrayList<>();
+        for (long id = 1; id <= books; id++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + id;
+            Book book = new Book(title, Category.NOVEL, authors.get(random.nextInt(authors.size())), 1);
+            book.setId(id);
+            catalog.add(book);
+        }
+        BookRepository bookRepository = Mockito.mock(BookRepository.class);
+        AuthorRepository authorRepository = Mockito.mock(AuthorRepository.class);
+        Mockito.when(bookRepository.findAll()).thenReturn(catalog);
+        Mockito.when(authorRepository.findAll()).thenReturn(authors);
+        index = new BookSearchIndex(bookRepository, authorRepository, new SimpleMeterRegistry(), true);
+        index.rebuild();
+    }
+
+    @Benchmark
+    public BookSearchPageDto singleTerm() {
+        return index.search("garden", 0, 20);
+    }
+
+    @Benchmark
+    public BookSearchPageDto twoTermsWithPrefix() {
+        return index.search("war pea", 0, 20);
+    }
+
+    @Benchmark
+    public BookSearchPageDto crossScriptAuthor() {
+        return index.search("koneski12", 0, 20);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(BookSearchIndexBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,167 @@
+package mk.finki.ukim.mk.library.search;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchHitDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.repository.AuthorRepository;
+import mk.finki.ukim.mk.library.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private AuthorRepository authorRepository;
+
+    private BookSearchIndex index;
+    private Author koneski;
+    private Author tolstoy;
+
+    @BeforeEach
+    void setUp() {
+        Country country = new Country("Macedonia", "Europe");
+        koneski = author(1L, "Блаже", "Конески", country);
+        tolstoy = author(2L, "Lev", "Tolstoy", country);
+        Author unused = author(3L, "Peace", "Maker", country);
+        when(authorRepository.findAll()).thenReturn(List.of(koneski, tolstoy, unused));
+        when(bookRepository.findAll()).thenReturn(List.of(
+                book(10L, "Везилка", koneski),
+                book(11L, "War and Peace", tolstoy),
+                book(12L, "Anna Karenina", tolstoy),
+                book(13L, "Peace Poems", koneski)));
+        index = new BookSearchIndex(bookRepository, authorRepository, new SimpleMeterRegistry(), true);
+        index.rebuild();
+    }
+
+    @Test
+    void search_ShouldMatchAcrossScriptsAndDiacritics() {
+        // When & Then
+        assertEquals(List.of(10L), ids(index.search("vezilka", 0, 10)));
+        assertEquals(List.of(13L, 10L), ids(index.search("КОНЕСКИ", 0, 10)));
+        assertEquals("Блаже Конески", index.search("Везилка", 0, 10).content().get(0).authorName());
+    }
+
+    @Test
+    void search_ShouldRequireEveryTermAndAcceptPrefixes() {
+        // When & Then
+        assertEquals(List.of(11L), ids(index.search("war pea", 0, 10)));
+        assertEquals(List.of(12L), ids(index.search("tolst kar", 0, 10)));
+        assertTrue(index.search("war karenina", 0, 10).content().isEmpty());
+    }
+
+    @Test
+    void search_ShouldRankTitleMatchesAboveAuthorMatchesAndExactAbovePrefix() {
+        // Given an author whose name also matches the query
+        index.apply(new CatalogChangedEvent(book(14L, "Peaceful Days", author(3L, "Peace", "Maker", null))));
+
+        // When
+        BookSearchPageDto result = index.search("peace", 0, 10);
+
+        // Then exact title matches first (by title), then the prefix title match, then the author match
+        assertEquals(List.of(13L, 11L, 14L), ids(result));
+        assertEquals(BookSearchIndex.TITLE_EXACT, result.content().get(0).score());
+        assertEquals(BookSearchIndex.TITLE_PREFIX, result.content().get(2).score());
+    }
+
+    @Test
+    void search_ShouldPaginateRankedResults() {
+        // When
+        BookSearchPageDto second = index.search("peace", 1, 1);
+
+        // Then
+        assertEquals(2, second.total());
+        assertEquals(List.of(11L), ids(second));
+        assertTrue(index.search("peace", 5, 1).content().isEmpty());
+    }
+
+    @Test
+    void onCatalogChanged_ShouldApplyWritesOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            index.onCatalogChanged(new CatalogChangedEvent(book(11L, "Resurrection", tolstoy)));
+
+            // Then
+            assertEquals(List.of(11L), ids(index.search("war", 0, 10)));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(index.search("war", 0, 10).content().isEmpty());
+            assertEquals(List.of(11L), ids(index.search("resurrection", 0, 10)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void apply_ShouldFollowAuthorRenamesDeletionsAndImports() {
+        // Given
+        Author renamed = author(2L, "Leo", "Tolstoi", null);
+        when(bookRepository.findAllByIdIn(List.of(20L))).thenReturn(List.of(book(20L, "Hadji Murat", renamed)));
+
+        // When
+        index.apply(new CatalogChangedEvent(renamed));
+        index.apply(CatalogChangedEvent.removed(Book.class, 12L));
+        index.apply(CatalogChangedEvent.saved(Book.class, List.of(20L)));
+        // stock changes carry no type and are ignored
+        index.apply(new CatalogChangedEvent(List.of(11L)));
+
+        // Then
+        assertEquals(List.of(20L, 11L), ids(index.search("tolstoi", 0, 10)));
+        assertTrue(index.search("tolstoy", 0, 10).content().isEmpty());
+        assertTrue(index.search("karenina", 0, 10).content().isEmpty());
+        assertEquals(4, index.size());
+        verify(bookRepository).findAllByIdIn(List.of(20L));
+    }
+
+    @Test
+    void rebuild_ShouldKeepEditsThatCommitWhileTheCatalogIsLoading() {
+        // Given a book renamed after the rebuild read the authors but before it read the books
+        Book renamed = book(12L, "Anna Arkadyevna", tolstoy);
+        when(bookRepository.findAll()).thenAnswer(invocation -> {
+            index.apply(new CatalogChangedEvent(renamed));
+            return List.of(book(11L, "War and Peace", tolstoy), book(12L, "Anna Karenina", tolstoy));
+        });
+
+        // When
+        index.rebuild();
+
+        // Then
+        assertEquals(List.of(12L), ids(index.search("arkadyevna", 0, 10)));
+        assertTrue(index.search("karenina", 0, 10).content().isEmpty());
+    }
+
+    private static List<Long> ids(BookSearchPageDto page) {
+        return page.content().stream().map(BookSearchHitDto::id).toList();
+    }
+
+    private static Author author(Long id, String name, String surname, Country country) {
+        Author author = new Author(name, surname, country);
+        author.setId(id);
+        return author;
+    }
+
+    private static Book book(Long id, String name, Author author) {
+        Book book = new Book(name, Category.NOVEL, author, 1);
+        book.setId(id);
+        return book;
+    }
+}
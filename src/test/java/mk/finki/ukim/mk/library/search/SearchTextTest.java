@@ -0,0 +1,27 @@
+package mk.finki.ukim.mk.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTextTest {
+
+    @Test
+    void fold_ShouldIgnoreCaseDiacriticsAndScript() {
+        assertEquals("koneski", SearchText.fold("Конески"));
+        assertEquals("koneski", SearchText.fold("KONESKI"));
+        assertEquals("casule", SearchText.fold("Čašule"));
+        assertEquals("casule", SearchText.fold("Чашуле"));
+        assertEquals("dzeparec", SearchText.fold("Џепарец"));
+        assertEquals("garcia marquez", SearchText.fold("García Márquez"));
+    }
+
+    @Test
+    void terms_ShouldSplitOnPunctuationAndDropDuplicates() {
+        assertEquals(List.of("war", "and", "peace"), SearchText.terms("War -- and... PEACE, war!"));
+        assertEquals(List.of(), SearchText.terms("  ,;  "));
+        assertEquals(List.of(), SearchText.terms(null));
+    }
+}
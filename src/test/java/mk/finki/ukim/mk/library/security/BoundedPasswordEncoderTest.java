@@ -0,0 +1,132 @@
+package mk.finki.ukim.mk.library.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.exceptions.PasswordHashingBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CountDownLatch release;
+    private BoundedPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (encoder != null) {
+            encoder.destroy();
+        }
+    }
+
+    @Test
+    void encodeAndMatches_ShouldDelegateAndRecordLatency() {
+        // Given
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, 5_000, meterRegistry);
+
+        // When
+        String hash = encoder.encode("password");
+
+        // Then
+        assertTrue(encoder.matches("password", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, meterRegistry.timer("library.password.hash", "operation", "encode").count());
+        assertEquals(2, meterRegistry.timer("library.password.hash", "operation", "matches").count());
+    }
+
+    @Test
+    void encode_ShouldRejectImmediately_WhenPoolAndQueueAreFull() throws Exception {
+        // Given one worker busy and one task queued
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 5_000, meterRegistry);
+        CompletableFuture.runAsync(() -> encoder.encode("first"));
+        waitUntil(() -> encoder.getActiveCount() == 1);
+        CompletableFuture.runAsync(() -> encoder.encode("second"));
+        waitUntil(() -> encoder.getQueueDepth() == 1);
+
+        // When
+        long start = System.nanoTime();
+        PasswordHashingBusyException exception =
+                assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("third"));
+
+        // Then
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1_000);
+        assertTrue(exception.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, meterRegistry.counter("library.password.rejections").count());
+    }
+
+    @Test
+    void encode_ShouldGiveUpAndLeaveTheQueue_WhenStillQueuedAfterMaxWait() throws Exception {
+        // Given the only worker is busy
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 50, meterRegistry);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("first"));
+        waitUntil(() -> encoder.getActiveCount() == 1);
+
+        // When
+        assertThrows(PasswordHashingBusyException.class, () -> encoder.encode("queued"));
+
+        // Then the abandoned hash no longer takes a queue slot, and the running one still completes
+        assertEquals(0, encoder.getQueueDepth());
+        assertEquals(1.0, meterRegistry.counter("library.password.rejections").count());
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void encode_ShouldWaitForAStartedHash_WhenItRunsPastMaxWait() throws Exception {
+        // Given
+        encoder = new BoundedPasswordEncoder(blockingEncoder(), 1, 1, 50, meterRegistry);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> encoder.encode("slow"));
+        waitUntil(() -> encoder.getActiveCount() == 1);
+
+        // When
+        Thread.sleep(100);
+        release.countDown();
+
+        // Then
+        assertEquals("hash", slow.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, meterRegistry.counter("library.password.rejections").count());
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "hash";
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package mk.finki.ukim.mk.library.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
+import mk.finki.ukim.mk.library.model.domain.User;
+import mk.finki.ukim.mk.library.model.enumerations.Role;
+import mk.finki.ukim.mk.library.service.domain.UserService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the per-request cost of JWT authentication. {@code legacy} reproduces the
+ * old behaviour (signing key and parser rebuilt for every parse, token parsed three times per
+ * request); {@code current} is what {@link JwtHelper} and {@link JwtFilter} do now. The filter
+ * benchmarks time a full pass with the user loaded per request and with the stateless principal.
+ * <p>
+ * Not run by surefire; start it from the IDE or with
+ * {@code java -cp target/test-classes:<test classpath> mk.finki.ukim.mk.library.security.JwtFilterBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private JwtHelper jwtHelper;
+    private JwtFilter jwtFilter;
+    private JwtFilter statelessJwtFilter;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtHelper = new JwtHelper();
+        user = new User("benchuser", "password", "Bench", "User", Role.ROLE_USER);
+        token = jwtHelper.generateToken(user);
+
+        UserService userService = Mockito.mock(UserService.class);
+        Mockito.when(userService.findByUsername("benchuser")).thenReturn(user);
+        UserPrincipalCache uncached = new UserPrincipalCache(userService, false, 0, 0, new SimpleMeterRegistry());
+        // the stateless filter reads the token version once, then answers from memory
+        UserPrincipalCache cached = new UserPrincipalCache(userService, true, 16, 16, new SimpleMeterRegistry());
+        jwtFilter = new JwtFilter(jwtHelper, uncached, false);
+        statelessJwtFilter = new JwtFilter(jwtHelper, cached, true);
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        // extractUsername, then isValid -> isExpired + extractUsername, each with a fresh key and parser
+        String username = legacyParse(token).getSubject();
+        boolean notExpired = !legacyParse(token).getExpiration().before(new Date());
+        return notExpired && legacyParse(token).getSubject().equals(username)
+                && username.equals(user.getUsername());
+    }
+
+    @Benchmark
+    public boolean current() {
+        Claims claims = jwtHelper.parseClaims(token);
+        return jwtHelper.isValid(claims, user);
+    }
+
+    @Benchmark
+    public Object filter() throws Exception {
+        return runFilter(jwtFilter);
+    }
+
+    @Benchmark
+    public Object statelessFilter() throws Exception {
+        return runFilter(statelessJwtFilter);
+    }
+
+    private Object runFilter(JwtFilter filter) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+        request.addHeader(JwtConstants.HEADER, JwtConstants.TOKEN_PREFIX + token);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private Claims legacyParse(String token) {
+        Key key = Keys.hmacShaKeyFor(hexStringToByteArray(JwtConstants.SECRET_KEY));
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private static byte[] hexStringToByteArray(String hex) {
+        int len = hex.length();
+        byte[] data = new byte[len / 2];
+        for (int i = 0; i < len; i += 2) {
+            data[i / 2] = (byte) ((Character.digit(hex.charAt(i), 16) << 4)
+                    + Character.digit(hex.charAt(i + 1), 16));
+        }
+        return data;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -1,16 +1,19 @@
 package mk.finki.ukim.mk.library.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import mk.finki.ukim.mk.library.cache.UserPrincipalCache;
 import mk.finki.ukim.mk.library.model.domain.User;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
 import mk.finki.ukim.mk.library.service.domain.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.Authentication;
@@ -19,10 +22,13 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.io.IOException;
+import java.util.Date;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -51,7 +57,8 @@ class JwtFilterTest {
     @Mock
     private SecurityContext securityContext;
 
-    @InjectMocks
+    private UserPrincipalCache userPrincipalCache;
+
     private JwtFilter jwtFilter;
 
     private User testUser;
@@ -59,6 +66,8 @@ class JwtFilterTest {
     @BeforeEach
     void setUp() {
         testUser = new User("testuser", "password", "Test", "User", Role.ROLE_USER);
+        userPrincipalCache = new UserPrincipalCache(userService, false, 0, 0, new SimpleMeterRegistry());
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, false);
         SecurityContextHolder.setContext(securityContext);
     }
 
@@ -72,7 +81,7 @@ class JwtFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtHelper, never()).extractUsername(anyString());
+        verify(jwtHelper, never()).parseClaims(anyString());
         verify(userService, never()).findByUsername(anyString());
     }
 
@@ -86,7 +95,7 @@ class JwtFilterTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtHelper, never()).extractUsername(anyString());
+        verify(jwtHelper, never()).parseClaims(anyString());
         verify(userService, never()).findByUsername(anyString());
     }
 
@@ -97,18 +106,18 @@ class JwtFilterTest {
         String authHeader = JwtConstants.TOKEN_PREFIX + token;
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenReturn("testuser");
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
         when(securityContext.getAuthentication()).thenReturn(null);
         when(userService.findByUsername("testuser")).thenReturn(testUser);
-        when(jwtHelper.isValid(token, testUser)).thenReturn(true);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtHelper).extractUsername(token);
+        verify(jwtHelper).parseClaims(token);
         verify(userService).findByUsername("testuser");
-        verify(jwtHelper).isValid(token, testUser);
+        verify(jwtHelper).isValid(any(Claims.class), eq(testUser));
         verify(securityContext).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -120,18 +129,18 @@ class JwtFilterTest {
         String authHeader = JwtConstants.TOKEN_PREFIX + token;
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenReturn("testuser");
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
         when(securityContext.getAuthentication()).thenReturn(null);
         when(userService.findByUsername("testuser")).thenReturn(testUser);
-        when(jwtHelper.isValid(token, testUser)).thenReturn(false);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(false);
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtHelper).extractUsername(token);
+        verify(jwtHelper).parseClaims(token);
         verify(userService).findByUsername("testuser");
-        verify(jwtHelper).isValid(token, testUser);
+        verify(jwtHelper).isValid(any(Claims.class), eq(testUser));
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
     }
@@ -143,13 +152,13 @@ class JwtFilterTest {
         String authHeader = JwtConstants.TOKEN_PREFIX + token;
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenReturn(null);
+        when(jwtHelper.parseClaims(token)).thenReturn(claims(null));
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtHelper).extractUsername(token);
+        verify(jwtHelper).parseClaims(token);
         verify(userService, never()).findByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
@@ -162,14 +171,14 @@ class JwtFilterTest {
         Authentication existingAuth = mock(Authentication.class);
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenReturn("testuser");
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
         when(securityContext.getAuthentication()).thenReturn(existingAuth);
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtHelper).extractUsername(token);
+        verify(jwtHelper).parseClaims(token);
         verify(userService, never()).findByUsername(anyString());
         verify(filterChain).doFilter(request, response);
     }
@@ -181,13 +190,13 @@ class JwtFilterTest {
         String authHeader = JwtConstants.TOKEN_PREFIX + token;
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenThrow(new io.jsonwebtoken.JwtException("Invalid token"));
+        when(jwtHelper.parseClaims(token)).thenThrow(new io.jsonwebtoken.JwtException("Invalid token"));
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
 
         // Then
-        verify(jwtHelper).extractUsername(token);
+        verify(jwtHelper).parseClaims(token);
         verify(userService, never()).findByUsername(anyString());
         verify(securityContext, never()).setAuthentication(any());
         verify(filterChain).doFilter(request, response);
@@ -200,10 +209,10 @@ class JwtFilterTest {
         String authHeader = JwtConstants.TOKEN_PREFIX + token;
         
         when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
-        when(jwtHelper.extractUsername(token)).thenReturn("testuser");
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
         when(securityContext.getAuthentication()).thenReturn(null);
         when(userService.findByUsername("testuser")).thenReturn(testUser);
-        when(jwtHelper.isValid(token, testUser)).thenReturn(true);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
 
         // When
         jwtFilter.doFilterInternal(request, response, filterChain);
@@ -216,4 +225,149 @@ class JwtFilterTest {
             return true;
         }));
     }
+
+    @Test
+    void doFilterInternal_ShouldParseTokenOnlyOnce_WhenValidToken() throws ServletException, IOException {
+        // Given
+        String token = "valid-jwt-token";
+        String authHeader = JwtConstants.TOKEN_PREFIX + token;
+
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(authHeader);
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(jwtHelper, times(1)).parseClaims(token);
+        verify(jwtHelper, never()).extractUsername(anyString());
+        verify(jwtHelper, never()).extractExpiration(anyString());
+        verify(jwtHelper, never()).isValid(anyString(), any());
+    }
+
+    @Test
+    void doFilterInternal_ShouldAuthenticateFromClaimsWithoutLoadingUser_WhenStateless() throws ServletException, IOException {
+        // Given
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, true);
+        String token = "valid-jwt-token";
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(JwtConstants.TOKEN_PREFIX + token);
+        when(jwtHelper.parseClaims(token)).thenReturn(statelessClaims("testuser", true));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(jwtHelper.isValid(any(Claims.class), any(JwtPrincipal.class))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userService, never()).findByUsername(anyString());
+        verify(securityContext).setAuthentication(argThat(auth -> {
+            assertInstanceOf(JwtPrincipal.class, auth.getPrincipal());
+            assertEquals("testuser", auth.getName());
+            assertEquals("ROLE_USER", auth.getAuthorities().iterator().next().getAuthority());
+            return true;
+        }));
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShouldNotAuthenticate_WhenStatelessAccountIsLocked() throws ServletException, IOException {
+        // Given
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, true);
+        String token = "locked-jwt-token";
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(JwtConstants.TOKEN_PREFIX + token);
+        when(jwtHelper.parseClaims(token)).thenReturn(statelessClaims("testuser", false));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(jwtHelper.isValid(any(Claims.class), any(JwtPrincipal.class))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userService, never()).findByUsername(anyString());
+        verify(securityContext, never()).setAuthentication(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShouldLoadUser_WhenStatelessTokenPredatesUserChange() throws ServletException, IOException {
+        // Given the user changed after the token was issued, possibly through another instance
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, true);
+        String token = "stale-jwt-token";
+        Claims claims = statelessClaims("testuser", true);
+
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(JwtConstants.TOKEN_PREFIX + token);
+        when(jwtHelper.parseClaims(token)).thenReturn(claims);
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(userService.findTokenVersion("testuser")).thenReturn(1L);
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userService).findByUsername("testuser");
+        verify(securityContext).setAuthentication(argThat(auth -> auth.getPrincipal() == testUser));
+    }
+
+    @Test
+    void doFilterInternal_ShouldNotAuthenticate_WhenStatelessTokenOutlivesLockedUser() throws ServletException, IOException {
+        // Given the claims still say unlocked, but the persisted user was locked since
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, true);
+        String token = "revoked-jwt-token";
+        testUser.setAccountNonLocked(false);
+        testUser.setTokenVersion(1L);
+
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(JwtConstants.TOKEN_PREFIX + token);
+        when(jwtHelper.parseClaims(token)).thenReturn(statelessClaims("testuser", true));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(userService.findTokenVersion("testuser")).thenReturn(1L);
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(securityContext, never()).setAuthentication(any());
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShouldLoadUser_WhenStatelessTokenHasNoAccountClaims() throws ServletException, IOException {
+        // Given
+        jwtFilter = new JwtFilter(jwtHelper, userPrincipalCache, true);
+        String token = "old-jwt-token";
+        when(request.getHeader(JwtConstants.HEADER)).thenReturn(JwtConstants.TOKEN_PREFIX + token);
+        when(jwtHelper.parseClaims(token)).thenReturn(claims("testuser"));
+        when(securityContext.getAuthentication()).thenReturn(null);
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(jwtHelper.isValid(any(Claims.class), eq(testUser))).thenReturn(true);
+
+        // When
+        jwtFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(userService).findByUsername("testuser");
+        verify(securityContext).setAuthentication(any());
+    }
+
+    private Claims claims(String subject) {
+        return Jwts.claims().setSubject(subject);
+    }
+
+    private Claims statelessClaims(String subject, boolean accountNonLocked) {
+        Claims claims = claims(subject);
+        claims.setIssuedAt(new Date());
+        claims.put(JwtConstants.ROLES_CLAIM, List.of("ROLE_USER"));
+        claims.put(JwtConstants.ENABLED_CLAIM, true);
+        claims.put(JwtConstants.ACCOUNT_NON_EXPIRED_CLAIM, true);
+        claims.put(JwtConstants.ACCOUNT_NON_LOCKED_CLAIM, accountNonLocked);
+        claims.put(JwtConstants.CREDENTIALS_NON_EXPIRED_CLAIM, true);
+        claims.put(JwtConstants.TOKEN_VERSION_CLAIM, 0L);
+        return claims;
+    }
 }
@@ -144,6 +144,28 @@ class JwtHelperTest {
         assertNotNull(claims.get("roles"));
     }
 
+    @Test
+    void generateToken_ShouldCarryEnoughClaimsToBuildPrincipal() {
+        // Given
+        User librarianUser = new User("librarian", "password", "Lib", "Rarian", Role.ROLE_LIBRARIAN);
+
+        librarianUser.setTokenVersion(3L);
+
+        // When
+        Claims claims = jwtHelper.parseClaims(jwtHelper.generateToken(librarianUser));
+        JwtPrincipal principal = JwtPrincipal.fromClaims(claims);
+
+        // Then
+        assertNotNull(principal);
+        assertEquals("librarian", principal.getUsername());
+        assertEquals("ROLE_LIBRARIAN", principal.getAuthorities().iterator().next().getAuthority());
+        assertTrue(principal.isEnabled());
+        assertTrue(principal.isAccountNonLocked());
+        assertTrue(principal.isAccountNonExpired());
+        assertTrue(principal.isCredentialsNonExpired());
+        assertEquals(3L, claims.get(JwtConstants.TOKEN_VERSION_CLAIM, Number.class).longValue());
+    }
+
     @Test
     void isValid_ShouldReturnFalse_WhenTokenIsNull() {
         // When & Then
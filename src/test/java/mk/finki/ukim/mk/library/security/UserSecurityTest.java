@@ -148,8 +148,9 @@ class UserSecurityTest {
         User sameUser = new User("user", "differentpassword", "Different", "Name", Role.ROLE_LIBRARIAN);
 
         // Then
-        assertEquals(regularUser.getUsername(), sameUser.getUsername());
-        // Note: User class uses Lombok @Data which generates equals/hashCode based on all fields
+        assertEquals(regularUser, sameUser);
+        assertEquals(regularUser.hashCode(), sameUser.hashCode());
+        assertNotEquals(regularUser, new User("other", "password", "Regular", "User", Role.ROLE_USER));
     }
 
     @Test
@@ -1,5 +1,7 @@
 package mk.finki.ukim.mk.library.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.cache.CatalogCache;
 import mk.finki.ukim.mk.library.model.Dto.CreateAuthorDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
 import mk.finki.ukim.mk.library.model.domain.Author;
@@ -12,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
@@ -31,6 +34,9 @@ class AuthorApplicationServiceTest {
     @Mock
     private CountryService countryService;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(false, 0, new SimpleMeterRegistry());
+
     @InjectMocks
     private AuthorApplicationServiceImpl authorApplicationService;
 
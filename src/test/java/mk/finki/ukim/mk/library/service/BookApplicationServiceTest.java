@@ -0,0 +1,142 @@
+package mk.finki.ukim.mk.library.service;
+
+import mk.finki.ukim.mk.library.cache.CatalogCache;
+import mk.finki.ukim.mk.library.config.UserContext;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.model.Dto.BookCursor;
+import mk.finki.ukim.mk.library.model.Dto.BookPageDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
+import mk.finki.ukim.mk.library.model.domain.Author;
+import mk.finki.ukim.mk.library.model.domain.Book;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.domain.Country;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
+import mk.finki.ukim.mk.library.search.BookFacetIndex;
+import mk.finki.ukim.mk.library.search.BookSearchIndex;
+import mk.finki.ukim.mk.library.service.application.Impl.BookApplicationServiceImpl;
+import mk.finki.ukim.mk.library.service.domain.AuthorService;
+import mk.finki.ukim.mk.library.service.domain.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookApplicationServiceTest {
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private UserContext userContext;
+
+    @Mock
+    private CatalogCache catalogCache;
+
+    @Mock
+    private BookSearchIndex searchIndex;
+
+    @Mock
+    private BookFacetIndex facetIndex;
+
+    @InjectMocks
+    private BookApplicationServiceImpl bookApplicationService;
+
+    private Author testAuthor;
+
+    @BeforeEach
+    void setUp() {
+        Country testCountry = new Country("Test Country", "Test Continent");
+        testCountry.setId(1L);
+
+        testAuthor = new Author("Test", "Author", testCountry);
+        testAuthor.setId(1L);
+    }
+
+    @Test
+    void findPage_ShouldReturnNextCursorAfterLastBook_WhenAnotherPageExists() {
+        // Given one row more than the page holds
+        when(bookService.findPage(null, null, null, BookSort.ID, null, null, 3)).thenReturn(books(1, 3));
+
+        // When
+        BookPageDto result = bookApplicationService.findPage(null, null, null, null, null, 2);
+
+        // Then
+        assertEquals(List.of(1L, 2L), result.content().stream().map(DisplayBookDto::id).toList());
+        assertEquals(2, result.size());
+        assertEquals(new BookCursor(BookSort.ID, 2L, null), BookCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findPage_ShouldSeekPastDecodedCursor_AndEndWithoutNextCursor() {
+        // Given
+        String cursor = new BookCursor(BookSort.NAME, 5L, "Book 5").encode();
+        when(bookService.findPage(Category.NOVEL, null, null, BookSort.NAME, "Book 5", 5L, 3)).thenReturn(books(6, 7));
+
+        // When
+        BookPageDto result = bookApplicationService.findPage(Category.NOVEL, null, null, BookSort.NAME, cursor, 2);
+
+        // Then
+        assertEquals(List.of(6L, 7L), result.content().stream().map(DisplayBookDto::id).toList());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void findPage_ShouldCapPageSize_WhenSizeIsTooLarge() {
+        // Given
+        when(bookService.findPage(isNull(), isNull(), isNull(), eq(BookSort.ID), isNull(), isNull(), anyInt()))
+                .thenReturn(books(1, 101));
+
+        // When
+        BookPageDto result = bookApplicationService.findPage(null, null, null, BookSort.ID, null, 10_000);
+
+        // Then one extra row is fetched past the largest page
+        verify(bookService).findPage(null, null, null, BookSort.ID, null, null, 101);
+        assertEquals(100, result.size());
+        assertEquals(100, result.content().size());
+        assertEquals(new BookCursor(BookSort.ID, 100L, null), BookCursor.decode(result.nextCursor()));
+    }
+
+    @Test
+    void findPage_ShouldRejectMalformedCursor() {
+        // When & Then
+        assertThrows(InvalidArgumentsException.class,
+                () -> bookApplicationService.findPage(null, null, null, null, "not a cursor", 10));
+        verifyNoInteractions(bookService);
+    }
+
+    @Test
+    void findPage_ShouldRejectCursorFromAnotherSortOrder() {
+        // Given
+        String cursor = new BookCursor(BookSort.ID, 5L, null).encode();
+
+        // When & Then
+        assertThrows(InvalidArgumentsException.class,
+                () -> bookApplicationService.findPage(null, null, null, BookSort.NAME, cursor, 10));
+        verifyNoInteractions(bookService);
+    }
+
+    private List<Book> books(long firstId, long lastId) {
+        return LongStream.rangeClosed(firstId, lastId)
+                .mapToObj(id -> {
+                    Book book = new Book("Book " + id, Category.NOVEL, testAuthor, 1);
+                    book.setId(id);
+                    return book;
+                })
+                .toList();
+    }
+}
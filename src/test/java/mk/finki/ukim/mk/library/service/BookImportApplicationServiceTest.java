@@ -0,0 +1,149 @@
+package mk.finki.ukim.mk.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.config.UserContext;
+import mk.finki.ukim.mk.library.model.Dto.BookImportErrorDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportResultDto;
+import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+import mk.finki.ukim.mk.library.service.application.Impl.BookImportApplicationServiceImpl;
+import mk.finki.ukim.mk.library.service.domain.AuthorService;
+import mk.finki.ukim.mk.library.service.domain.BookImportService;
+import mk.finki.ukim.mk.library.service.domain.BookService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportApplicationServiceTest {
+
+    @Mock
+    private BookImportService bookImportService;
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private UserContext userContext;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importBooks_ShouldInsertCsvRowsInBatchesAndLookUpEachAuthorOnce() {
+        // Given
+        when(userContext.getCurrentUsername()).thenReturn("librarian");
+        when(authorService.existsById(1L)).thenReturn(true);
+        when(authorService.findIdByNameAndSurname("Test", "Author")).thenReturn(Optional.of(2L));
+        String csv = "name,category,authorId,authorName,authorSurname,availableCopies\r\n" +
+                "\"Book, One\",NOVEL,1,,,3\r\n" +
+                "Book Two,novel,1,,,0\r\n" +
+                "Book Three,DRAMA,,Test,Author,1\r\n";
+
+        // When
+        BookImportResultDto result = service(2).importBooks(stream(csv), CatalogFormat.CSV);
+
+        // Then
+        assertEquals(3, result.rows());
+        assertEquals(3, result.imported());
+        assertEquals(0, result.failed());
+        ArgumentCaptor<List<CreateBookDto>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(bookImportService, times(2)).insertAll(chunks.capture(), eq("librarian"));
+        assertEquals(List.of(
+                new CreateBookDto("Book, One", Category.NOVEL, 1L, 3),
+                new CreateBookDto("Book Two", Category.NOVEL, 1L, 0)), chunks.getAllValues().get(0));
+        assertEquals(List.of(new CreateBookDto("Book Three", Category.DRAMA, 2L, 1)), chunks.getAllValues().get(1));
+        verify(authorService).existsById(1L);
+        verify(bookService).refreshBooksByAuthorView();
+    }
+
+    @Test
+    void importBooks_ShouldReportInvalidNdjsonRowsAndImportTheRest() {
+        // Given
+        when(authorService.existsById(1L)).thenReturn(true);
+        when(authorService.existsById(99L)).thenReturn(false);
+        String ndjson = """
+                {"name":"Valid","category":"NOVEL","authorId":1,"availableCopies":2}
+                {"name":"Unknown author","category":"NOVEL","authorId":99,"availableCopies":2}
+
+                {"name":"Bad category","category":"POETRY","authorId":1,"availableCopies":2}
+                {"name":"Broken",
+                {"name":"Negative","category":"NOVEL","authorId":1,"availableCopies":-1}
+                """;
+
+        // When
+        BookImportResultDto result = service(10).importBooks(stream(ndjson), CatalogFormat.NDJSON);
+
+        // Then
+        assertEquals(5, result.rows());
+        assertEquals(1, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), result.errors().stream().map(BookImportErrorDto::row).toList());
+        assertEquals("unknown author", result.errors().get(0).message());
+        assertEquals("unknown category: POETRY", result.errors().get(1).message());
+        verify(bookImportService).insertAll(List.of(new CreateBookDto("Valid", Category.NOVEL, 1L, 2)), null);
+    }
+
+    @Test
+    void importBooks_ShouldRetryFailedChunkRowByRow() {
+        // Given
+        when(authorService.existsById(1L)).thenReturn(true);
+        when(bookImportService.insertAll(anyList(), any()))
+                .thenThrow(new DataIntegrityViolationException("value too long"))
+                .thenReturn(List.of(10L))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        String csv = "name,category,authorId,availableCopies\nFirst,NOVEL,1,1\nSecond,NOVEL,1,1\n";
+
+        // When
+        BookImportResultDto result = service(10).importBooks(stream(csv), CatalogFormat.CSV);
+
+        // Then only the row at fault is lost
+        assertEquals(1, result.imported());
+        assertEquals(1, result.failed());
+        assertEquals(2L, result.errors().get(0).row());
+        verify(bookImportService, times(3)).insertAll(anyList(), any());
+    }
+
+    @Test
+    void importBooks_ShouldCapReportedErrors() {
+        // Given
+        String csv = "name,category,authorId,availableCopies\n" + ",NOVEL,1,1\n".repeat(5);
+
+        // When
+        BookImportResultDto result = new BookImportApplicationServiceImpl(bookImportService, authorService,
+                bookService, userContext, new ObjectMapper(), new SimpleMeterRegistry(), 10, 2)
+                .importBooks(stream(csv), CatalogFormat.CSV);
+
+        // Then
+        assertEquals(5, result.failed());
+        assertEquals(2, result.errors().size());
+        assertTrue(result.errorsTruncated());
+        verifyNoInteractions(bookImportService);
+        verify(bookService, never()).refreshBooksByAuthorView();
+    }
+
+    private BookImportApplicationServiceImpl service(int batchSize) {
+        return new BookImportApplicationServiceImpl(bookImportService, authorService, bookService, userContext,
+                new ObjectMapper(), new SimpleMeterRegistry(), batchSize, 100);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
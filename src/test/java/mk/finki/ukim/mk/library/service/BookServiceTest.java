@@ -1,28 +1,41 @@
 package mk.finki.ukim.mk.library.service;
 
+import mk.finki.ukim.mk.library.events.BookRevisionEvent;
+import mk.finki.ukim.mk.library.events.CatalogChangedEvent;
+import mk.finki.ukim.mk.library.exceptions.BookNotFoundException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
+import mk.finki.ukim.mk.library.jobs.BooksByAuthorViewRefresher;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.domain.*;
 import mk.finki.ukim.mk.library.repository.BookHistoryRepository;
 import mk.finki.ukim.mk.library.repository.BookRepository;
-import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
 import mk.finki.ukim.mk.library.service.domain.Impl.BookServiceImpl;
-import mk.finki.ukim.mk.library.service.domain.UserService;
 import mk.finki.ukim.mk.library.config.UserContext;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.env.Environment;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -35,16 +48,13 @@ class BookServiceTest {
     private BookHistoryRepository bookHistoryRepository;
 
     @Mock
-    private UserService userService;
-
-    @Mock
-    private BooksByAuthorViewRepository booksByAuthorViewRepository;
+    private BooksByAuthorViewRefresher booksByAuthorViewRefresher;
 
     @Mock
     private UserContext userContext;
 
     @Mock
-    private Environment environment;
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private BookServiceImpl bookService;
@@ -97,12 +107,10 @@ class BookServiceTest {
     }
 
     @Test
-    void save_ShouldSaveBookAndCreateHistory() {
+    void save_ShouldSaveBookAndPublishRevision() {
         // Given
         String username = "testuser";
-        when(userService.findByUsername(username)).thenReturn(testUser);
         when(bookRepository.save(testBook)).thenReturn(testBook);
-        when(environment.acceptsProfiles("test")).thenReturn(true);
 
         // When
         Optional<Book> result = bookService.save(testBook, username);
@@ -110,19 +118,92 @@ class BookServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(testBook, result.get());
-        verify(userService).findByUsername(username);
         verify(bookRepository).save(testBook);
-        verify(bookHistoryRepository).save(any(BookHistory.class));
-        // In test environment, refreshBooksByAuthorView should not call refreshMaterializedViewPostgreSQL
-        verify(environment).acceptsProfiles("test");
+        // history is written after commit by BookHistoryWriter, without loading the user
+        ArgumentCaptor<ApplicationEvent> events = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(events.capture());
+        BookRevisionEvent published = events.getAllValues().stream()
+                .filter(BookRevisionEvent.class::isInstance)
+                .map(BookRevisionEvent.class::cast)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1L, published.getBookId());
+        assertEquals(username, published.getModifiedBy());
+        assertEquals(1L, published.getAuthorId());
+        verify(bookHistoryRepository, never()).save(any(BookHistory.class));
+        // The view is only marked dirty; the refresher rebuilds it later
+        verify(booksByAuthorViewRefresher).markDirty();
+    }
+
+    @Test
+    void update_ShouldFailWithoutSaving_WhenEditCarriesNoVersion() {
+        // Given
+        testBook.setVersion(3L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        Book edit = new Book("Renamed", Category.DRAMA, testAuthor, 9);
+        edit.setId(1L);
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookService.update(edit, "testuser"));
+        assertEquals("Test Book", testBook.getName());
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void update_ShouldApplyEveryField_WhenEditCarriesCurrentVersion() {
+        // Given
+        testBook.setVersion(3L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(bookRepository.save(testBook)).thenReturn(testBook);
+        Book edit = new Book("Renamed", Category.DRAMA, testAuthor, 9);
+        edit.setId(1L);
+        edit.setVersion(3L);
+
+        // When
+        Optional<Book> result = bookService.update(edit, "testuser");
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals("Renamed", testBook.getName());
+        assertEquals(Category.DRAMA, testBook.getCategory());
+        assertEquals(9, testBook.getAvailableCopies());
+        verify(bookRepository).save(testBook);
+    }
+
+    @Test
+    void update_ShouldFailWithoutSaving_WhenEditCarriesStaleVersion() {
+        // Given a borrow moved the book to version 4 after the client read version 3
+        testBook.setVersion(4L);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        Book edit = new Book("Test Book", Category.NOVEL, testAuthor, 5);
+        edit.setId(1L);
+        edit.setVersion(3L);
+
+        // When & Then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookService.update(edit, "testuser"));
+        verify(bookRepository, never()).save(any(Book.class));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void update_ShouldBeEmpty_WhenBookDoesNotExist() {
+        // Given
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        Optional<Book> result = bookService.update(testBook, "testuser");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(bookRepository, never()).save(any(Book.class));
     }
 
     @Test
     void markAsBorrowed_ShouldDecreaseAvailableCopies_WhenCopiesAvailable() {
         // Given
-        testBook.setAvailableCopies(3);
+        testBook.setAvailableCopies(2);
+        when(bookRepository.decrementAvailableCopies(1L)).thenReturn(1);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(bookRepository.save(any(Book.class))).thenReturn(testBook);
 
         // When
         Optional<Book> result = bookService.markAsBorrowed(1L);
@@ -130,7 +211,166 @@ class BookServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(2, result.get().getAvailableCopies());
-        verify(bookRepository).findById(1L);
-        verify(bookRepository).save(testBook);
+        verify(bookRepository).decrementAvailableCopies(1L);
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void markAsBorrowed_ShouldFail_WhenNoCopiesLeft() {
+        // Given
+        testBook.setAvailableCopies(0);
+        when(bookRepository.decrementAvailableCopies(1L)).thenReturn(0);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+
+        // When & Then
+        NotEnoughCopiesException exception = assertThrows(NotEnoughCopiesException.class,
+                () -> bookService.markAsBorrowed(1L));
+        assertEquals(List.of("Test Book"), exception.getTitles());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void markAsBorrowed_ShouldBeEmpty_WhenBookDoesNotExist() {
+        // Given
+        when(bookRepository.decrementAvailableCopies(1L)).thenReturn(0);
+        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertTrue(bookService.markAsBorrowed(1L).isEmpty());
+    }
+
+    @Test
+    void borrowCopy_ShouldReturnFalse_WhenNoCopiesLeft() {
+        // Given
+        when(bookRepository.decrementAvailableCopies(1L)).thenReturn(0);
+
+        // When
+        boolean borrowed = bookService.borrowCopy(1L);
+
+        // Then
+        assertFalse(borrowed);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void borrowCopies_ShouldDecrementAllBooksInOneUpdate_WhenAllAvailable() {
+        // Given
+        List<Long> ids = List.of(1L, 2L, 3L);
+        when(bookRepository.findNamesWithoutCopies(ids)).thenReturn(List.of());
+        when(bookRepository.decrementAvailableCopiesOfAll(ids)).thenReturn(3);
+
+        // When
+        bookService.borrowCopies(ids);
+
+        // Then
+        verify(bookRepository).decrementAvailableCopiesOfAll(ids);
+        verify(eventPublisher).publishEvent(any(CatalogChangedEvent.class));
+    }
+
+    @Test
+    void borrowCopies_ShouldReportShortTitles_WithoutTakingCopies() {
+        // Given
+        List<Long> ids = List.of(1L, 2L);
+        when(bookRepository.findNamesWithoutCopies(ids)).thenReturn(List.of("Sold Out"));
+
+        // When
+        NotEnoughCopiesException exception = assertThrows(NotEnoughCopiesException.class,
+                () -> bookService.borrowCopies(ids));
+
+        // Then
+        assertEquals(List.of("Sold Out"), exception.getTitles());
+        verify(bookRepository, never()).decrementAvailableCopiesOfAll(any());
+    }
+
+    @Test
+    void borrowCopies_ShouldFail_WhenCopiesRunOutDuringUpdate() {
+        // Given
+        List<Long> ids = List.of(1L, 2L);
+        when(bookRepository.findNamesWithoutCopies(ids)).thenReturn(List.of(), List.of("Last Copy"));
+        when(bookRepository.decrementAvailableCopiesOfAll(ids)).thenReturn(1);
+        when(bookRepository.findExistingIds(ids)).thenReturn(ids);
+
+        // When & Then
+        NotEnoughCopiesException exception = assertThrows(NotEnoughCopiesException.class,
+                () -> bookService.borrowCopies(ids));
+        assertEquals(List.of("Last Copy"), exception.getTitles());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void borrowCopies_ShouldReportMissingBooks_WhenABookWasDeleted() {
+        // Given book 2 was deleted while it was still in a wishlist
+        List<Long> ids = List.of(1L, 2L);
+        when(bookRepository.findNamesWithoutCopies(ids)).thenReturn(List.of());
+        when(bookRepository.decrementAvailableCopiesOfAll(ids)).thenReturn(1);
+        when(bookRepository.findExistingIds(ids)).thenReturn(List.of(1L));
+
+        // When & Then
+        BookNotFoundException exception = assertThrows(BookNotFoundException.class,
+                () -> bookService.borrowCopies(ids));
+        assertEquals(List.of(2L), exception.getIds());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void findHistoryPage_ShouldRebuildDeltaRowsFromNearestSnapshot() {
+        // Given a page holding revision 6 (only the copies changed) and revision 5 (only the name)
+        DisplayBookHistoryDto revision6 = history(60L, 6, null, 1);
+        DisplayBookHistoryDto revision5 = history(50L, 5, "Second Edition", null);
+        when(bookHistoryRepository.findPage(eq(1L), isNull(), isNull(), isNull(), isNull(), any(Limit.class)))
+                .thenReturn(List.of(revision6, revision5));
+        when(bookHistoryRepository.findChain(1L, 5, 6))
+                .thenReturn(List.of(history(40L, 4, "Test Book", 5), revision5, revision6));
+
+        // When
+        List<DisplayBookHistoryDto> page = bookService.findHistoryPage(1L, null, null, null, null, 2);
+
+        // Then
+        assertEquals(List.of(6, 5), page.stream().map(DisplayBookHistoryDto::revision).toList());
+        assertEquals("Second Edition", page.get(0).name());
+        assertEquals(1, page.get(0).availableCopies());
+        assertEquals(Category.NOVEL, page.get(0).category());
+        assertEquals(5, page.get(1).availableCopies());
+    }
+
+    @Test
+    void findRevision_ShouldBeEmpty_WhenRevisionWasNeverWritten() {
+        // Given
+        when(bookHistoryRepository.findChain(1L, 9, 9)).thenReturn(List.of(history(40L, 4, "Test Book", 5)));
+
+        // When & Then
+        assertTrue(bookService.findRevision(1L, 9).isEmpty());
+    }
+
+    @Test
+    void exportHistory_ShouldReplayEachBookFromItsOwnChain() {
+        // Given book 1 at revisions 1-2 and book 2 at revisions 1-2, stored as deltas
+        DisplayBookHistoryDto otherBook = new DisplayBookHistoryDto(50L, 2L, 1, "Other Book", Category.DRAMA,
+                2L, "Other Author", 7, LocalDateTime.of(2024, 1, 1, 12, 0), "testuser");
+        DisplayBookHistoryDto otherBookDelta = new DisplayBookHistoryDto(51L, 2L, 2, null, null,
+                null, null, 6, LocalDateTime.of(2024, 1, 2, 12, 0), "testuser");
+        when(bookHistoryRepository.streamAll()).thenReturn(Stream.of(
+                history(10L, 1, "Test Book", 5), history(11L, 2, null, 4), otherBook, otherBookDelta));
+        List<DisplayBookHistoryDto> exported = new ArrayList<>();
+
+        // When
+        bookService.exportHistory(exported::add);
+
+        // Then every row is a full state, and book 2 never inherits fields of book 1
+        assertEquals(4, exported.size());
+        assertEquals("Test Book", exported.get(1).name());
+        assertEquals(4, exported.get(1).availableCopies());
+        assertEquals(otherBook, exported.get(2));
+        assertEquals("Other Book", exported.get(3).name());
+        assertEquals(Category.DRAMA, exported.get(3).category());
+        assertEquals(6, exported.get(3).availableCopies());
+    }
+
+    private DisplayBookHistoryDto history(Long id, int revision, String name, Integer availableCopies) {
+        boolean complete = name != null && availableCopies != null;
+        return new DisplayBookHistoryDto(id, 1L, revision, name, complete ? Category.NOVEL : null,
+                complete ? 1L : null, complete ? "Test Author" : null, availableCopies,
+                LocalDateTime.of(2024, 1, revision, 12, 0), "testuser");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,66 @@
+package mk.finki.ukim.mk.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import mk.finki.ukim.mk.library.model.Dto.BookExportDto;
+import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
+import mk.finki.ukim.mk.library.service.application.Impl.CatalogExportWriter;
+import mk.finki.ukim.mk.library.service.application.Impl.CsvRecordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogExportWriterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void write_ShouldProduceCsvThatReadsBackUnchanged() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogExportWriter<BookExportDto> writer =
+                new CatalogExportWriter<>(out, CatalogFormat.CSV, BookExportDto.class, objectMapper, 100);
+
+        // When
+        writer.write(new BookExportDto(1L, "War, \"and\" Peace", Category.CLASSICS, 2L, "Lev", "Tolstoy", 3));
+        writer.write(new BookExportDto(2L, "No Author", Category.NOVEL, null, null, null, 0));
+        long rows = writer.finish();
+
+        // Then
+        assertEquals(2, rows);
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(out.toString(StandardCharsets.UTF_8)));
+        assertEquals(List.of("id", "name", "category", "authorId", "authorName", "authorSurname", "availableCopies"),
+                reader.next());
+        assertEquals(List.of("1", "War, \"and\" Peace", "CLASSICS", "2", "Lev", "Tolstoy", "3"), reader.next());
+        assertEquals(List.of("2", "No Author", "NOVEL", "", "", "", "0"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void write_ShouldProduceOneJsonObjectPerLine() throws IOException {
+        // Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CatalogExportWriter<BookExportDto> writer =
+                new CatalogExportWriter<>(out, CatalogFormat.NDJSON, BookExportDto.class, objectMapper, 100);
+
+        // When
+        writer.write(new BookExportDto(1L, "First", Category.NOVEL, 2L, "Test", "Author", 3));
+        // the first row is pushed out at once, before the flush interval is reached
+        int afterFirstRow = out.size();
+        writer.write(new BookExportDto(2L, "Second", Category.DRAMA, 2L, "Test", "Author", 1));
+        writer.finish();
+
+        // Then
+        assertTrue(afterFirstRow > 0);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(new BookExportDto(2L, "Second", Category.DRAMA, 2L, "Test", "Author", 1),
+                objectMapper.readValue(lines[1], BookExportDto.class));
+    }
+}
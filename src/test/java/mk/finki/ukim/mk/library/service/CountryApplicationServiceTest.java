@@ -1,5 +1,7 @@
 package mk.finki.ukim.mk.library.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import mk.finki.ukim.mk.library.cache.CatalogCache;
 import mk.finki.ukim.mk.library.model.Dto.CreateCountryDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayCountryDto;
 import mk.finki.ukim.mk.library.model.domain.Country;
@@ -10,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
@@ -26,6 +29,9 @@ class CountryApplicationServiceTest {
     @Mock
     private CountryService countryService;
 
+    @Spy
+    private CatalogCache catalogCache = new CatalogCache(false, 0, new SimpleMeterRegistry());
+
     @InjectMocks
     private CountryApplicationServiceImpl countryApplicationService;
 
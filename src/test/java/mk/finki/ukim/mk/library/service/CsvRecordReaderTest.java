@@ -0,0 +1,35 @@
+package mk.finki.ukim.mk.library.service;
+
+import mk.finki.ukim.mk.library.service.application.Impl.CsvRecordReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void next_ShouldReadQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+        // Given
+        CsvRecordReader reader = new CsvRecordReader(new StringReader(
+                "a,\"b, c\",\"say \"\"hi\"\"\"\r\n\r\n\"multi\nline\",,last"));
+
+        // When & Then
+        assertEquals(List.of("a", "b, c", "say \"hi\""), reader.next());
+        assertEquals(List.of("multi\nline", "", "last"), reader.next());
+        assertNull(reader.next());
+    }
+
+    @Test
+    void next_ShouldFailOnUnterminatedQuote() throws IOException {
+        // Given
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("ok,1\n\"never closed,2\n"));
+
+        // When & Then
+        assertEquals(List.of("ok", "1"), reader.next());
+        assertThrows(IOException.class, reader::next);
+    }
+}
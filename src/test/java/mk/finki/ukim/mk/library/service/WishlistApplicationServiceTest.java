@@ -1,5 +1,6 @@
 package mk.finki.ukim.mk.library.service;
 
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayWishlistDto;
 import mk.finki.ukim.mk.library.model.domain.*;
@@ -153,15 +154,15 @@ class WishlistApplicationServiceTest {
     }
 
     @Test
-    void borrowAllBooks_ShouldThrowRuntimeException_WhenServiceThrowsException() {
+    void borrowAllBooks_ShouldPassTheServiceExceptionThrough_WhenServiceThrowsException() {
         // Given
-        when(wishlistService.borrowAllBooks("testuser"))
-                .thenThrow(new RuntimeException("Not enough copies available"));
+        NotEnoughCopiesException notEnoughCopies = new NotEnoughCopiesException(List.of("Test Book"));
+        when(wishlistService.borrowAllBooks("testuser")).thenThrow(notEnoughCopies);
 
         // When & Then
-        RuntimeException exception = assertThrows(RuntimeException.class, 
+        NotEnoughCopiesException exception = assertThrows(NotEnoughCopiesException.class,
                 () -> wishlistApplicationService.borrowAllBooks("testuser"));
-        assertEquals("Not enough copies available", exception.getMessage());
+        assertSame(notEnoughCopies, exception);
         verify(wishlistService).borrowAllBooks("testuser");
     }
 
@@ -1,5 +1,6 @@
 package mk.finki.ukim.mk.library.service;
 
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
 import mk.finki.ukim.mk.library.model.domain.*;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
 import mk.finki.ukim.mk.library.model.enumerations.WishlistStatus;
@@ -21,6 +22,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -80,21 +82,24 @@ class WishlistServiceTest {
     }
 
     @Test
-    void getActiveWishlist_ShouldCreateNewWishlist_WhenNoActiveWishlistExists() {
+    void getActiveWishlist_ShouldReturnUnsavedEmptyWishlist_WhenNoActiveWishlistExists() {
         // Given
         when(userService.findByUsername("testuser")).thenReturn(testUser);
         when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
                 .thenReturn(Optional.empty());
-        when(wishlistRepository.save(any(Wishlist.class))).thenReturn(testWishlist);
 
         // When
         Optional<Wishlist> result = wishlistService.getActiveWishlist("testuser");
 
         // Then
         assertTrue(result.isPresent());
+        assertNull(result.get().getId());
+        assertTrue(result.get().getBooks().isEmpty());
+        assertEquals(WishlistStatus.CREATED, result.get().getStatus());
         verify(userService).findByUsername("testuser");
         verify(wishlistRepository).findByUserAndStatus(testUser, WishlistStatus.CREATED);
-        verify(wishlistRepository).save(any(Wishlist.class));
+        verify(wishlistRepository, never()).save(any(Wishlist.class));
+        verify(wishlistRepository, never()).insertActiveIfAbsent(anyString(), any());
     }
 
     @Test
@@ -112,21 +117,43 @@ class WishlistServiceTest {
     @Test
     void addBookToWishlist_ShouldAddBookToWishlist_WhenBookIsAvailable() {
         // Given
-        testWishlist.setBooks(new ArrayList<>());
+        testWishlist.setBooks(new ArrayList<>(Arrays.asList(testBook)));
         when(bookService.findById(1L)).thenReturn(Optional.of(testBook));
         when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(wishlistRepository.findIdByUserAndStatus(testUser, WishlistStatus.CREATED))
+                .thenReturn(Optional.of(1L));
         when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
                 .thenReturn(Optional.of(testWishlist));
-        when(wishlistRepository.save(any(Wishlist.class))).thenReturn(testWishlist);
 
         // When
         Optional<Wishlist> result = wishlistService.addBookToWishlist("testuser", 1L);
 
         // Then
         assertTrue(result.isPresent());
-        assertTrue(testWishlist.getBooks().contains(testBook));
+        assertTrue(result.get().getBooks().contains(testBook));
         verify(bookService).findById(1L);
-        verify(wishlistRepository).save(testWishlist);
+        verify(wishlistRepository).addBook(1L, 1L);
+        verify(wishlistRepository, never()).save(any(Wishlist.class));
+    }
+
+    @Test
+    void addBookToWishlist_ShouldCreateActiveWishlist_WhenUserHasNone() {
+        // Given
+        testWishlist.setBooks(new ArrayList<>(Arrays.asList(testBook)));
+        when(bookService.findById(1L)).thenReturn(Optional.of(testBook));
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(wishlistRepository.findIdByUserAndStatus(testUser, WishlistStatus.CREATED))
+                .thenReturn(Optional.empty(), Optional.of(1L));
+        when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
+                .thenReturn(Optional.of(testWishlist));
+
+        // When
+        Optional<Wishlist> result = wishlistService.addBookToWishlist("testuser", 1L);
+
+        // Then
+        assertTrue(result.isPresent());
+        verify(wishlistRepository).insertActiveIfAbsent(eq("testuser"), any());
+        verify(wishlistRepository).addBook(1L, 1L);
     }
 
     @Test
@@ -157,22 +184,22 @@ class WishlistServiceTest {
     @Test
     void removeBookFromWishlist_ShouldRemoveBookFromWishlist() {
         // Given
-        List<Book> books = new ArrayList<>(Arrays.asList(testBook));
-        testWishlist.setBooks(books);
         when(bookService.findById(1L)).thenReturn(Optional.of(testBook));
         when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(wishlistRepository.findIdByUserAndStatus(testUser, WishlistStatus.CREATED))
+                .thenReturn(Optional.of(1L));
         when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
                 .thenReturn(Optional.of(testWishlist));
-        when(wishlistRepository.save(any(Wishlist.class))).thenReturn(testWishlist);
 
         // When
         Optional<Wishlist> result = wishlistService.removeBookFromWishlist("testuser", 1L);
 
         // Then
         assertTrue(result.isPresent());
-        assertFalse(testWishlist.getBooks().contains(testBook));
+        assertFalse(result.get().getBooks().contains(testBook));
         verify(bookService).findById(1L);
-        verify(wishlistRepository).save(testWishlist);
+        verify(wishlistRepository).removeBook(1L, 1L);
+        verify(wishlistRepository, never()).save(any(Wishlist.class));
     }
 
     @Test
@@ -183,7 +210,6 @@ class WishlistServiceTest {
         when(userService.findByUsername("testuser")).thenReturn(testUser);
         when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
                 .thenReturn(Optional.of(testWishlist));
-        when(bookService.markAsBorrowed(1L)).thenReturn(Optional.of(testBook));
         when(wishlistRepository.save(any(Wishlist.class))).thenReturn(testWishlist);
 
         // When
@@ -192,7 +218,8 @@ class WishlistServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertTrue(testWishlist.getBooks().isEmpty());
-        verify(bookService).markAsBorrowed(1L);
+        assertEquals(WishlistStatus.BORROWED, testWishlist.getStatus());
+        verify(bookService).borrowCopies(List.of(1L));
         verify(wishlistRepository).save(testWishlist);
     }
 
@@ -205,11 +232,31 @@ class WishlistServiceTest {
         when(userService.findByUsername("testuser")).thenReturn(testUser);
         when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
                 .thenReturn(Optional.of(testWishlist));
+        doThrow(new NotEnoughCopiesException(List.of("Test Book")))
+                .when(bookService).borrowCopies(List.of(1L));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, 
                 () -> wishlistService.borrowAllBooks("testuser"));
         assertEquals("Not enough copies available for book: Test Book", exception.getMessage());
+        assertEquals(WishlistStatus.CREATED, testWishlist.getStatus());
+        verify(wishlistRepository, never()).save(any(Wishlist.class));
+    }
+
+    @Test
+    void borrowAllBooks_ShouldReturnEmptyWithoutSaving_WhenNoActiveWishlist() {
+        // Given
+        when(userService.findByUsername("testuser")).thenReturn(testUser);
+        when(wishlistRepository.findByUserAndStatus(testUser, WishlistStatus.CREATED))
+                .thenReturn(Optional.empty());
+
+        // When
+        Optional<Wishlist> result = wishlistService.borrowAllBooks("testuser");
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(bookService, never()).borrowCopies(any());
+        verify(wishlistRepository, never()).save(any(Wishlist.class));
     }
 
     @Test
@@ -11,6 +11,7 @@ import mk.finki.ukim.mk.library.model.views.AuthorsByCountryView;
 import mk.finki.ukim.mk.library.repository.AuthorRepository;
 import mk.finki.ukim.mk.library.repository.AuthorsByCountryViewRepository;
 import mk.finki.ukim.mk.library.service.application.AuthorApplicationService;
+import mk.finki.ukim.mk.library.service.application.CatalogExportApplicationService;
 import mk.finki.ukim.mk.library.service.domain.AuthorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -55,6 +56,9 @@ class AuthorControllerTest {
     @MockBean
     private AuthorService authorDomainService;
 
+    @MockBean
+    private CatalogExportApplicationService catalogExportApplicationService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
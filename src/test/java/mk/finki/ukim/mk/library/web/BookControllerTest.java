@@ -3,13 +3,29 @@ package mk.finki.ukim.mk.library.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import mk.finki.ukim.mk.library.LibraryApplication;
 import mk.finki.ukim.mk.library.config.TestSecurityConfig;
+import mk.finki.ukim.mk.library.exceptions.InvalidArgumentsException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
+import mk.finki.ukim.mk.library.model.Dto.BookBrowsePageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookFacetsDto;
+import mk.finki.ukim.mk.library.model.Dto.BookHistoryPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportErrorDto;
+import mk.finki.ukim.mk.library.model.Dto.BookImportResultDto;
+import mk.finki.ukim.mk.library.model.Dto.BookPageDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchHitDto;
+import mk.finki.ukim.mk.library.model.Dto.BookSearchPageDto;
 import mk.finki.ukim.mk.library.model.Dto.CreateBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
+import mk.finki.ukim.mk.library.model.Dto.DisplayBookHistoryDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayCountryDto;
+import mk.finki.ukim.mk.library.model.Dto.FacetCountDto;
 import mk.finki.ukim.mk.library.model.domain.Category;
+import mk.finki.ukim.mk.library.model.enumerations.BookSort;
+import mk.finki.ukim.mk.library.model.enumerations.CatalogFormat;
 import mk.finki.ukim.mk.library.repository.BooksByAuthorViewRepository;
 import mk.finki.ukim.mk.library.service.application.BookApplicationService;
+import mk.finki.ukim.mk.library.service.application.BookImportApplicationService;
+import mk.finki.ukim.mk.library.service.application.CatalogExportApplicationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,12 +36,19 @@ import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
@@ -44,6 +67,12 @@ class BookControllerTest {
     @MockBean
     private BookApplicationService bookApplicationService;
 
+    @MockBean
+    private BookImportApplicationService bookImportApplicationService;
+
+    @MockBean
+    private CatalogExportApplicationService catalogExportApplicationService;
+
     @MockBean
     private BooksByAuthorViewRepository booksByAuthorViewRepository;
 
@@ -81,6 +110,38 @@ class BookControllerTest {
         verify(bookApplicationService).findAll();
     }
 
+    @Test
+    void findPage_ShouldReturnPageWithNextCursor() throws Exception {
+        // Given
+        BookPageDto page = new BookPageDto(List.of(testBookDto), "next-token", 1);
+        when(bookApplicationService.findPage(Category.NOVEL, null, null, BookSort.NAME, null, 1)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/books/page")
+                        .param("category", "NOVEL")
+                        .param("sort", "NAME")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Test Book")))
+                .andExpect(jsonPath("$.nextCursor", is("next-token")))
+                .andExpect(jsonPath("$.size", is(1)));
+
+        verify(bookApplicationService).findPage(Category.NOVEL, null, null, BookSort.NAME, null, 1);
+    }
+
+    @Test
+    void findPage_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        // Given
+        when(bookApplicationService.findPage(null, null, null, BookSort.ID, "garbage", null))
+                .thenThrow(new InvalidArgumentsException());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/page").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void findById_ShouldReturnBook_WhenBookExists() throws Exception {
         // Given
@@ -174,6 +235,19 @@ class BookControllerTest {
         verify(bookApplicationService).update(eq(999L), any(CreateBookDto.class));
     }
 
+    @Test
+    void update_ShouldReturnBadRequest_WhenEditCarriesNoVersion() throws Exception {
+        // Given
+        when(bookApplicationService.update(eq(1L), any(CreateBookDto.class)))
+                .thenThrow(new InvalidArgumentsException());
+
+        // When & Then
+        mockMvc.perform(put("/api/books/edit/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createBookDto)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void deleteById_ShouldDeleteBook_WhenBookExists() throws Exception {
         // Given
@@ -218,6 +292,27 @@ class BookControllerTest {
         verify(bookApplicationService).markAsBorrowed(1L);
     }
 
+    @Test
+    void markAsBorrowed_ShouldReturnConflict_WhenNoCopiesLeft() throws Exception {
+        // Given
+        when(bookApplicationService.markAsBorrowed(1L))
+                .thenThrow(new NotEnoughCopiesException(List.of("Test Book")));
+
+        // When & Then
+        mockMvc.perform(put("/api/books/1/mark-as-borrowed"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void markAsBorrowed_ShouldReturnNotFound_WhenBookDoesNotExist() throws Exception {
+        // Given
+        when(bookApplicationService.markAsBorrowed(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(put("/api/books/999/mark-as-borrowed"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void findAllCategories_ShouldReturnAllCategories() throws Exception {
         // Given
@@ -237,31 +332,251 @@ class BookControllerTest {
     }
 
     @Test
-    void getBookHistory_ShouldReturnHistory_WhenBookExists() throws Exception {
+    void getBookHistory_ShouldReturnPage_WhenBookExists() throws Exception {
         // Given
-        when(bookApplicationService.findById(1L)).thenReturn(Optional.of(testBookDto));
-        when(bookApplicationService.getBookHistory(1L)).thenReturn(Arrays.asList());
+        DisplayBookHistoryDto entry = new DisplayBookHistoryDto(7L, 1L, 3, "Test Book", Category.NOVEL,
+                1L, "John Doe", 5, LocalDateTime.of(2024, 1, 10, 12, 0), "librarian");
+        when(bookApplicationService.getBookHistory(1L, null, null, null, null))
+                .thenReturn(Optional.of(new BookHistoryPageDto(List.of(entry), "next", 20)));
 
         // When & Then
         mockMvc.perform(get("/api/books/1/history"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(jsonPath("$", hasSize(0)));
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].modifiedBy", is("librarian")))
+                .andExpect(jsonPath("$.nextCursor", is("next")));
 
-        verify(bookApplicationService).findById(1L);
-        verify(bookApplicationService).getBookHistory(1L);
+        // a single call decides both existence and content
+        verify(bookApplicationService).getBookHistory(1L, null, null, null, null);
+        verify(bookApplicationService, never()).findById(anyLong());
+    }
+
+    @Test
+    void getBookHistory_ShouldPassRangeAndCursor() throws Exception {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2024, 2, 1, 0, 0);
+        when(bookApplicationService.getBookHistory(1L, from, to, "abc", 5))
+                .thenReturn(Optional.of(new BookHistoryPageDto(List.of(), null, 5)));
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history")
+                        .param("from", "2024-01-01T00:00:00")
+                        .param("to", "2024-02-01T00:00:00")
+                        .param("cursor", "abc")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
     }
 
     @Test
     void getBookHistory_ShouldReturnNotFound_WhenBookDoesNotExist() throws Exception {
         // Given
-        when(bookApplicationService.findById(999L)).thenReturn(Optional.empty());
+        when(bookApplicationService.getBookHistory(999L, null, null, null, null)).thenReturn(Optional.empty());
 
         // When & Then
         mockMvc.perform(get("/api/books/999/history"))
                 .andExpect(status().isNotFound());
+    }
 
-        verify(bookApplicationService).findById(999L);
-        verify(bookApplicationService, never()).getBookHistory(999L);
+    @Test
+    void getBookHistory_ShouldReturnBadRequest_WhenCursorIsMalformed() throws Exception {
+        // Given
+        when(bookApplicationService.getBookHistory(1L, null, null, "bad", null))
+                .thenThrow(new InvalidArgumentsException());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history").param("cursor", "bad"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getBookStateAsOf_ShouldReturnState_WhenRecorded() throws Exception {
+        // Given
+        LocalDateTime at = LocalDateTime.of(2024, 1, 15, 0, 0);
+        DisplayBookHistoryDto entry = new DisplayBookHistoryDto(7L, 1L, 2, "Old Name", Category.NOVEL,
+                1L, "John Doe", 2, LocalDateTime.of(2024, 1, 10, 12, 0), "librarian");
+        when(bookApplicationService.getBookStateAsOf(1L, at)).thenReturn(Optional.of(entry));
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history/as-of").param("at", "2024-01-15T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name", is("Old Name")))
+                .andExpect(jsonPath("$.availableCopies", is(2)));
+    }
+
+    @Test
+    void getBookStateAsOf_ShouldReturnNotFound_WhenNothingRecordedYet() throws Exception {
+        // Given
+        LocalDateTime at = LocalDateTime.of(2000, 1, 1, 0, 0);
+        when(bookApplicationService.getBookStateAsOf(1L, at)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history/as-of").param("at", "2000-01-01T00:00:00"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBookRevision_ShouldReturnRebuiltRevision() throws Exception {
+        // Given
+        DisplayBookHistoryDto entry = new DisplayBookHistoryDto(9L, 1L, 4, "Test Book", Category.NOVEL,
+                1L, "John Doe", 1, LocalDateTime.of(2024, 1, 12, 9, 0), "librarian");
+        when(bookApplicationService.getBookRevision(1L, 4)).thenReturn(Optional.of(entry));
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history/revisions/4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revision", is(4)))
+                .andExpect(jsonPath("$.authorName", is("John Doe")));
+    }
+
+    @Test
+    void getBookRevision_ShouldReturnNotFound_WhenRevisionDoesNotExist() throws Exception {
+        // Given
+        when(bookApplicationService.getBookRevision(1L, 99)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/1/history/revisions/99"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void importBooks_ShouldReturnResultWithRowErrors() throws Exception {
+        // Given
+        BookImportResultDto result = new BookImportResultDto(2, 1, 1,
+                List.of(new BookImportErrorDto(2, "unknown author")), false, 10, 200.0);
+        when(bookImportApplicationService.importBooks(any(), eq(CatalogFormat.CSV))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/books/import")
+                        .contentType("text/csv")
+                        .content("name,category,authorId,availableCopies\nA,NOVEL,1,2\nB,NOVEL,99,1\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.failed", is(1)))
+                .andExpect(jsonPath("$.errors[0].row", is(2)))
+                .andExpect(jsonPath("$.errors[0].message", is("unknown author")));
+    }
+
+    @Test
+    void importBooks_ShouldRejectUnsupportedContentType() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/books/import")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(bookImportApplicationService);
+    }
+
+    @Test
+    void exportBooks_ShouldStreamCsvAsAttachment() throws Exception {
+        // Given
+        when(catalogExportApplicationService.exportBooks(any(), eq(CatalogFormat.CSV))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("id,name\r\n1,Test Book\r\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/books/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("text/csv")))
+                .andExpect(header().string("Content-Disposition", containsString("books.csv")))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("id,name\r\n1,Test Book\r\n"));
+    }
+
+    @Test
+    void exportBookHistory_ShouldGzip_WhenClientAcceptsIt() throws Exception {
+        // Given
+        when(catalogExportApplicationService.exportBookHistory(any(), eq(CatalogFormat.NDJSON))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"bookId\":1}\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        // When
+        MvcResult started = mockMvc.perform(get("/api/books/history/export").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        // Then
+        byte[] body = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream unzipped = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertEquals("{\"bookId\":1}\n", new String(unzipped.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void search_ShouldReturnRankedHits() throws Exception {
+        // Given
+        BookSearchPageDto page = new BookSearchPageDto(
+                List.of(new BookSearchHitDto(1L, "Test Book", 1L, "Test Author", 3.0)), 1, 0, 20);
+        when(bookApplicationService.search("test", null, null)).thenReturn(page);
+
+        // When & Then
+        mockMvc.perform(get("/api/books/search").param("q", "test"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Test Book")))
+                .andExpect(jsonPath("$.content[0].authorName", is("Test Author")));
+    }
+
+    @Test
+    void search_ShouldReturnBadRequest_WhenQueryIsBlank() throws Exception {
+        // Given
+        when(bookApplicationService.search(" ", null, null)).thenThrow(new InvalidArgumentsException());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/search").param("q", " "))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void browse_ShouldReturnPageWithFacetCounts() throws Exception {
+        // Given
+        BookFacetsDto facets = new BookFacetsDto(
+                List.of(new FacetCountDto("NOVEL", "NOVEL", 1), new FacetCountDto("DRAMA", "DRAMA", 3)),
+                List.of(new FacetCountDto("1", "Test Author", 1)),
+                List.of(new FacetCountDto("1", "Test Country", 1)),
+                1);
+        when(bookApplicationService.browse(Category.NOVEL, null, 1L, true, null, null))
+                .thenReturn(new BookBrowsePageDto(List.of(testBookDto), null, 20, 1, facets));
+
+        // When & Then
+        mockMvc.perform(get("/api/books/browse")
+                        .param("category", "NOVEL")
+                        .param("countryId", "1")
+                        .param("availableOnly", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total", is(1)))
+                .andExpect(jsonPath("$.content[0].name", is("Test Book")))
+                .andExpect(jsonPath("$.facets.categories[1].value", is("DRAMA")))
+                .andExpect(jsonPath("$.facets.categories[1].count", is(3)))
+                .andExpect(jsonPath("$.facets.authors[0].label", is("Test Author")))
+                .andExpect(jsonPath("$.facets.available", is(1)));
+    }
+
+    @Test
+    void browse_ShouldReturnBadRequest_WhenCursorIsInvalid() throws Exception {
+        // Given
+        when(bookApplicationService.browse(null, null, null, null, "garbage", null))
+                .thenThrow(new InvalidArgumentsException());
+
+        // When & Then
+        mockMvc.perform(get("/api/books/browse").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,104 @@
+package mk.finki.ukim.mk.library.web;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestConcurrencyLimitFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new RequestConcurrencyLimitFilter(1, 50, meterRegistry);
+    }
+
+    @Test
+    void doFilter_ShouldRejectRequestsBeyondTheLimitAfterWaiting() throws Exception {
+        // Given one request holds the only permit
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread inFlight = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        MockFilterChain rejectedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(), rejected, rejectedChain);
+        release.countDown();
+        inFlight.join();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        MockFilterChain admittedChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest(), admitted, admittedChain);
+
+        // Then
+        assertEquals(503, rejected.getStatus());
+        assertEquals("1", rejected.getHeader("Retry-After"));
+        assertNull(rejectedChain.getRequest());
+        assertEquals(200, admitted.getStatus());
+        assertNotNull(admittedChain.getRequest());
+        assertEquals(1.0, meterRegistry.get("library.requests.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("library.requests.in_flight").gauge().value());
+        assertEquals(1.0, meterRegistry.get("library.requests.limit").gauge().value());
+    }
+
+    @Test
+    void doFilter_ShouldLetActuatorRequestsThrough_WhenTheLimitIsReached() throws Exception {
+        // Given one request holds the only permit
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain blocking = (request, response) -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        Thread inFlight = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(new MockHttpServletRequest("GET", "/api/books"), new MockHttpServletResponse(), blocking);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        MockHttpServletResponse health = new MockHttpServletResponse();
+        MockFilterChain healthChain = new MockFilterChain();
+        filter.doFilter(new MockHttpServletRequest("GET", "/actuator/health"), health, healthChain);
+        release.countDown();
+        inFlight.join();
+
+        // Then
+        assertEquals(200, health.getStatus());
+        assertNotNull(healthChain.getRequest());
+        assertEquals(0.0, meterRegistry.get("library.requests.rejected").counter().count());
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import mk.finki.ukim.mk.library.LibraryApplication;
 import mk.finki.ukim.mk.library.config.TestSecurityConfig;
 import mk.finki.ukim.mk.library.exceptions.InvalidUserCredentialsException;
+import mk.finki.ukim.mk.library.exceptions.PasswordHashingBusyException;
 import mk.finki.ukim.mk.library.exceptions.PasswordsDoNotMatchException;
 import mk.finki.ukim.mk.library.model.Dto.*;
 import mk.finki.ukim.mk.library.model.enumerations.Role;
@@ -183,4 +184,18 @@ class UserControllerTest {
 
         verify(userApplicationService, never()).login(any(LoginUserDto.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    void login_ShouldReturnTooManyRequests_WhenPasswordHashingIsSaturated() throws Exception {
+        // Given
+        when(userApplicationService.login(any(LoginUserDto.class)))
+                .thenThrow(new PasswordHashingBusyException(3));
+
+        // When & Then
+        mockMvc.perform(post("/api/user/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginUserDto)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "3"));
+    }
+}
@@ -3,6 +3,8 @@ package mk.finki.ukim.mk.library.web;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import mk.finki.ukim.mk.library.LibraryApplication;
 import mk.finki.ukim.mk.library.config.TestSecurityConfig;
+import mk.finki.ukim.mk.library.exceptions.BookNotFoundException;
+import mk.finki.ukim.mk.library.exceptions.NotEnoughCopiesException;
 import mk.finki.ukim.mk.library.model.Dto.DisplayBookDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayWishlistDto;
 import mk.finki.ukim.mk.library.model.Dto.DisplayAuthorDto;
@@ -221,16 +223,30 @@ class WishlistControllerTest {
 
     @Test
     @WithMockUser(username = "testuser")
-    void borrowAllBooks_ShouldReturnBadRequestWithMessage_WhenExceptionThrown() throws Exception {
+    void borrowAllBooks_ShouldReturnConflictWithTitles_WhenCopiesRunOut() throws Exception {
         // Given
-        String errorMessage = "Insufficient copies available";
         when(wishlistApplicationService.borrowAllBooks("testuser"))
-                .thenThrow(new RuntimeException(errorMessage));
+                .thenThrow(new NotEnoughCopiesException(List.of("Another Book", "Test Book")));
 
         // When & Then
         mockMvc.perform(post("/api/wishlist/borrow"))
-                .andExpect(status().isBadRequest())
-                .andExpect(content().string(errorMessage));
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0]").value("Another Book"))
+                .andExpect(jsonPath("$[1]").value("Test Book"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void borrowAllBooks_ShouldReturnNotFoundWithIds_WhenBooksWereDeleted() throws Exception {
+        // Given
+        when(wishlistApplicationService.borrowAllBooks("testuser"))
+                .thenThrow(new BookNotFoundException(List.of(2L)));
+
+        // When & Then
+        mockMvc.perform(post("/api/wishlist/borrow"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$[0]").value(2L));
     }
 
 
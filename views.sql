@@ -13,40 +13,59 @@ GROUP BY a.id, a.name, a.surname
 -- Create index for better performance
 CREATE UNIQUE INDEX IF NOT EXISTS idx_books_by_author ON books_by_author (author_id);
 
--- Materialized view for authors count by country
-CREATE MATERIALIZED VIEW IF NOT EXISTS authors_by_country AS
+-- Number of authors per country, maintained incrementally by row triggers on author
+-- (replaces the authors_by_country materialized view and its full-refresh statement triggers)
+DROP TRIGGER IF EXISTS refresh_authors_by_country_insert ON author;
+DROP TRIGGER IF EXISTS refresh_authors_by_country_update ON author;
+DROP TRIGGER IF EXISTS refresh_authors_by_country_delete ON author;
+DROP FUNCTION IF EXISTS refresh_authors_by_country();
+DROP MATERIALIZED VIEW IF EXISTS authors_by_country;
+
+CREATE TABLE IF NOT EXISTS author_country_counts (
+    country_id BIGINT PRIMARY KEY REFERENCES country(id) ON DELETE CASCADE,
+    author_count BIGINT NOT NULL DEFAULT 0
+);
+
+INSERT INTO author_country_counts (country_id, author_count)
+SELECT country_id, COUNT(*)
+FROM author
+WHERE country_id IS NOT NULL
+GROUP BY country_id
+ON CONFLICT (country_id) DO NOTHING;
+
+-- View for authors count by country
+CREATE OR REPLACE VIEW authors_by_country AS
 SELECT c.id as country_id,
        c.name as country_name,
-       COUNT(a.id) as author_count
+       COALESCE(acc.author_count, 0) as author_count
 FROM country c
-         LEFT JOIN author a ON c.id = a.country_id
-GROUP BY c.id, c.name
-    WITH DATA;
+         LEFT JOIN author_country_counts acc ON c.id = acc.country_id;
 
--- Create index for better performance
-CREATE UNIQUE INDEX IF NOT EXISTS idx_authors_by_country ON authors_by_country (country_id);
-
--- Function to refresh the materialized view
-CREATE OR REPLACE FUNCTION refresh_authors_by_country()
+-- Function applying a -1/+1 delta per affected country
+CREATE OR REPLACE FUNCTION maintain_author_country_counts()
 RETURNS TRIGGER AS $$
 BEGIN
-    REFRESH MATERIALIZED VIEW authors_by_country;
+    IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.country_id IS NOT NULL THEN
+        UPDATE author_country_counts SET author_count = author_count - 1
+        WHERE country_id = OLD.country_id;
+    END IF;
+    IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.country_id IS NOT NULL THEN
+        INSERT INTO author_country_counts (country_id, author_count) VALUES (NEW.country_id, 1)
+        ON CONFLICT (country_id)
+        DO UPDATE SET author_count = author_country_counts.author_count + 1;
+    END IF;
 RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
 
--- Triggers to refresh the view when authors are modified
-CREATE OR REPLACE TRIGGER refresh_authors_by_country_insert
-AFTER INSERT ON author
-FOR EACH STATEMENT
-EXECUTE FUNCTION refresh_authors_by_country();
-
-CREATE OR REPLACE TRIGGER refresh_authors_by_country_update
-AFTER UPDATE ON author
-                           FOR EACH STATEMENT
-                           EXECUTE FUNCTION refresh_authors_by_country();
-
-CREATE OR REPLACE TRIGGER refresh_authors_by_country_delete
-AFTER DELETE ON author
-FOR EACH STATEMENT
-EXECUTE FUNCTION refresh_authors_by_country();
\ No newline at end of file
+-- Triggers to maintain the counts when authors are modified
+CREATE OR REPLACE TRIGGER author_country_counts_insert_delete
+AFTER INSERT OR DELETE ON author
+FOR EACH ROW
+EXECUTE FUNCTION maintain_author_country_counts();
+
+CREATE OR REPLACE TRIGGER author_country_counts_update
+AFTER UPDATE OF country_id ON author
+FOR EACH ROW
+WHEN (OLD.country_id IS DISTINCT FROM NEW.country_id)
+EXECUTE FUNCTION maintain_author_country_counts();